@@ -1,23 +1,52 @@
 package com.phosa;
 
+import com.phosa.csv.CsvRow;
+import com.phosa.csv.CsvRowMapper;
+import com.phosa.csv.CsvScanner;
+import com.phosa.csv.CsvWriter;
+import com.phosa.csv.MappedCsvFile;
+import com.phosa.csv.table.ColumnTable;
+import com.phosa.csv.table.ColumnType;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
-import java.io.FileReader;
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Csv 工具
+ * <p>{@code getCsvContent} 会把所有记录读入内存，只适合小文件；大文件请使用 {@code streamCsvContent}
+ * 或 {@code readCsvContent} 逐条处理，内存占用与文件大小无关；多核机器上可以使用 {@code parallelStreamCsvContent} 并行解析。
+ * <p>{@code read} 直接将记录映射为 Java Bean 或 record，不需要经过 JSON 中转；{@code writeCsvContent} 则反过来将对象写为Csv文件。
  */
 @Slf4j
 public class CsvUtil {
+    /**
+     * 流式读取时 Reader 的缓冲区大小，单位为字符
+     */
+    private static final int READ_BUFFER_SIZE = 1 << 20;
 
     /**
-     * 获取Csv文件的内容
+     * 以平台默认编码获取Csv文件的内容
      *
      * @param filename 文件路径及名称
      * @return 文件内容
@@ -28,20 +57,401 @@ public class CsvUtil {
     }
 
     /**
-     * 获取Csv文件的内容
+     * 以平台默认编码获取Csv文件的内容，与旧版本的行为一致；需要指定编码时使用 {@link #getCsvContent(Path, CSVFormat, Charset)}
      *
      * @param filename 文件路径及名称
      * @param format 文件格式
      * @return 文件内容
      */
     public static List<CSVRecord> getCsvContent(String filename, CSVFormat format) {
-        try (Reader reader = new FileReader(filename);
-             CSVParser csvParser = new CSVParser(reader, format)) {
-            return csvParser.getRecords();
+        return getCsvContent(Path.of(filename), format, Charset.defaultCharset());
+    }
+
+    /**
+     * 获取Csv文件的内容，与 {@link #readCsvContent(Path, CSVFormat, Charset, Consumer)} 使用相同的大缓冲区读取
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @return 文件内容
+     */
+    public static List<CSVRecord> getCsvContent(Path path, CSVFormat format, Charset charset) {
+        List<CSVRecord> records = new ArrayList<>();
+        readCsvContent(path, format, charset, records::add);
+        return records;
+    }
+
+    /**
+     * 以 UTF-8 编码流式读取Csv文件
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @return 记录流，需要在 try-with-resources 中使用以关闭文件
+     * @see #streamCsvContent(Path, CSVFormat, Charset)
+     */
+    public static Stream<CSVRecord> streamCsvContent(Path path, CSVFormat format) {
+        return streamCsvContent(path, format, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 流式读取Csv文件，记录在遍历时才逐条解析，不会一次性读入内存
+     * <p>使用示例：
+     * <pre>{@code
+     *     try (Stream<CSVRecord> records = CsvUtil.streamCsvContent(path, CSVFormat.DEFAULT, StandardCharsets.UTF_8)) {
+     *         long count = records.filter(r -> "CN".equals(r.get(2))).count();
+     *     }
+     * }</pre>
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @return 记录流，需要在 try-with-resources 中使用以关闭文件
+     */
+    public static Stream<CSVRecord> streamCsvContent(Path path, CSVFormat format, Charset charset) {
+        CSVParser csvParser = openCsvParser(path, format, charset);
+        return csvParser.stream().onClose(() -> closeQuietly(csvParser));
+    }
+
+    /**
+     * 逐条读取Csv文件并交给回调处理，读取完毕后自动关闭文件
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @param consumer 记录回调
+     * @return 读取的记录数
+     */
+    public static long readCsvContent(Path path, CSVFormat format, Charset charset, Consumer<CSVRecord> consumer) {
+        long count = 0;
+        try (CSVParser csvParser = openCsvParser(path, format, charset)) {
+            for (CSVRecord csvRecord : csvParser) {
+                consumer.accept(csvRecord);
+                count++;
+            }
+        } catch (IOException e) {
+            log.error("Error reading CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot read CSV " + path, e);
+        }
+        return count;
+    }
+
+    /**
+     * 以 UTF-8 编码读取带表头的Csv文件，并将每条记录映射为指定类型的对象
+     *
+     * @param path 文件路径
+     * @param type 目标类型，可以是有无参构造器的 Java Bean 或 record
+     * @return 对象列表
+     * @param <T> 目标类型
+     * @see #read(Path, CSVFormat, Charset, Class)
+     */
+    public static <T> List<T> read(Path path, Class<T> type) {
+        return read(path, CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build(), StandardCharsets.UTF_8, type);
+    }
+
+    /**
+     * 读取Csv文件，并将每条记录映射为指定类型的对象
+     * <p>列按表头名称对应到属性，名称忽略大小写和下划线，例如 {@code user_name} 对应 {@code userName}；
+     * 格式中没有表头时按属性的声明顺序逐列对应。对应关系每个文件只解析一次，详见 {@link CsvRowMapper}。
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @param type 目标类型，可以是有无参构造器的 Java Bean 或 record
+     * @return 对象列表
+     * @param <T> 目标类型
+     */
+    public static <T> List<T> read(Path path, CSVFormat format, Charset charset, Class<T> type) {
+        return read(path, format, charset, type, null);
+    }
+
+    /**
+     * 流式读取Csv文件，并将每条记录映射为指定类型的对象
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @param type 目标类型，可以是有无参构造器的 Java Bean 或 record
+     * @return 对象流，需要在 try-with-resources 中使用以关闭文件
+     * @param <T> 目标类型
+     * @see #read(Path, CSVFormat, Charset, Class)
+     */
+    public static <T> Stream<T> streamCsvContent(Path path, CSVFormat format, Charset charset, Class<T> type) {
+        CsvScanner scanner = openCsvScanner(path, format, charset);
+        try {
+            CsvRowMapper<T> mapper = CsvRowMapper.of(type, scanner.getHeaderNames());
+            Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!scanner.next()) {
+                            return false;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot read CSV " + path, e);
+                    }
+                    action.accept(mapper.map(scanner.row()));
+                    return true;
+                }
+            };
+            return StreamSupport.stream(spliterator, false).onClose(() -> closeQuietly(scanner));
+        } catch (RuntimeException e) {
+            closeQuietly(scanner);
+            throw e;
+        }
+    }
+
+    /**
+     * 读取Csv文件中满足条件的行，只取出指定的列
+     * <p>过滤条件作用于不复制字符的行视图，不满足条件的行和未选中的列都不会创建 String。例如只取 80 列中的 3 列：
+     * <pre>{@code
+     *     List<String[]> rows = CsvUtil.readCsvContent(path, CSVFormat.DEFAULT.builder().setHeader().build(),
+     *             StandardCharsets.UTF_8, List.of("id", "name", "amount"),
+     *             row -> row.equals(row.indexOf("country"), "CN"));
+     * }</pre>
+     *
+     * @param path 文件路径
+     * @param format 文件格式，需要包含表头
+     * @param charset 文件编码
+     * @param columns 需要取出的列名，结果中的单元格按该顺序排列
+     * @param filter 行过滤条件，为 null 时保留所有行
+     * @return 选中的单元格，当前行没有该列时为 null
+     */
+    public static List<String[]> readCsvContent(Path path, CSVFormat format, Charset charset, List<String> columns, Predicate<CsvRow> filter) {
+        try (CsvScanner scanner = openCsvScanner(path, format, charset)) {
+            int[] indexes = new int[columns.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = scanner.indexOf(columns.get(i));
+            }
+            return readCsvContent(scanner, indexes, filter);
+        } catch (IOException e) {
+            log.error("Error reading CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot read CSV " + path, e);
+        }
+    }
+
+    /**
+     * 读取Csv文件中满足条件的行，只取出指定序号的列，适用于没有表头的文件
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @param columns 需要取出的列序号，结果中的单元格按该顺序排列
+     * @param filter 行过滤条件，为 null 时保留所有行
+     * @return 选中的单元格，当前行没有该列时为 null
+     * @see #readCsvContent(Path, CSVFormat, Charset, List, Predicate)
+     */
+    public static List<String[]> readCsvContent(Path path, CSVFormat format, Charset charset, int[] columns, Predicate<CsvRow> filter) {
+        try (CsvScanner scanner = openCsvScanner(path, format, charset)) {
+            return readCsvContent(scanner, columns, filter);
+        } catch (IOException e) {
+            log.error("Error reading CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot read CSV " + path, e);
+        }
+    }
+
+    /**
+     * 读取Csv文件中满足条件的行，并映射为指定类型的对象
+     * <p>只有对应到属性的列会被读取，数值和日期直接从读取缓冲区解析，不满足条件的行不会创建对象。
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @param type 目标类型，可以是有无参构造器的 Java Bean 或 record
+     * @param filter 行过滤条件，为 null 时保留所有行
+     * @return 对象列表
+     * @param <T> 目标类型
+     * @see #read(Path, CSVFormat, Charset, Class)
+     */
+    public static <T> List<T> read(Path path, CSVFormat format, Charset charset, Class<T> type, Predicate<CsvRow> filter) {
+        try (CsvScanner scanner = openCsvScanner(path, format, charset)) {
+            CsvRowMapper<T> mapper = CsvRowMapper.of(type, scanner.getHeaderNames());
+            List<T> result = new ArrayList<>();
+            while (scanner.next()) {
+                CsvRow row = scanner.row();
+                if (filter == null || filter.test(row)) {
+                    result.add(mapper.map(row));
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            log.error("Error reading CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot read CSV " + path, e);
+        }
+    }
+
+    /**
+     * 打开Csv文件的扫描器，逐行访问时不会为单元格创建 String，使用完毕后需要关闭
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @return Csv扫描器
+     */
+    public static CsvScanner openCsvScanner(Path path, CSVFormat format, Charset charset) {
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(Files.newInputStream(path), charset);
+            return CsvScanner.open(reader, format);
+        } catch (IOException e) {
+            if (reader != null) {
+                closeQuietly(reader);
+            }
+            log.error("Error opening CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot open CSV " + path, e);
+        }
+    }
+
+    /**
+     * 将Csv文件读入按列存储的内存表，列类型自动推断
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @return 内存表
+     * @see #readColumnTable(Path, CSVFormat, Charset, Map)
+     */
+    public static ColumnTable readColumnTable(Path path, CSVFormat format, Charset charset) {
+        return readColumnTable(path, format, charset, Map.of());
+    }
+
+    /**
+     * 将Csv文件读入按列存储的内存表，适合在内存中反复过滤、排序和分组聚合
+     * <p>数值列保存为基本类型数组，字符串列按字典编码，内存占用通常远小于 {@code List<CSVRecord>}，详见 {@link ColumnTable}。
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @param types 指定类型的列，其余列自动推断
+     * @return 内存表
+     */
+    public static ColumnTable readColumnTable(Path path, CSVFormat format, Charset charset, Map<String, ColumnType> types) {
+        try (CsvScanner scanner = openCsvScanner(path, format, charset)) {
+            return ColumnTable.read(scanner, types);
+        } catch (IOException e) {
+            log.error("Error reading CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot read CSV " + path, e);
+        }
+    }
+
+    /**
+     * 以 UTF-8 编码并行读取Csv文件
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param ordered 是否保持记录在文件中的顺序
+     * @return 并行的记录流，需要在 try-with-resources 中使用以关闭文件
+     * @see #parallelStreamCsvContent(Path, CSVFormat, Charset, boolean)
+     */
+    public static Stream<CSVRecord> parallelStreamCsvContent(Path path, CSVFormat format, boolean ordered) {
+        return parallelStreamCsvContent(path, format, StandardCharsets.UTF_8, ordered);
+    }
+
+    /**
+     * 并行读取Csv文件：文件被内存映射并按记录边界切分为多个分块，各分块在公共线程池中独立解析
+     * <p>适合多核机器上的大文件。记录号在每个分块内重新计数；编码需要与 ASCII 兼容（如 UTF-8、GBK），
+     * 且行尾需要包含 {@code \n}，详见 {@link MappedCsvFile}。
+     * <pre>{@code
+     *     try (Stream<CSVRecord> records = CsvUtil.parallelStreamCsvContent(path, CSVFormat.DEFAULT, false)) {
+     *         Map<String, Long> counts = records.collect(Collectors.groupingByConcurrent(r -> r.get(2), Collectors.counting()));
+     *     }
+     * }</pre>
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @param ordered 是否保持记录在文件中的顺序，不需要时设为 false 可以减少合并开销
+     * @return 并行的记录流，需要在 try-with-resources 中使用以关闭文件
+     */
+    public static Stream<CSVRecord> parallelStreamCsvContent(Path path, CSVFormat format, Charset charset, boolean ordered) {
+        try {
+            return MappedCsvFile.open(path, format, charset).records(ordered);
         } catch (IOException e) {
-            log.error("Error loading accounts from CSV: {}", e.getMessage(), e);
-            throw new IllegalStateException("Cannot load accounts", e);
+            log.error("Error opening CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot open CSV " + path, e);
         }
+    }
 
+    /**
+     * 以 UTF-8 编码将对象写为带表头的Csv文件，列为所有可读属性
+     * <p>需要选择列、压缩或切分文件时请直接使用 {@link CsvWriter}。
+     *
+     * @param path 文件路径
+     * @param type 元素类型，可以是 Java Bean 或 record
+     * @param rows 元素
+     * @return 写入的行数
+     * @param <T> 元素类型
+     */
+    public static <T> long writeCsvContent(Path path, Class<T> type, Iterable<? extends T> rows) {
+        try (CsvWriter<T> writer = CsvWriter.newBuilder(type).build(path)) {
+            return writer.writeAll(rows);
+        } catch (IOException e) {
+            log.error("Error writing CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot write CSV " + path, e);
+        }
+    }
+
+    /**
+     * 以 UTF-8 编码将流中的对象按顺序写为带表头的Csv文件，列为所有可读属性
+     *
+     * @param path 文件路径
+     * @param type 元素类型，可以是 Java Bean 或 record
+     * @param rows 元素流
+     * @return 写入的行数
+     * @param <T> 元素类型
+     * @see #writeCsvContent(Path, Class, Iterable)
+     */
+    public static <T> long writeCsvContent(Path path, Class<T> type, Stream<? extends T> rows) {
+        try (CsvWriter<T> writer = CsvWriter.newBuilder(type).build(path)) {
+            return writer.writeAll(rows);
+        } catch (IOException e) {
+            log.error("Error writing CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot write CSV " + path, e);
+        }
+    }
+
+    /**
+     * 打开Csv文件的解析器，可直接用 for-each 或迭代器逐条遍历，使用完毕后需要关闭
+     *
+     * @param path 文件路径
+     * @param format 文件格式
+     * @param charset 文件编码
+     * @return Csv解析器
+     */
+    public static CSVParser openCsvParser(Path path, CSVFormat format, Charset charset) {
+        Reader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), charset), READ_BUFFER_SIZE);
+            return new CSVParser(reader, format);
+        } catch (IOException e) {
+            if (reader != null) {
+                closeQuietly(reader);
+            }
+            log.error("Error opening CSV {}: {}", path, e.getMessage(), e);
+            throw new IllegalStateException("Cannot open CSV " + path, e);
+        }
+    }
+
+    private static List<String[]> readCsvContent(CsvScanner scanner, int[] columns, Predicate<CsvRow> filter) throws IOException {
+        List<String[]> result = new ArrayList<>();
+        while (scanner.next()) {
+            CsvRow row = scanner.row();
+            if (filter == null || filter.test(row)) {
+                String[] values = new String[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    values[i] = row.getString(columns[i]);
+                }
+                result.add(values);
+            }
+        }
+        return result;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("Error closing CSV: {}", e.getMessage(), e);
+        }
     }
 }
@@ -1,14 +1,51 @@
 package com.phosa;
 
 
+import com.phosa.thread.AdaptiveThreadPoolExecutor;
+import com.phosa.thread.BatchingExecutor;
+import com.phosa.thread.ConcurrencyLimitedExecutor;
+import com.phosa.thread.CronExpression;
+import com.phosa.thread.ExecutorMetrics;
+import com.phosa.thread.InstrumentedThreadPoolExecutor;
+import com.phosa.thread.LimitAlgorithm;
+import com.phosa.thread.NamedThreadFactory;
+import com.phosa.thread.PriorityThreadPoolExecutor;
+import com.phosa.thread.RejectionPolicy;
+import com.phosa.thread.ScheduledTask;
+import com.phosa.thread.TaskScope;
+import com.phosa.thread.TimingWheelScheduler;
+import com.phosa.thread.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * 线程工具类
+ * <p>除默认线程池外，还可以按名称注册多个独立配置的线程池，例如 CPU 密集任务使用工作窃取线程池，
+ * I/O 任务使用有界线程池，不同负载之间互不抢占。拒绝策略见 {@link RejectionPolicy}。
+ * <pre>{@code
+ *     ThreadUtil.createWorkStealingPool("cpu", 8);
+ *     ThreadUtil.createIoPool("io", 16, 64, 1000, RejectionPolicy.block(5, TimeUnit.SECONDS));
+ *     ThreadUtil.executeTask("io", () -> download(url));
+ * }</pre>
  */
+@Slf4j
 public class ThreadUtil {
 
-    private static ExecutorService threadPool;
+    private static final AtomicReference<ExecutorService> threadPool = new AtomicReference<>();
+
+    private static final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    /**
+     * 默认线程池在 JMX 中的名称
+     */
+    public static final String DEFAULT_POOL_NAME = "default";
 
     static {
         updateThreadPool(5, 10);
@@ -23,12 +60,21 @@ public class ThreadUtil {
     }
 
     /**
-     * 更新线程池
+     * 更新线程池。当前线程池是 {@link ThreadPoolExecutor} 时原地调整线程数，不重建线程池，
+     * 此时等待队列保持原有容量；否则创建新的线程池替换当前线程池
      * @param corePoolSize 核心线程数
      * @param maxPollSize 最大线程数
      */
     public static void updateThreadPool(int corePoolSize, int maxPollSize) {
-        updateThreadPool(new ThreadPoolExecutor(
+        if (corePoolSize < 0 || maxPollSize <= 0 || maxPollSize < corePoolSize) {
+            throw new IllegalArgumentException("ThreadUtil: Invalid pool size " + corePoolSize + "/" + maxPollSize);
+        }
+        if (threadPool.get() instanceof ThreadPoolExecutor current && !current.isShutdown()
+                && !(current instanceof AdaptiveThreadPoolExecutor)) {
+            resize(current, corePoolSize, maxPollSize);
+            return;
+        }
+        updateThreadPool(new InstrumentedThreadPoolExecutor(
                 corePoolSize,
                 maxPollSize,
                 0L,
@@ -44,8 +90,66 @@ public class ThreadUtil {
      * @param threadPoolExecutor 线程池
      */
     public static void updateThreadPool(ThreadPoolExecutor threadPoolExecutor) {
-        shutdownThreadPool();
-        threadPool = threadPoolExecutor;
+        updateThreadPool((ExecutorService) threadPoolExecutor);
+    }
+
+    /**
+     * 更新线程池。新线程池以原子方式替换旧线程池，调用方不会被阻塞，新任务立即交给新线程池；
+     * 旧线程池不再接受任务，已提交的任务在后台执行完毕，不会被中断或丢弃
+     * @param executorService 线程池
+     */
+    public static void updateThreadPool(ExecutorService executorService) {
+        ExecutorService previous = threadPool.getAndSet(executorService);
+        if (previous == executorService) {
+            return;
+        }
+        unregisterMBean(previous);
+        registerMBean(DEFAULT_POOL_NAME, executorService);
+        if (previous != null) {
+            drain(DEFAULT_POOL_NAME, previous);
+        }
+    }
+
+    /**
+     * 将默认线程池切换为每个任务一个虚拟线程，适合阻塞 I/O 任务，需要 Java 21 及以上版本
+     * @param maxConcurrency 同时运行的最大任务数，用于保护下游服务
+     * @see VirtualThreads#isSupported()
+     */
+    public static void useVirtualThreads(int maxConcurrency) {
+        updateThreadPool(new ConcurrencyLimitedExecutor(VirtualThreads.newExecutor("ThreadUtil"), maxConcurrency));
+    }
+
+    /**
+     * 将默认线程池切换为自适应线程池，线程数根据任务耗时在上下界之间自动调整
+     * @param minPoolSize 最小线程数
+     * @param maxPoolSize 最大线程数
+     * @param queueCapacity 等待队列容量
+     * @see LimitAlgorithm#gradient(int, int)
+     */
+    public static void useAdaptiveThreadPool(int minPoolSize, int maxPoolSize, int queueCapacity) {
+        updateThreadPool(new AdaptiveThreadPoolExecutor(
+                LimitAlgorithm.gradient(minPoolSize, maxPoolSize),
+                new LinkedBlockingQueue<>(queueCapacity),
+                Executors.defaultThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        ));
+    }
+
+    /**
+     * 获取默认线程池当前的并发上限
+     * @return 自适应线程池返回算法计算的上限，其它 {@link ThreadPoolExecutor} 返回最大线程数
+     */
+    public static int getConcurrencyLimit() {
+        return concurrencyLimitOf(DEFAULT_POOL_NAME, defaultPool());
+    }
+
+    /**
+     * 获取指定线程池当前的并发上限
+     * @param name 线程池名称
+     * @return 自适应线程池返回算法计算的上限，其它 {@link ThreadPoolExecutor} 返回最大线程数
+     */
+    public static int getConcurrencyLimit(String name) {
+        return concurrencyLimitOf(name, getExecutor(name));
     }
 
     /**
@@ -53,28 +157,538 @@ public class ThreadUtil {
      * @param task 任务
      */
     public static void executeTask(Runnable task) {
-        if (threadPool == null) {
-            throw new IllegalStateException("ThreadUtil: Thread pool has not been initialized.");
-        }
-        threadPool.execute(task);
+        executeOnDefaultPool(task);
+    }
+
+    /**
+     * 提交有返回值的任务，任务抛出的异常会传递给返回的 Future
+     * @param task 任务
+     * @param <T> 返回值类型
+     * @return 任务结果
+     */
+    public static <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(ThreadUtil::executeOnDefaultPool, task);
+    }
+
+    /**
+     * 在指定线程池中提交有返回值的任务
+     * @param name 线程池名称
+     * @param task 任务
+     * @param <T> 返回值类型
+     * @return 任务结果
+     */
+    public static <T> CompletableFuture<T> submit(String name, Callable<T> task) {
+        return submit(getExecutor(name), task);
+    }
+
+    /**
+     * 执行所有任务，在截止时间前返回，届时仍未完成的任务会被取消
+     * @param tasks 任务
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @param <T> 返回值类型
+     * @return 与任务顺序一致的 Future 列表
+     * @throws InterruptedException 等待时被中断
+     */
+    public static <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return defaultPool().invokeAll(tasks, timeout, unit);
+    }
+
+    /**
+     * 在指定线程池中执行所有任务，在截止时间前返回，届时仍未完成的任务会被取消
+     * @param name 线程池名称
+     * @param tasks 任务
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @param <T> 返回值类型
+     * @return 与任务顺序一致的 Future 列表
+     * @throws InterruptedException 等待时被中断
+     */
+    public static <T> List<Future<T>> invokeAll(String name, Collection<? extends Callable<T>> tasks, long timeout,
+                                                TimeUnit unit) throws InterruptedException {
+        return getExecutor(name).invokeAll(tasks, timeout, unit);
+    }
+
+    /**
+     * 执行任务并返回第一个成功完成的结果，其余任务会被取消
+     * @param tasks 任务
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @param <T> 返回值类型
+     * @return 第一个成功的结果
+     * @throws InterruptedException 等待时被中断
+     * @throws ExecutionException 所有任务都失败
+     * @throws TimeoutException 截止时间前没有任务成功
+     */
+    public static <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return defaultPool().invokeAny(tasks, timeout, unit);
+    }
+
+    /**
+     * 在指定线程池中执行任务并返回第一个成功完成的结果，其余任务会被取消
+     * @param name 线程池名称
+     * @param tasks 任务
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @param <T> 返回值类型
+     * @return 第一个成功的结果
+     * @throws InterruptedException 等待时被中断
+     * @throws ExecutionException 所有任务都失败
+     * @throws TimeoutException 截止时间前没有任务成功
+     */
+    public static <T> T invokeAny(String name, Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return getExecutor(name).invokeAny(tasks, timeout, unit);
+    }
+
+    /**
+     * 创建使用默认线程池的结构化任务作用域
+     * @return 任务作用域，需要在 try-with-resources 中使用
+     */
+    public static TaskScope newScope() {
+        return new TaskScope(defaultPool());
+    }
+
+    /**
+     * 创建使用指定线程池的结构化任务作用域
+     * @param name 线程池名称
+     * @return 任务作用域，需要在 try-with-resources 中使用
+     */
+    public static TaskScope newScope(String name) {
+        return new TaskScope(getExecutor(name));
     }
 
     /**
      * 关闭线程池
      */
     public static void shutdownThreadPool() {
-        if (threadPool != null) {
-            threadPool.shutdown();
+        ExecutorService pool = threadPool.get();
+        if (pool != null) {
+            unregisterMBean(pool);
+            shutdown(pool);
+        }
+    }
+
+    /**
+     * 延迟执行一次任务。定时任务由共享的时间轮调度，到期后在专用的守护线程池中执行，精度为 10 毫秒
+     * @param task 任务
+     * @param delay 延迟
+     * @param unit 时间单位
+     * @return 任务句柄，可用于取消
+     */
+    public static ScheduledTask schedule(Runnable task, long delay, TimeUnit unit) {
+        return SchedulerHolder.SCHEDULER.schedule(task, delay, unit);
+    }
+
+    /**
+     * 以固定频率执行任务，上一次执行尚未结束时跳过本次执行
+     * @param task 任务
+     * @param initialDelay 首次执行的延迟
+     * @param period 周期
+     * @param unit 时间单位
+     * @return 任务句柄，可用于取消
+     */
+    public static ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return scheduleAtFixedRate(task, initialDelay, period, 0, unit);
+    }
+
+    /**
+     * 以固定频率执行任务，每次触发额外增加随机延迟，避免大量实例在同一时刻访问下游
+     * @param task 任务
+     * @param initialDelay 首次执行的延迟
+     * @param period 周期
+     * @param jitter 随机延迟的上限
+     * @param unit 时间单位
+     * @return 任务句柄，可用于取消
+     */
+    public static ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, long jitter,
+                                                    TimeUnit unit) {
+        return SchedulerHolder.SCHEDULER.scheduleAtFixedRate(task, initialDelay, period, jitter, unit);
+    }
+
+    /**
+     * 以固定延迟执行任务，每次执行结束后再等待 delay 开始下一次
+     * @param task 任务
+     * @param initialDelay 首次执行的延迟
+     * @param delay 两次执行之间的间隔
+     * @param unit 时间单位
+     * @return 任务句柄，可用于取消
+     */
+    public static ScheduledTask scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        return scheduleWithFixedDelay(task, initialDelay, delay, 0, unit);
+    }
+
+    /**
+     * 以固定延迟执行任务，每次触发额外增加随机延迟
+     * @param task 任务
+     * @param initialDelay 首次执行的延迟
+     * @param delay 两次执行之间的间隔
+     * @param jitter 随机延迟的上限
+     * @param unit 时间单位
+     * @return 任务句柄，可用于取消
+     */
+    public static ScheduledTask scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, long jitter,
+                                                       TimeUnit unit) {
+        return SchedulerHolder.SCHEDULER.scheduleWithFixedDelay(task, initialDelay, delay, jitter, unit);
+    }
+
+    /**
+     * 按 cron 表达式执行任务，使用系统默认时区
+     * @param task 任务
+     * @param cron 五段式 cron 表达式，例如 {@code 0 3 * * *}
+     * @return 任务句柄，可用于取消
+     * @see CronExpression
+     */
+    public static ScheduledTask scheduleCron(Runnable task, String cron) {
+        return scheduleCron(task, cron, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 按 cron 表达式执行任务，每次触发额外增加随机延迟
+     * @param task 任务
+     * @param cron 五段式 cron 表达式
+     * @param jitter 随机延迟的上限
+     * @param unit 时间单位
+     * @return 任务句柄，可用于取消
+     */
+    public static ScheduledTask scheduleCron(Runnable task, String cron, long jitter, TimeUnit unit) {
+        return SchedulerHolder.SCHEDULER.scheduleCron(task, CronExpression.parse(cron), jitter, unit);
+    }
+
+    /**
+     * 创建批处理执行器，把零散提交的元素按数量或时间窗口合并成批次，在专用线程中依次交给消费者
+     * @param consumer 批次的消费者
+     * @param maxBatchSize 每批的最大元素数
+     * @param maxDelay 第一个元素到达后最多等待多久交付
+     * @param unit 时间单位
+     * @param <T> 元素类型
+     * @return 批处理执行器，容量为 maxBatchSize 的 16 倍，更多配置请使用 {@link BatchingExecutor#newBuilder}
+     */
+    public static <T> BatchingExecutor<T> newBatchingExecutor(Consumer<List<T>> consumer, int maxBatchSize,
+                                                              long maxDelay, TimeUnit unit) {
+        return BatchingExecutor.newBuilder(consumer)
+                .maxBatchSize(maxBatchSize)
+                .maxDelay(maxDelay, unit)
+                .capacity((int) Math.min(Integer.MAX_VALUE, maxBatchSize * 16L))
+                .build();
+    }
+
+    /**
+     * 获取默认线程池的运行指标
+     * @return 指标快照
+     */
+    public static ExecutorMetrics getMetrics() {
+        return metricsOf(DEFAULT_POOL_NAME, defaultPool());
+    }
+
+    /**
+     * 获取指定线程池的运行指标
+     * @param name 线程池名称
+     * @return 指标快照
+     */
+    public static ExecutorMetrics getMetrics(String name) {
+        return metricsOf(name, getExecutor(name));
+    }
+
+    /**
+     * 创建并注册工作窃取线程池，适合可拆分的 CPU 密集任务。
+     * <p>ForkJoinPool 的任务队列是无界的，请用于数量可控的计算任务；需要背压时请使用 {@link #createIoPool}。
+     * @param name 线程池名称，同名的旧线程池会在后台执行完已提交的任务后关闭
+     * @param parallelism 并行度
+     * @return 线程池
+     */
+    public static ForkJoinPool createWorkStealingPool(String name, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            private final NamedThreadFactory names = new NamedThreadFactory(name);
+
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool p) {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName(names.nextName());
+                return thread;
+            }
+        }, null, false);
+        register(name, pool);
+        return pool;
+    }
+
+    /**
+     * 创建并注册有界 I/O 线程池。
+     * <p>先启动核心线程，核心线程都忙时任务进入队列，队列满后再扩容到最大线程数，仍然不够时交给拒绝策略。
+     * 超过核心线程数的空闲线程 60 秒后回收。
+     * @param name 线程池名称，同名的旧线程池会在后台执行完已提交的任务后关闭
+     * @param corePoolSize 核心线程数
+     * @param maxPoolSize 最大线程数
+     * @param queueCapacity 等待队列容量
+     * @param handler 拒绝策略
+     * @return 线程池
+     */
+    public static InstrumentedThreadPoolExecutor createIoPool(String name, int corePoolSize, int maxPoolSize,
+                                                              int queueCapacity, RejectedExecutionHandler handler) {
+        InstrumentedThreadPoolExecutor pool = new InstrumentedThreadPoolExecutor(
+                corePoolSize,
+                maxPoolSize,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new NamedThreadFactory(name),
+                handler
+        );
+        register(name, pool);
+        return pool;
+    }
+
+    /**
+     * 创建并注册优先级线程池，数值越大的任务越先执行。
+     * @param name 线程池名称，同名的旧线程池会在后台执行完已提交的任务后关闭
+     * @param poolSize 线程数
+     * @param queueCapacity 等待队列容量
+     * @param handler 拒绝策略，{@link RejectionPolicy#dropOldest()} 会丢弃优先级最低的任务
+     * @return 线程池
+     */
+    public static PriorityThreadPoolExecutor createPriorityPool(String name, int poolSize, int queueCapacity,
+                                                                RejectedExecutionHandler handler) {
+        PriorityThreadPoolExecutor pool = new PriorityThreadPoolExecutor(poolSize, queueCapacity,
+                new NamedThreadFactory(name), handler);
+        register(name, pool);
+        return pool;
+    }
+
+    /**
+     * 创建并注册自适应线程池，线程数由算法根据任务耗时自动调整
+     * @param name 线程池名称，同名的旧线程池会在后台执行完已提交的任务后关闭
+     * @param algorithm 并发上限算法，例如 {@link LimitAlgorithm#gradient(int, int)} 或 {@link LimitAlgorithm#aimd}
+     * @param queueCapacity 等待队列容量
+     * @param handler 拒绝策略
+     * @return 线程池
+     */
+    public static AdaptiveThreadPoolExecutor createAdaptivePool(String name, LimitAlgorithm algorithm, int queueCapacity,
+                                                                RejectedExecutionHandler handler) {
+        AdaptiveThreadPoolExecutor pool = new AdaptiveThreadPoolExecutor(algorithm,
+                new LinkedBlockingQueue<>(queueCapacity), new NamedThreadFactory(name), handler);
+        register(name, pool);
+        return pool;
+    }
+
+    /**
+     * 创建并注册虚拟线程池，每个任务一个虚拟线程，需要 Java 21 及以上版本
+     * @param name 线程池名称，同名的旧线程池会在后台执行完已提交的任务后关闭
+     * @param maxConcurrency 同时运行的最大任务数，用于保护下游服务
+     * @return 线程池
+     */
+    public static ConcurrencyLimitedExecutor createVirtualThreadPool(String name, int maxConcurrency) {
+        ConcurrencyLimitedExecutor pool = new ConcurrencyLimitedExecutor(VirtualThreads.newExecutor(name), maxConcurrency);
+        register(name, pool);
+        return pool;
+    }
+
+    /**
+     * 获取已注册的线程池
+     * @param name 线程池名称
+     * @return 线程池
+     */
+    public static ExecutorService getExecutor(String name) {
+        ExecutorService executor = executors.get(name);
+        if (executor == null) {
+            throw new IllegalStateException("ThreadUtil: No executor registered with name " + name);
+        }
+        return executor;
+    }
+
+    /**
+     * 在指定线程池中执行任务
+     * @param name 线程池名称
+     * @param task 任务
+     */
+    public static void executeTask(String name, Runnable task) {
+        getExecutor(name).execute(task);
+    }
+
+    /**
+     * 在指定的优先级线程池中执行任务
+     * @param name 线程池名称
+     * @param task 任务
+     * @param priority 优先级，数值越大越先执行
+     */
+    public static void executeTask(String name, Runnable task, int priority) {
+        if (!(getExecutor(name) instanceof PriorityThreadPoolExecutor executor)) {
+            throw new IllegalStateException("ThreadUtil: Executor " + name + " does not support priorities");
+        }
+        executor.execute(task, priority);
+    }
+
+    /**
+     * 关闭并注销指定线程池
+     * @param name 线程池名称
+     */
+    public static void shutdownExecutor(String name) {
+        ExecutorService executor = executors.remove(name);
+        if (executor != null) {
+            unregisterMBean(executor);
+            shutdown(executor);
+        }
+    }
+
+    /**
+     * 共享的时间轮调度器，首次使用定时功能时才创建。到期任务交给专用的守护线程池执行，
+     * 等待队列无界，不会因默认线程池的队列已满而拒绝并取消定时任务
+     */
+    private static final class SchedulerHolder {
+        static final ThreadPoolExecutor EXECUTOR = newSchedulerExecutor();
+        static final TimingWheelScheduler SCHEDULER = new TimingWheelScheduler(10, TimeUnit.MILLISECONDS, 512,
+                EXECUTOR, ZoneId.systemDefault());
+
+        private static ThreadPoolExecutor newSchedulerExecutor() {
+            int poolSize = Runtime.getRuntime().availableProcessors();
+            ThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(
+                    poolSize,
+                    poolSize,
+                    60L,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new NamedThreadFactory("ThreadUtil-scheduled", true),
+                    new ThreadPoolExecutor.CallerRunsPolicy()
+            );
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    private static ExecutorService defaultPool() {
+        ExecutorService pool = threadPool.get();
+        if (pool == null) {
+            throw new IllegalStateException("ThreadUtil: Thread pool has not been initialized.");
+        }
+        return pool;
+    }
+
+    /**
+     * 提交时线程池恰好被替换，旧线程池会拒绝任务，此时改投新线程池；线程池未被替换时按原样抛出拒绝异常
+     */
+    private static void executeOnDefaultPool(Runnable task) {
+        while (true) {
+            ExecutorService pool = defaultPool();
             try {
-                if (!threadPool.awaitTermination(30, TimeUnit.SECONDS)) {
-                    threadPool.shutdownNow();
+                pool.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                if (threadPool.get() == pool) {
+                    throw e;
                 }
+            }
+        }
+    }
+
+    /**
+     * 调整线程数时需保证任一时刻核心线程数不超过最大线程数，扩容时先调大最大线程数，缩容时先调小核心线程数
+     */
+    private static void resize(ThreadPoolExecutor pool, int corePoolSize, int maxPoolSize) {
+        synchronized (pool) {
+            if (corePoolSize > pool.getMaximumPoolSize()) {
+                pool.setMaximumPoolSize(maxPoolSize);
+                pool.setCorePoolSize(corePoolSize);
+            } else {
+                pool.setCorePoolSize(corePoolSize);
+                pool.setMaximumPoolSize(maxPoolSize);
+            }
+        }
+    }
+
+    /**
+     * 关闭旧线程池，并在后台线程中等待队列中的任务执行完毕，调用方不会被阻塞
+     */
+    private static void drain(String name, ExecutorService executor) {
+        executor.shutdown();
+        if (executor.isTerminated()) {
+            return;
+        }
+        Thread drainer = new Thread(() -> {
+            try {
+                while (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("ThreadUtil: Replaced executor {} is still draining", name);
+                }
+                log.debug("ThreadUtil: Replaced executor {} drained", name);
             } catch (InterruptedException e) {
-                threadPool.shutdownNow();
                 Thread.currentThread().interrupt();
             }
+        }, "ThreadUtil-drain-" + name);
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * {@link CompletableFuture#supplyAsync} 只接受 Supplier，这里直接执行 Callable，
+     * 抛出的受检异常作为 Future 的失败原因。
+     */
+    private static <T> CompletableFuture<T> submit(Executor executor, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private static ExecutorMetrics metricsOf(String name, ExecutorService executor) {
+        if (!(executor instanceof InstrumentedThreadPoolExecutor instrumented)) {
+            throw new IllegalStateException("ThreadUtil: Executor " + name + " does not collect metrics");
         }
+        return instrumented.metrics();
     }
 
-}
+    private static int concurrencyLimitOf(String name, ExecutorService executor) {
+        if (executor instanceof AdaptiveThreadPoolExecutor adaptive) {
+            return adaptive.getLimit();
+        }
+        if (executor instanceof ThreadPoolExecutor pool) {
+            return pool.getMaximumPoolSize();
+        }
+        if (executor instanceof ConcurrencyLimitedExecutor limited) {
+            return limited.getMaxConcurrency();
+        }
+        throw new IllegalStateException("ThreadUtil: Executor " + name + " has no concurrency limit");
+    }
 
+    private static void registerMBean(String name, ExecutorService executor) {
+        if (executor instanceof InstrumentedThreadPoolExecutor instrumented) {
+            instrumented.registerMBean(name);
+        }
+    }
+
+    private static void unregisterMBean(ExecutorService executor) {
+        if (executor instanceof InstrumentedThreadPoolExecutor instrumented) {
+            instrumented.unregisterMBean();
+        }
+    }
+
+    private static void register(String name, ExecutorService executor) {
+        ExecutorService previous = executors.get(name);
+        unregisterMBean(previous);
+        registerMBean(name, executor);
+        previous = executors.put(name, executor);
+        if (previous != null && previous != executor) {
+            drain(name, previous);
+        }
+    }
+
+    private static void shutdown(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
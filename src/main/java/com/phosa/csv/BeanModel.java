@@ -0,0 +1,250 @@
+package com.phosa.csv;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 类的属性模型，每个类只解析一次。
+ * <p>普通 Java Bean 的属性来自非 static、非 transient 的字段，读写优先使用 getter/setter，没有时直接访问字段；
+ * record 的属性来自其组件，通过规范构造器创建实例。所有访问都编译为已适配类型的 {@link MethodHandle}。
+ */
+final class BeanModel {
+    private static final ClassValue<BeanModel> MODELS = new ClassValue<>() {
+        @Override
+        protected BeanModel computeValue(Class<?> type) {
+            return new BeanModel(type);
+        }
+    };
+
+    final Class<?> type;
+    final boolean record;
+    final List<Property> properties;
+    private final Map<String, Property> byName = new HashMap<>();
+    private final Map<String, Property> byNormalizedName = new HashMap<>();
+    /**
+     * 普通 Bean 为 ()Object 的无参构造器，record 为 (Object[])Object 的规范构造器，找不到时为 null
+     */
+    private final MethodHandle constructor;
+
+    private BeanModel(Class<?> type) {
+        this.type = type;
+        this.record = type.isRecord();
+        MethodHandles.Lookup lookup = lookup(type);
+        List<Property> list = new ArrayList<>();
+        MethodHandle ctor;
+        try {
+            if (record) {
+                RecordComponent[] components = type.getRecordComponents();
+                Class<?>[] types = new Class<?>[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    RecordComponent component = components[i];
+                    types[i] = component.getType();
+                    MethodHandle getter = lookup.unreflect(component.getAccessor());
+                    list.add(new Property(component.getName(), types[i], i, adaptGetter(getter, types[i]), null));
+                }
+                Constructor<?> canonical = type.getDeclaredConstructor(types);
+                ctor = lookup.unreflectConstructor(canonical)
+                        .asSpreader(Object[].class, types.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } else {
+                for (Field field : fields(type)) {
+                    Property property = beanProperty(lookup, field, list.size());
+                    if (property != null) {
+                        list.add(property);
+                    }
+                }
+                ctor = noArgConstructor(lookup, type);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot introspect " + type.getName(), e);
+        }
+        this.constructor = ctor;
+        this.properties = Collections.unmodifiableList(list);
+        for (Property property : list) {
+            byName.put(property.name, property);
+            byNormalizedName.putIfAbsent(normalize(property.name), property);
+        }
+    }
+
+    /**
+     * 获取类的属性模型。
+     */
+    static BeanModel of(Class<?> type) {
+        return MODELS.get(type);
+    }
+
+    /**
+     * 按名称查找属性，先精确匹配，再忽略大小写和下划线、连字符、空格匹配，例如 {@code user_name} 可以匹配 {@code userName}。
+     * @return 找不到时返回 null
+     */
+    Property find(String name) {
+        Property property = byName.get(name);
+        return property != null ? property : byNormalizedName.get(normalize(name));
+    }
+
+    /**
+     * 使用无参构造器创建普通 Bean 实例。
+     */
+    Object newInstance() throws Throwable {
+        return (Object) constructor.invokeExact();
+    }
+
+    /**
+     * 使用规范构造器创建 record 实例。
+     */
+    Object newRecord(Object[] args) throws Throwable {
+        return (Object) constructor.invokeExact(args);
+    }
+
+    /**
+     * 检查是否可以创建实例，在编译映射时尽早报错。
+     */
+    void checkInstantiable() {
+        if (constructor == null) {
+            throw new IllegalArgumentException(type.getName() + " has no accessible no-arg constructor");
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            // 所在模块未开放时只能访问公开成员
+            return MethodHandles.publicLookup();
+        }
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.push(c);
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static Property beanProperty(MethodHandles.Lookup lookup, Field field, int index) {
+        Class<?> fieldType = field.getType();
+        String capitalized = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        Class<?> owner = field.getDeclaringClass();
+        MethodHandle getter = accessor(lookup, owner, "get" + capitalized, fieldType);
+        if (getter == null && (fieldType == boolean.class || fieldType == Boolean.class)) {
+            getter = accessor(lookup, owner, "is" + capitalized, fieldType);
+        }
+        if (getter == null) {
+            getter = fieldGetter(lookup, field);
+        }
+        MethodHandle setter = null;
+        try {
+            Method method = owner.getDeclaredMethod("set" + capitalized, fieldType);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                setter = lookup.unreflect(method);
+            }
+        } catch (ReflectiveOperationException e) {
+            // 没有 setter，尝试直接写字段
+        }
+        if (setter == null && !Modifier.isFinal(field.getModifiers())) {
+            try {
+                setter = lookup.unreflectSetter(field);
+            } catch (IllegalAccessException e) {
+                // 无法访问时该属性只读
+            }
+        }
+        if (getter == null && setter == null) {
+            return null;
+        }
+        return new Property(field.getName(), fieldType, index, adaptGetter(getter, fieldType),
+                setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class, fieldType)));
+    }
+
+    private static MethodHandle accessor(MethodHandles.Lookup lookup, Class<?> owner, String name, Class<?> returnType) {
+        try {
+            Method method = owner.getDeclaredMethod(name);
+            if (method.getReturnType() != returnType || Modifier.isStatic(method.getModifiers())) {
+                return null;
+            }
+            return lookup.unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle fieldGetter(MethodHandles.Lookup lookup, Field field) {
+        try {
+            return lookup.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle adaptGetter(MethodHandle getter, Class<?> propertyType) {
+        return getter == null ? null : getter.asType(MethodType.methodType(propertyType, Object.class));
+    }
+
+    private static MethodHandle noArgConstructor(MethodHandles.Lookup lookup, Class<?> type) {
+        if (Modifier.isAbstract(type.getModifiers()) || type.isInterface()) {
+            return null;
+        }
+        try {
+            return lookup.unreflectConstructor(type.getDeclaredConstructor())
+                    .asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    static String normalize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '_' && c != '-' && c != ' ') {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一个属性。getter 的类型为 (Object)T，setter 的类型为 (Object, T)void，T 为属性的声明类型，基本类型不会被装箱。
+     */
+    static final class Property {
+        final String name;
+        final Class<?> type;
+        /**
+         * 属性在声明顺序中的位置，对 record 即为构造器参数的位置
+         */
+        final int index;
+        final MethodHandle getter;
+        final MethodHandle setter;
+
+        Property(String name, Class<?> type, int index, MethodHandle getter, MethodHandle setter) {
+            this.name = name;
+            this.type = type;
+            this.index = index;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.phosa.csv;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * 直接读取 {@link CharBuffer} 的 Reader，避免先转换为 String 再包装成 StringReader 的一次复制。
+ */
+final class CharBufferReader extends Reader {
+    private final CharBuffer buffer;
+
+    CharBufferReader(CharBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() : -1;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(cbuf, off, n);
+        return n;
+    }
+
+    @Override
+    public boolean ready() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -0,0 +1,331 @@
+package com.phosa.csv;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * {@link CsvScanner} 当前行的视图。
+ * <p>单元格只记录在读取缓冲区中的起止位置，{@link #get(int)} 返回直接指向缓冲区的 {@link CharSequence}，
+ * 数值可以通过 {@link #getLong(int)} 等方法直接解析，只有调用 {@link #getString(int)} 才会创建 String。
+ * 带转义的单元格在第一次被访问时才原地反转义，不访问的列没有任何额外开销。
+ * <p>视图和 {@link #get(int)} 返回的字符序列在扫描器前进到下一行后失效，需要保存时请调用 {@link #getString(int)}。
+ * 比较内容时请使用 {@code "CN".contentEquals(row.get(2))} 或 {@link #equals(int, CharSequence)}，
+ * 不要使用 {@code "CN".equals(row.get(2))}。
+ */
+public final class CsvRow {
+    /**
+     * 单元格中没有转义
+     */
+    static final byte PLAIN = 0;
+    /**
+     * 带引号的单元格中有连续的两个引号或转义字符
+     */
+    static final byte QUOTED_ESCAPES = 1;
+    /**
+     * 不带引号的单元格中有转义字符
+     */
+    static final byte UNQUOTED_ESCAPES = 2;
+
+    private final Map<String, Integer> header;
+    private final char delimiter;
+    private final int quote;
+    private final int escape;
+    private final int commentMarker;
+    private final boolean trim;
+    private final boolean ignoreSurroundingSpaces;
+    private final String nullString;
+    char[] buffer;
+    int[] starts = new int[16];
+    int[] ends = new int[16];
+    /**
+     * 单元格中尚未处理的转义，取值为 PLAIN、QUOTED_ESCAPES 或 UNQUOTED_ESCAPES
+     */
+    byte[] escapes = new byte[16];
+    int size;
+    long recordNumber;
+    private Cell[] cells = new Cell[16];
+
+    CsvRow(Map<String, Integer> header, char delimiter, int quote, int escape, int commentMarker,
+           boolean trim, boolean ignoreSurroundingSpaces, String nullString) {
+        this.header = header;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.escape = escape;
+        this.commentMarker = commentMarker;
+        this.trim = trim;
+        this.ignoreSurroundingSpaces = ignoreSurroundingSpaces;
+        this.nullString = nullString;
+    }
+
+    /**
+     * 获取当前行的单元格数。
+     * @return 单元格数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取当前行的记录号，从 1 开始，不含表头。
+     * @return 记录号
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * 获取列名对应的列序号。
+     * @param name 列名
+     * @return 列序号
+     * @throws IllegalArgumentException 表头中没有该列
+     */
+    public int indexOf(String name) {
+        Integer index = header == null ? null : header.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Column '" + name + "' not found in header");
+        }
+        return index;
+    }
+
+    /**
+     * 获取单元格内容，不复制字符。
+     * @param index 列序号
+     * @return 单元格内容，当前行没有该列或内容等于格式的 nullString 时返回 null
+     */
+    public CharSequence get(int index) {
+        if (isNull(index)) {
+            return null;
+        }
+        Cell cell = cells.length > index ? cells[index] : null;
+        if (cell == null) {
+            if (index >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(index + 1, cells.length * 2));
+            }
+            cell = new Cell();
+            cells[index] = cell;
+        }
+        cell.start = starts[index];
+        cell.end = ends[index];
+        return cell;
+    }
+
+    /**
+     * 按列名获取单元格内容，不复制字符。
+     * @param name 列名
+     * @return 单元格内容，当前行没有该列或内容等于格式的 nullString 时返回 null
+     */
+    public CharSequence get(String name) {
+        return get(indexOf(name));
+    }
+
+    /**
+     * 获取单元格内容的副本。
+     * @param index 列序号
+     * @return 单元格内容，当前行没有该列或内容等于格式的 nullString 时返回 null
+     */
+    public String getString(int index) {
+        if (isNull(index)) {
+            return null;
+        }
+        return new String(buffer, starts[index], ends[index] - starts[index]);
+    }
+
+    /**
+     * 按列名获取单元格内容的副本。
+     * @param name 列名
+     * @return 单元格内容，当前行没有该列或内容等于格式的 nullString 时返回 null
+     */
+    public String getString(String name) {
+        return getString(indexOf(name));
+    }
+
+    /**
+     * 将单元格解析为长整数，不创建 String。
+     * @param index 列序号
+     * @return 长整数值
+     */
+    public long getLong(int index) {
+        return FastParsers.parseLong(require(index));
+    }
+
+    /**
+     * 将单元格解析为浮点数，不创建 String。
+     * @param index 列序号
+     * @return 浮点数值
+     */
+    public double getDouble(int index) {
+        return FastParsers.parseDouble(require(index));
+    }
+
+    /**
+     * 判断单元格是否为 null：当前行没有该列，或者内容等于格式的 nullString，与 {@link org.apache.commons.csv.CSVParser} 一致。
+     * @param index 列序号
+     * @return 如果为 null 则返回 true
+     */
+    public boolean isNull(int index) {
+        if (index >= size) {
+            return true;
+        }
+        if (escapes[index] != PLAIN) {
+            unescape(index);
+        }
+        return nullString != null && contentEquals(index, nullString);
+    }
+
+    /**
+     * 判断单元格内容是否与给定的字符序列相同。
+     * @param index 列序号
+     * @param value 字符序列
+     * @return 如果相同则返回 true，当前行没有该列时返回 false
+     */
+    public boolean equals(int index, CharSequence value) {
+        return index < size && contentEquals(index, value);
+    }
+
+    private boolean contentEquals(int index, CharSequence value) {
+        if (escapes[index] != PLAIN) {
+            unescape(index);
+        }
+        int start = starts[index];
+        int length = ends[index] - start;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断单元格是否为空字符串。
+     * @param index 列序号
+     * @return 如果为空或当前行没有该列则返回 true
+     */
+    public boolean isEmpty(int index) {
+        return index >= size || starts[index] == ends[index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CsvRow[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    private CharSequence require(int index) {
+        CharSequence value = get(index);
+        if (value == null) {
+            throw new IllegalArgumentException(index >= size ? "Record " + recordNumber + " has no column " + index
+                    : "Column " + index + " of record " + recordNumber + " is null");
+        }
+        return value;
+    }
+
+    /**
+     * 原地反转义，规则与 commons-csv 的 Lexer 相同：带引号的单元格中两个连续的引号变为一个；
+     * 转义字符加 {@code r}、{@code n}、{@code t}、{@code b}、{@code f} 变为对应的控制字符，
+     * 加分隔符、引号、转义字符、注释标记或控制字符时保留其后的字符，加其它字符时两个字符都保留。
+     * 结果总是不长于原文，不需要额外空间。设置了 trim 时，反转义得到的首尾空白同样会被去除。
+     */
+    private void unescape(int index) {
+        int read = starts[index];
+        int write = read;
+        int end = ends[index];
+        boolean quoted = escapes[index] == QUOTED_ESCAPES;
+        while (read < end) {
+            char c = buffer[read++];
+            if (read < end) {
+                if (quoted && c == quote) {
+                    c = buffer[read++];
+                } else if (c == escape) {
+                    int unescaped = unescaped(buffer[read]);
+                    if (unescaped >= 0) {
+                        c = (char) unescaped;
+                        read++;
+                    }
+                }
+            }
+            buffer[write++] = c;
+        }
+        int start = starts[index];
+        if (trim) {
+            while (start < write && buffer[start] <= ' ') {
+                start++;
+            }
+            while (write > start && buffer[write - 1] <= ' ') {
+                write--;
+            }
+        }
+        if (ignoreSurroundingSpaces && !quoted) {
+            while (write > start && Character.isWhitespace(buffer[write - 1])) {
+                write--;
+            }
+        }
+        starts[index] = start;
+        ends[index] = write;
+        escapes[index] = PLAIN;
+    }
+
+    /**
+     * 转义字符之后的字符对应的结果，不是合法的转义序列时返回 -1。
+     */
+    private int unescaped(char c) {
+        return switch (c) {
+            case 'r' -> '\r';
+            case 'n' -> '\n';
+            case 't' -> '\t';
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case '\r', '\n', '\t', '\b', '\f' -> c;
+            default -> c == delimiter || c == quote || c == escape || c == commentMarker ? c : -1;
+        };
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > starts.length) {
+            int length = Math.max(capacity, starts.length * 2);
+            starts = Arrays.copyOf(starts, length);
+            ends = Arrays.copyOf(ends, length);
+            escapes = Arrays.copyOf(escapes, length);
+        }
+    }
+
+    /**
+     * 指向读取缓冲区的字符序列。
+     */
+    private final class Cell implements CharSequence {
+        int start;
+        int end;
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + (end - start));
+            }
+            return buffer[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, start, end - start);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.phosa.csv;
+
+import org.apache.commons.csv.CSVRecord;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 将 Csv 记录映射为 Java Bean 或 record 的映射器。
+ * <p>表头到属性的对应关系在创建时一次性解析，每一列编译为一个带类型转换的写入器：
+ * int、long、double、boolean 属性通过精确类型的 {@link MethodHandle} 写入，不会装箱；
+ * 数值和日期由 {@link FastParsers} 直接解析。映射器不可变，可以在多个线程间共享。
+ * <p>空白单元格对引用类型写入 null（String 除外，保留原值），对基本类型保留默认值。
+ * 没有对应属性的列被忽略，没有对应列的属性保持默认值。
+ *
+ * @param <T> 目标类型
+ */
+public final class CsvRowMapper<T> {
+    private final Class<T> type;
+    private final BeanModel model;
+    private final Column[] columns;
+    /**
+     * record 各组件在单元格缺失时使用的默认值
+     */
+    private final Object[] recordDefaults;
+
+    private CsvRowMapper(Class<T> type, List<String> headerNames) {
+        this.type = type;
+        this.model = BeanModel.of(type);
+        model.checkInstantiable();
+        List<Column> list = new ArrayList<>();
+        if (headerNames == null || headerNames.isEmpty()) {
+            // 没有表头时按属性声明顺序逐列对应
+            for (BeanModel.Property property : model.properties) {
+                if (model.record || property.setter != null) {
+                    list.add(column(property.index, property));
+                }
+            }
+        } else {
+            for (int i = 0; i < headerNames.size(); i++) {
+                BeanModel.Property property = model.find(headerNames.get(i));
+                if (property != null && (model.record || property.setter != null)) {
+                    list.add(column(i, property));
+                }
+            }
+        }
+        this.columns = list.toArray(new Column[0]);
+        if (model.record) {
+            recordDefaults = new Object[model.properties.size()];
+            for (BeanModel.Property property : model.properties) {
+                if (property.type.isPrimitive()) {
+                    recordDefaults[property.index] = Array.get(Array.newInstance(property.type, 1), 0);
+                }
+            }
+        } else {
+            recordDefaults = null;
+        }
+    }
+
+    /**
+     * 创建映射器。
+     * @param type 目标类型，普通 Bean 需要有无参构造器
+     * @param headerNames 表头，为 null 或空时按属性的声明顺序逐列对应
+     * @return 映射器
+     * @param <T> 目标类型
+     * @throws IllegalArgumentException 目标类型无法实例化，或某一列对应的属性类型不支持
+     */
+    public static <T> CsvRowMapper<T> of(Class<T> type, List<String> headerNames) {
+        return new CsvRowMapper<>(type, headerNames);
+    }
+
+    /**
+     * 获取目标类型。
+     * @return 目标类型
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 映射一条记录。
+     * @param csvRecord Csv 记录
+     * @return 目标对象
+     * @throws IllegalArgumentException 某个单元格无法转换为属性的类型
+     */
+    public T map(CSVRecord csvRecord) {
+        return map(csvRecord::get, csvRecord.size(), csvRecord.getRecordNumber());
+    }
+
+    /**
+     * 映射 {@link CsvScanner} 的当前行。只有对应到属性的列会被读取，数值和日期直接从读取缓冲区解析。
+     * @param row 当前行
+     * @return 目标对象
+     * @throws IllegalArgumentException 某个单元格无法转换为属性的类型
+     */
+    public T map(CsvRow row) {
+        return map(row::get, row.size(), row.getRecordNumber());
+    }
+
+    /**
+     * 映射一行单元格。
+     * @param cells 按列序号取单元格内容的函数
+     * @param size 单元格数量，超出范围的列视为缺失
+     * @param recordNumber 记录号，只用于错误信息
+     * @return 目标对象
+     */
+    T map(CellSource cells, int size, long recordNumber) {
+        Column column = null;
+        CharSequence value = null;
+        try {
+            if (model.record) {
+                Object[] args = recordDefaults.clone();
+                for (Column c : columns) {
+                    column = c;
+                    if (c.index < size) {
+                        value = cells.get(c.index);
+                        args[c.property.index] = ((ObjectColumn) c).convert(value);
+                    }
+                }
+                return type.cast(model.newRecord(args));
+            }
+            Object bean = model.newInstance();
+            for (Column c : columns) {
+                column = c;
+                if (c.index < size) {
+                    value = cells.get(c.index);
+                    c.set(bean, value);
+                }
+            }
+            return type.cast(bean);
+        } catch (Error e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (column == null) {
+                throw e;
+            }
+            throw conversionFailed(column, recordNumber, value, e);
+        } catch (Throwable e) {
+            throw column == null
+                    ? new IllegalStateException("Cannot create " + type.getName(), e)
+                    : conversionFailed(column, recordNumber, value, e);
+        }
+    }
+
+    private static IllegalArgumentException conversionFailed(Column column, long recordNumber, CharSequence value, Throwable cause) {
+        return new IllegalArgumentException("Cannot convert column '" + column.property.name + "' of record "
+                + recordNumber + ": " + value, cause);
+    }
+
+    private Column column(int index, BeanModel.Property property) {
+        Class<?> t = property.type;
+        if (!model.record) {
+            if (t == int.class) {
+                return new IntColumn(index, property);
+            } else if (t == long.class) {
+                return new LongColumn(index, property);
+            } else if (t == double.class) {
+                return new DoubleColumn(index, property);
+            } else if (t == boolean.class) {
+                return new BooleanColumn(index, property);
+            }
+        }
+        Function<CharSequence, Object> converter = converter(t);
+        if (converter == null) {
+            throw new IllegalArgumentException("Unsupported type " + t.getName() + " for property '"
+                    + property.name + "' of " + type.getName());
+        }
+        return new ObjectColumn(index, property, converter);
+    }
+
+    /**
+     * 获取字符串到指定类型的转换函数，不支持时返回 null。
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Function<CharSequence, Object> converter(Class<?> t) {
+        if (t == String.class || t == CharSequence.class || t == Object.class) {
+            return CharSequence::toString;
+        } else if (t == int.class || t == Integer.class) {
+            return FastParsers::parseInt;
+        } else if (t == long.class || t == Long.class) {
+            return FastParsers::parseLong;
+        } else if (t == double.class || t == Double.class) {
+            return FastParsers::parseDouble;
+        } else if (t == float.class || t == Float.class) {
+            return s -> (float) FastParsers.parseDouble(s);
+        } else if (t == short.class || t == Short.class) {
+            return s -> Short.parseShort(s.toString().trim());
+        } else if (t == byte.class || t == Byte.class) {
+            return s -> Byte.parseByte(s.toString().trim());
+        } else if (t == boolean.class || t == Boolean.class) {
+            return FastParsers::parseBoolean;
+        } else if (t == char.class || t == Character.class) {
+            return s -> {
+                if (s.length() != 1) {
+                    throw new IllegalArgumentException("Expected a single character");
+                }
+                return s.charAt(0);
+            };
+        } else if (t == BigDecimal.class) {
+            return FastParsers::parseDecimal;
+        } else if (t == BigInteger.class) {
+            return s -> new BigInteger(s.toString().trim());
+        } else if (t == LocalDate.class) {
+            return FastParsers::parseDate;
+        } else if (t == LocalDateTime.class) {
+            return FastParsers::parseDateTime;
+        } else if (t == LocalTime.class) {
+            return s -> LocalTime.parse(s.toString().trim());
+        } else if (t == Instant.class) {
+            return s -> Instant.parse(s.toString().trim());
+        } else if (t == Date.class) {
+            return s -> Date.from(FastParsers.parseDateTime(s).atZone(ZoneId.systemDefault()).toInstant());
+        } else if (t.isEnum()) {
+            Map<String, Object> constants = new HashMap<>();
+            for (Object constant : t.getEnumConstants()) {
+                constants.put(((Enum) constant).name(), constant);
+            }
+            return s -> {
+                Object constant = constants.get(s.toString().trim());
+                if (constant == null) {
+                    throw new IllegalArgumentException("No enum constant " + t.getName() + "." + s);
+                }
+                return constant;
+            };
+        }
+        return null;
+    }
+
+    /**
+     * 按列序号取单元格内容。
+     */
+    @FunctionalInterface
+    interface CellSource {
+        CharSequence get(int index);
+    }
+
+    /**
+     * 一列到一个属性的写入器。
+     */
+    private abstract static class Column {
+        final int index;
+        final BeanModel.Property property;
+
+        Column(int index, BeanModel.Property property) {
+            this.index = index;
+            this.property = property;
+        }
+
+        /**
+         * 转换单元格内容并写入 Bean。
+         */
+        abstract void set(Object bean, CharSequence value) throws Throwable;
+    }
+
+    private static final class ObjectColumn extends Column {
+        private final Function<CharSequence, Object> converter;
+        private final MethodHandle setter;
+        private final boolean keepBlank;
+        private final Object blank;
+
+        ObjectColumn(int index, BeanModel.Property property, Function<CharSequence, Object> converter) {
+            super(index, property);
+            this.converter = converter;
+            this.setter = property.setter == null ? null
+                    : property.setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            this.keepBlank = property.type == String.class || property.type == CharSequence.class || property.type == Object.class;
+            this.blank = property.type.isPrimitive() ? Array.get(Array.newInstance(property.type, 1), 0) : null;
+        }
+
+        /**
+         * 转换单元格内容，用于 record 的构造器参数。
+         */
+        Object convert(CharSequence value) {
+            return !keepBlank && FastParsers.isBlank(value) ? blank : converter.apply(value);
+        }
+
+        @Override
+        void set(Object bean, CharSequence value) throws Throwable {
+            if (!keepBlank && FastParsers.isBlank(value)) {
+                if (blank == null) {
+                    setter.invokeExact(bean, (Object) null);
+                }
+                return;
+            }
+            setter.invokeExact(bean, converter.apply(value));
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        private final MethodHandle setter;
+
+        IntColumn(int index, BeanModel.Property property) {
+            super(index, property);
+            this.setter = property.setter;
+        }
+
+        @Override
+        void set(Object bean, CharSequence value) throws Throwable {
+            if (!FastParsers.isBlank(value)) {
+                setter.invokeExact(bean, FastParsers.parseInt(value));
+            }
+        }
+    }
+
+    private static final class LongColumn extends Column {
+        private final MethodHandle setter;
+
+        LongColumn(int index, BeanModel.Property property) {
+            super(index, property);
+            this.setter = property.setter;
+        }
+
+        @Override
+        void set(Object bean, CharSequence value) throws Throwable {
+            if (!FastParsers.isBlank(value)) {
+                setter.invokeExact(bean, FastParsers.parseLong(value));
+            }
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        private final MethodHandle setter;
+
+        DoubleColumn(int index, BeanModel.Property property) {
+            super(index, property);
+            this.setter = property.setter;
+        }
+
+        @Override
+        void set(Object bean, CharSequence value) throws Throwable {
+            if (!FastParsers.isBlank(value)) {
+                setter.invokeExact(bean, FastParsers.parseDouble(value));
+            }
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+        private final MethodHandle setter;
+
+        BooleanColumn(int index, BeanModel.Property property) {
+            super(index, property);
+            this.setter = property.setter;
+        }
+
+        @Override
+        void set(Object bean, CharSequence value) throws Throwable {
+            if (!FastParsers.isBlank(value)) {
+                setter.invokeExact(bean, FastParsers.parseBoolean(value));
+            }
+        }
+    }
+}
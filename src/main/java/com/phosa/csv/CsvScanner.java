@@ -0,0 +1,351 @@
+package com.phosa.csv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.QuoteMode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 只记录单元格位置的 Csv 扫描器。
+ * <p>与 {@link org.apache.commons.csv.CSVParser} 为每个单元格创建 String 不同，扫描器把输入读入一个可复用的字符缓冲区，
+ * 每行只记录各单元格的起止位置，通过 {@link CsvRow} 按需访问。配合列投影和行过滤使用时，
+ * 只有通过过滤的行中被选中的列才会创建 String，其余单元格除了被扫描一遍之外没有任何开销。
+ * <p>支持 {@link CSVFormat} 中的单字符分隔符、引号、转义字符、注释标记、空行忽略、trim、ignoreSurroundingSpaces、
+ * nullString 和表头设置，同一个格式得到的单元格与 {@link org.apache.commons.csv.CSVParser} 相同；
+ * 会改变解析结果但不支持的选项（trailingDelimiter、ignoreHeaderCase，以及 nullString 与严格引号模式同时使用）会被拒绝。
+ * 带引号的单元格中的换行被视为内容，{@code \r\n}、{@code \n} 和 {@code \r} 都可以作为行尾。
+ * <p>使用示例：
+ * <pre>{@code
+ *     try (CsvScanner scanner = CsvScanner.open(reader, CSVFormat.DEFAULT.builder().setHeader().build())) {
+ *         int country = scanner.indexOf("country");
+ *         int amount = scanner.indexOf("amount");
+ *         double total = 0;
+ *         while (scanner.next()) {
+ *             CsvRow row = scanner.row();
+ *             if (row.equals(country, "CN")) {
+ *                 total += row.getDouble(amount);
+ *             }
+ *         }
+ *     }
+ * }</pre>
+ */
+public final class CsvScanner implements Closeable {
+    private static final int NEED_MORE = -1;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final int quote;
+    private final int escape;
+    private final int commentMarker;
+    private final boolean ignoreEmptyLines;
+    private final boolean trim;
+    private final boolean ignoreSurroundingSpaces;
+    private final List<String> headerNames;
+    private final CsvRow row;
+    private char[] buffer;
+    private int position;
+    private int limit;
+    private boolean eof;
+    private boolean skip;
+
+    private CsvScanner(Reader reader, CSVFormat format, int bufferSize) throws IOException {
+        String delimiterString = format.getDelimiterString();
+        if (delimiterString == null || delimiterString.length() != 1) {
+            throw new IllegalArgumentException("Only single-character delimiters are supported: " + delimiterString);
+        }
+        if (format.getTrailingDelimiter() || format.getIgnoreHeaderCase()) {
+            throw new IllegalArgumentException("trailingDelimiter and ignoreHeaderCase are not supported by CsvScanner");
+        }
+        QuoteMode quoteMode = format.getQuoteMode();
+        if (format.getNullString() != null && (quoteMode == QuoteMode.ALL_NON_NULL || quoteMode == QuoteMode.NON_NUMERIC)) {
+            throw new IllegalArgumentException("nullString with quote mode " + quoteMode + " is not supported by CsvScanner");
+        }
+        this.reader = reader;
+        this.delimiter = delimiterString.charAt(0);
+        this.quote = format.getQuoteCharacter() == null ? -1 : format.getQuoteCharacter();
+        this.escape = format.getEscapeCharacter() == null ? -1 : format.getEscapeCharacter();
+        this.commentMarker = format.getCommentMarker() == null ? -1 : format.getCommentMarker();
+        this.ignoreEmptyLines = format.getIgnoreEmptyLines();
+        this.trim = format.getTrim();
+        this.ignoreSurroundingSpaces = format.getIgnoreSurroundingSpaces();
+        this.buffer = new char[bufferSize];
+
+        String[] header = format.getHeader();
+        Map<String, Integer> headerMap = null;
+        List<String> names = null;
+        CsvRow headerRow = new CsvRow(null, delimiter, quote, escape, commentMarker, trim, ignoreSurroundingSpaces, null);
+        if (header != null && (header.length == 0 || format.getSkipHeaderRecord())) {
+            if (nextRecord(headerRow) && header.length == 0) {
+                header = new String[headerRow.size()];
+                for (int i = 0; i < header.length; i++) {
+                    header[i] = headerRow.getString(i);
+                }
+            }
+        }
+        if (header != null && header.length > 0) {
+            headerMap = new LinkedHashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                headerMap.putIfAbsent(header[i], i);
+            }
+            names = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(header)));
+        }
+        this.headerNames = names;
+        this.row = new CsvRow(headerMap, delimiter, quote, escape, commentMarker, trim, ignoreSurroundingSpaces,
+                format.getNullString());
+    }
+
+    /**
+     * 创建扫描器，表头按格式的设置读取。
+     * @param reader 输入，无需额外缓冲
+     * @param format Csv 格式
+     * @return 扫描器，使用完毕后需要关闭
+     * @throws IOException 读取表头失败
+     */
+    public static CsvScanner open(Reader reader, CSVFormat format) throws IOException {
+        return new CsvScanner(reader, format, 1 << 16);
+    }
+
+    /**
+     * 获取表头。
+     * @return 表头，格式中未使用表头时返回 null
+     */
+    public List<String> getHeaderNames() {
+        return headerNames;
+    }
+
+    /**
+     * 获取列名对应的列序号。
+     * @param name 列名
+     * @return 列序号
+     * @throws IllegalArgumentException 表头中没有该列
+     */
+    public int indexOf(String name) {
+        return row.indexOf(name);
+    }
+
+    /**
+     * 前进到下一行。
+     * @return 有下一行时返回 true，到达输入末尾时返回 false
+     * @throws IOException 读取失败或格式错误
+     */
+    public boolean next() throws IOException {
+        if (!nextRecord(row)) {
+            return false;
+        }
+        row.recordNumber++;
+        return true;
+    }
+
+    /**
+     * 获取当前行的视图，同一个扫描器始终返回同一个实例。
+     * @return 当前行
+     */
+    public CsvRow row() {
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean nextRecord(CsvRow target) throws IOException {
+        target.buffer = buffer;
+        while (true) {
+            if (position == limit && !fill()) {
+                return false;
+            }
+            int end = tokenize(target, position);
+            if (end == NEED_MORE) {
+                fill();
+                target.buffer = buffer;
+                continue;
+            }
+            position = end;
+            if (!skip) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 把未处理的内容移到缓冲区开头并读入更多字符，缓冲区放不下一行时扩容。
+     * @return 读入了新内容时返回 true
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int n = reader.read(buffer, limit, buffer.length - limit);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    /**
+     * 从 i 开始切分一行，返回下一行的起点；行不完整且还有输入时返回 NEED_MORE。
+     */
+    private int tokenize(CsvRow target, int i) throws IOException {
+        target.size = 0;
+        skip = false;
+        char first = buffer[i];
+        if (first == commentMarker || (ignoreEmptyLines && (first == '\n' || first == '\r'))) {
+            int end = lineEnd(i);
+            skip = true;
+            return end;
+        }
+        while (true) {
+            int index = target.size;
+            target.ensureCapacity(index + 1);
+            byte escapes = CsvRow.PLAIN;
+            int start;
+            int end;
+            int j = i;
+            if (ignoreSurroundingSpaces) {
+                // 与 commons-csv 相同，先跳过前导空白再判断是否带引号
+                while (j < limit && isSpace(buffer[j])) {
+                    j++;
+                }
+                if (j >= limit && !eof) {
+                    return NEED_MORE;
+                }
+            }
+            boolean quoted = quote >= 0 && j < limit && buffer[j] == quote;
+            if (quoted) {
+                start = ++j;
+                while (true) {
+                    if (j >= limit) {
+                        if (eof) {
+                            throw new IOException("EOF reached before encapsulated token finished in record "
+                                    + (target.recordNumber + 1));
+                        }
+                        return NEED_MORE;
+                    }
+                    char c = buffer[j];
+                    if (c == escape || c == quote) {
+                        if (j + 1 >= limit && !eof) {
+                            return NEED_MORE;
+                        }
+                        if (c == escape || (j + 1 < limit && buffer[j + 1] == quote)) {
+                            escapes = CsvRow.QUOTED_ESCAPES;
+                            j += 2;
+                            continue;
+                        }
+                        end = j++;
+                        break;
+                    }
+                    j++;
+                }
+                while (j < limit && isSpace(buffer[j])) {
+                    j++;
+                }
+                if (j >= limit && !eof) {
+                    return NEED_MORE;
+                }
+                if (j < limit && buffer[j] != delimiter && buffer[j] != '\n' && buffer[j] != '\r') {
+                    throw new IOException("Invalid char between encapsulated token and delimiter in record "
+                            + (target.recordNumber + 1));
+                }
+            } else {
+                start = j;
+                while (j < limit) {
+                    char c = buffer[j];
+                    if (c == delimiter || c == '\n' || c == '\r') {
+                        break;
+                    }
+                    if (c == escape) {
+                        if (j + 1 >= limit && !eof) {
+                            return NEED_MORE;
+                        }
+                        escapes = CsvRow.UNQUOTED_ESCAPES;
+                        j++;
+                    }
+                    j++;
+                }
+                if (j >= limit && !eof) {
+                    return NEED_MORE;
+                }
+                j = Math.min(j, limit);
+                end = j;
+            }
+            // 带转义的单元格末尾的空白可能是被转义的字符，留到反转义之后再去除
+            if (trim) {
+                // 与 String.trim() 相同，去除所有不大于空格的字符
+                while (start < end && buffer[start] <= ' ') {
+                    start++;
+                }
+                while (escapes == CsvRow.PLAIN && end > start && buffer[end - 1] <= ' ') {
+                    end--;
+                }
+            }
+            if (ignoreSurroundingSpaces && !quoted) {
+                while (escapes == CsvRow.PLAIN && end > start && Character.isWhitespace(buffer[end - 1])) {
+                    end--;
+                }
+            }
+            target.starts[index] = start;
+            target.ends[index] = end;
+            target.escapes[index] = escapes;
+            target.size = index + 1;
+            if (j >= limit) {
+                return j;
+            }
+            char c = buffer[j];
+            if (c == delimiter) {
+                i = j + 1;
+                continue;
+            }
+            if (c == '\r') {
+                if (j + 1 >= limit && !eof) {
+                    return NEED_MORE;
+                }
+                return j + 1 < limit && buffer[j + 1] == '\n' ? j + 2 : j + 1;
+            }
+            return j + 1;
+        }
+    }
+
+    /**
+     * 单元格两侧可以忽略的空白，与 commons-csv 的 Lexer 相同：分隔符和行尾之外的 {@link Character#isWhitespace(char)} 字符。
+     */
+    private boolean isSpace(char c) {
+        return c != delimiter && c != '\n' && c != '\r' && Character.isWhitespace(c);
+    }
+
+    /**
+     * 返回从 i 开始的一行之后的位置，不解析引号；行不完整且还有输入时返回 NEED_MORE。
+     */
+    private int lineEnd(int i) {
+        for (int j = i; j < limit; j++) {
+            char c = buffer[j];
+            if (c == '\n') {
+                return j + 1;
+            }
+            if (c == '\r') {
+                if (j + 1 >= limit && !eof) {
+                    return NEED_MORE;
+                }
+                return j + 1 < limit && buffer[j + 1] == '\n' ? j + 2 : j + 1;
+            }
+        }
+        return eof ? limit : NEED_MORE;
+    }
+}
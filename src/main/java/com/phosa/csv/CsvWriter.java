@@ -0,0 +1,642 @@
+package com.phosa.csv;
+
+import org.apache.commons.csv.CSVFormat;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 将 Java Bean 或 record 写为 Csv 的写入器。
+ * <p>每一列在创建时编译为一个读取器：int、long、double、boolean 属性通过精确类型的 {@link java.lang.invoke.MethodHandle} 读取，
+ * 整数和日期直接格式化到一个可复用的字符缓冲区，缓冲区满时才交给底层的编码器，不会创建中间字符串；
+ * double 和 BigDecimal 为保证与 {@link Double#toString(double)}、{@link BigDecimal#toPlainString()} 的输出一致，
+ * 仍由 JDK 生成字符串后再复制到缓冲区。
+ * 日期时间的格式与 {@link FastParsers} 一致，写出的文件可以用 {@link CsvRowMapper} 原样读回。
+ * <p>输出到文件时可以按行数或大小切分为多个文件，文件名依次为 {@code name-00001.csv}、{@code name-00002.csv}……，
+ * 每个文件都带有表头。按大小切分以已写入磁盘的字节数加上缓冲区中的字符数估算，实际文件可能略大于上限。
+ * <p>写入器不是线程安全的。使用示例：
+ * <pre>{@code
+ *     try (CsvWriter<Order> writer = CsvWriter.newBuilder(Order.class)
+ *             .columns("id", "amount", "createdAt")
+ *             .gzip(true)
+ *             .maxRowsPerFile(1_000_000)
+ *             .build(Path.of("orders.csv.gz"))) {
+ *         writer.writeAll(orders);
+ *     }
+ * }</pre>
+ *
+ * @param <T> 元素类型
+ */
+public class CsvWriter<T> implements Closeable {
+    private final Class<T> type;
+    private final FieldWriter[] fields;
+    private final String[] header;
+    private final char delimiter;
+    private final int quote;
+    private final int escape;
+    private final String recordSeparator;
+    private final Charset charset;
+    private final boolean gzip;
+    private final long maxRowsPerFile;
+    private final long maxBytesPerFile;
+    private final Path path;
+    private final List<Path> files = new ArrayList<>();
+    private final char[] buffer;
+    private int position;
+    private Writer writer;
+    private CountingOutputStream counter;
+    private long rowsInFile;
+    private long rowCount;
+    private boolean closed;
+
+    private CsvWriter(Builder<T> builder, Path path, OutputStream out) throws IOException {
+        this.type = builder.type;
+        this.delimiter = builder.delimiter;
+        this.quote = builder.quote;
+        this.escape = builder.escape;
+        this.recordSeparator = builder.recordSeparator;
+        this.charset = builder.charset;
+        this.gzip = builder.gzip;
+        this.maxRowsPerFile = builder.maxRowsPerFile;
+        this.maxBytesPerFile = builder.maxBytesPerFile;
+        this.buffer = new char[builder.bufferSize];
+        this.path = path;
+        BeanModel model = BeanModel.of(type);
+        List<String> names = builder.columns;
+        if (names == null) {
+            names = new ArrayList<>();
+            for (BeanModel.Property property : model.properties) {
+                if (property.getter != null) {
+                    names.add(property.name);
+                }
+            }
+        }
+        this.fields = new FieldWriter[names.size()];
+        for (int i = 0; i < fields.length; i++) {
+            BeanModel.Property property = model.find(names.get(i));
+            if (property == null || property.getter == null) {
+                throw new IllegalArgumentException("No readable property '" + names.get(i) + "' in " + type.getName());
+            }
+            fields[i] = fieldWriter(property);
+        }
+        this.header = builder.header ? names.toArray(new String[0]) : null;
+        if (out != null) {
+            open(out);
+        } else {
+            open(Files.newOutputStream(nextFile()));
+        }
+    }
+
+    /**
+     * 创建一个新的 Builder。
+     * @param type 元素类型
+     * @return Builder 对象
+     * @param <T> 元素类型
+     */
+    public static <T> Builder<T> newBuilder(Class<T> type) {
+        return new Builder<>(type);
+    }
+
+    /**
+     * 写入一行。
+     * @param row 元素
+     * @throws IOException 写入失败
+     */
+    public void write(T row) throws IOException {
+        if (closed) {
+            throw new IOException("CsvWriter is closed");
+        }
+        if (shouldRoll()) {
+            roll();
+        }
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    append(delimiter);
+                }
+                fields[i].write(this, row);
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot read property of " + type.getName(), e);
+        }
+        appendRaw(recordSeparator);
+        rowsInFile++;
+        rowCount++;
+    }
+
+    /**
+     * 写入所有元素。
+     * @param rows 元素
+     * @return 写入的行数
+     * @throws IOException 写入失败
+     */
+    public long writeAll(Iterable<? extends T> rows) throws IOException {
+        long count = 0;
+        for (T row : rows) {
+            write(row);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 按顺序写入流中的所有元素，不会关闭流。
+     * @param rows 元素流
+     * @return 写入的行数
+     * @throws IOException 写入失败
+     */
+    public long writeAll(Stream<? extends T> rows) throws IOException {
+        long count = 0;
+        Iterator<? extends T> iterator = rows.sequential().iterator();
+        while (iterator.hasNext()) {
+            write(iterator.next());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 获取已写入的总行数，不含表头。
+     * @return 行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 获取已创建的文件，输出到 OutputStream 时为空。
+     * @return 文件列表
+     */
+    public List<Path> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * 将缓冲区中的内容写到底层输出。启用 gzip 时已压缩的部分才会真正写出。
+     * @throws IOException 写入失败
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+
+    /**
+     * 写出剩余内容并关闭当前文件或输出流。
+     * @throws IOException 写入失败
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushBuffer();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private boolean shouldRoll() {
+        if (path == null || rowsInFile == 0) {
+            return false;
+        }
+        return (maxRowsPerFile > 0 && rowsInFile >= maxRowsPerFile)
+                || (maxBytesPerFile > 0 && counter.count + position >= maxBytesPerFile);
+    }
+
+    private void roll() throws IOException {
+        flushBuffer();
+        writer.close();
+        open(Files.newOutputStream(nextFile()));
+    }
+
+    private Path nextFile() {
+        if (maxRowsPerFile <= 0 && maxBytesPerFile <= 0) {
+            files.add(path);
+            return path;
+        }
+        String name = path.getFileName().toString();
+        int dot = name.indexOf('.', 1);
+        String base = dot < 0 ? name : name.substring(0, dot);
+        String extension = dot < 0 ? "" : name.substring(dot);
+        Path file = path.resolveSibling(String.format("%s-%05d%s", base, files.size() + 1, extension));
+        files.add(file);
+        return file;
+    }
+
+    private void open(OutputStream out) throws IOException {
+        try {
+            counter = new CountingOutputStream(out);
+            OutputStream stream = gzip ? new GZIPOutputStream(counter, 1 << 16) : counter;
+            writer = new OutputStreamWriter(stream, charset);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+        rowsInFile = 0;
+        if (header != null) {
+            for (int i = 0; i < header.length; i++) {
+                if (i > 0) {
+                    append(delimiter);
+                }
+                appendText(header[i]);
+            }
+            appendRaw(recordSeparator);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            writer.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void append(char c) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = c;
+    }
+
+    /**
+     * 原样写入，不做转义。
+     */
+    private void appendRaw(String s) throws IOException {
+        int length = s.length();
+        int offset = 0;
+        while (offset < length) {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            int n = Math.min(length - offset, buffer.length - position);
+            s.getChars(offset, offset + n, buffer, position);
+            position += n;
+            offset += n;
+        }
+    }
+
+    /**
+     * 写入文本，包含分隔符、引号或换行时加引号，内部的引号写成两个引号。
+     * 没有设置引号时改用转义字符，规则与 commons-csv 相同：换行写成转义字符加 {@code r}、{@code n}，
+     * 分隔符和转义字符本身前面加转义字符。
+     */
+    private void appendText(CharSequence s) throws IOException {
+        int length = s.length();
+        boolean special = false;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == delimiter || c == '\n' || c == '\r' || (quote >= 0 ? c == quote : c == escape)) {
+                special = true;
+                break;
+            }
+        }
+        if (!special) {
+            if (s instanceof String str) {
+                appendRaw(str);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    append(s.charAt(i));
+                }
+            }
+            return;
+        }
+        if (quote < 0) {
+            appendEscaped(s);
+            return;
+        }
+        append((char) quote);
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == quote) {
+                append(c);
+            }
+            append(c);
+        }
+        append((char) quote);
+    }
+
+    private void appendEscaped(CharSequence s) throws IOException {
+        if (escape < 0) {
+            throw new IllegalArgumentException("Value contains the delimiter or a line break, "
+                    + "but the format has neither a quote nor an escape character: " + s);
+        }
+        for (int i = 0, length = s.length(); i < length; i++) {
+            char c = s.charAt(i);
+            if (c == '\r') {
+                append((char) escape);
+                append('r');
+            } else if (c == '\n') {
+                append((char) escape);
+                append('n');
+            } else {
+                if (c == delimiter || c == escape) {
+                    append((char) escape);
+                }
+                append(c);
+            }
+        }
+    }
+
+    private void appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            appendRaw(Long.toString(value));
+            return;
+        }
+        if (buffer.length - position < 20) {
+            flushBuffer();
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private void appendDigits(int value, int width) throws IOException {
+        if (buffer.length - position < width) {
+            flushBuffer();
+        }
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    private void appendDate(LocalDate date) throws IOException {
+        if (date.getYear() < 0 || date.getYear() > 9999) {
+            appendRaw(date.toString());
+            return;
+        }
+        appendDigits(date.getYear(), 4);
+        append('-');
+        appendDigits(date.getMonthValue(), 2);
+        append('-');
+        appendDigits(date.getDayOfMonth(), 2);
+    }
+
+    private void appendDateTime(LocalDateTime dateTime) throws IOException {
+        if (dateTime.getNano() != 0 || dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+            // 带小数秒时使用 ISO-8601，避免丢失精度
+            appendRaw(dateTime.toString());
+            return;
+        }
+        appendDate(dateTime.toLocalDate());
+        append(' ');
+        appendDigits(dateTime.getHour(), 2);
+        append(':');
+        appendDigits(dateTime.getMinute(), 2);
+        append(':');
+        appendDigits(dateTime.getSecond(), 2);
+    }
+
+    private void appendValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof CharSequence s) {
+            appendText(s);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            appendLong(((Number) value).longValue());
+        } else if (value instanceof BigDecimal d) {
+            appendRaw(d.toPlainString());
+        } else if (value instanceof LocalDateTime t) {
+            appendDateTime(t);
+        } else if (value instanceof LocalDate d) {
+            appendDate(d);
+        } else if (value instanceof Date d) {
+            appendDateTime(LocalDateTime.ofInstant(d.toInstant(), ZoneId.systemDefault()));
+        } else if (value instanceof Enum<?> e) {
+            appendText(e.name());
+        } else {
+            appendText(String.valueOf(value));
+        }
+    }
+
+    private static FieldWriter fieldWriter(BeanModel.Property property) {
+        MethodHandle getter = property.getter;
+        if (property.type == int.class) {
+            return (w, row) -> w.appendLong((int) getter.invokeExact(row));
+        } else if (property.type == long.class) {
+            return (w, row) -> w.appendLong((long) getter.invokeExact(row));
+        } else if (property.type == double.class) {
+            return (w, row) -> w.appendRaw(Double.toString((double) getter.invokeExact(row)));
+        } else if (property.type == boolean.class) {
+            return (w, row) -> w.appendRaw((boolean) getter.invokeExact(row) ? "true" : "false");
+        }
+        MethodHandle objectGetter = getter.asType(MethodType.methodType(Object.class, Object.class));
+        return (w, row) -> w.appendValue((Object) objectGetter.invokeExact(row));
+    }
+
+    /**
+     * 读取一个属性并格式化到缓冲区。
+     */
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(CsvWriter<?> writer, Object row) throws Throwable;
+    }
+
+    /**
+     * 统计写入底层输出的字节数，用于按大小切分文件。
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * CsvWriter 的 Builder 类。
+     * @param <T> 元素类型
+     */
+    public static class Builder<T> {
+        private final Class<T> type;
+        private List<String> columns;
+        private boolean header = true;
+        private char delimiter = ',';
+        private int quote = '"';
+        private int escape = -1;
+        private String recordSeparator = "\r\n";
+        private Charset charset = StandardCharsets.UTF_8;
+        private boolean gzip;
+        private long maxRowsPerFile;
+        private long maxBytesPerFile;
+        private int bufferSize = 1 << 16;
+
+        private Builder(Class<T> type) {
+            this.type = type;
+        }
+
+        /**
+         * 设置输出的列及其顺序，默认为所有可读属性的声明顺序。名称的匹配规则与 {@link CsvRowMapper} 相同。
+         * @param columns 属性名
+         * @return 当前Builder对象
+         */
+        public Builder<T> columns(String... columns) {
+            this.columns = List.of(columns);
+            return this;
+        }
+
+        /**
+         * 设置是否在每个文件开头写表头，默认为 true。
+         * @param header 是否写表头
+         * @return 当前Builder对象
+         */
+        public Builder<T> header(boolean header) {
+            this.header = header;
+            return this;
+        }
+
+        /**
+         * 从 Csv 格式中读取分隔符、引号、转义字符和行分隔符，默认与 {@link CSVFormat#DEFAULT} 相同。
+         * 转义字符只在没有引号时使用；两者都没有时，写入包含分隔符或换行的值会抛出 {@link IllegalArgumentException}。
+         * @param format Csv 格式，分隔符需要是单个字符
+         * @return 当前Builder对象
+         */
+        public Builder<T> format(CSVFormat format) {
+            String delimiterString = format.getDelimiterString();
+            if (delimiterString == null || delimiterString.length() != 1) {
+                throw new IllegalArgumentException("Only single-character delimiters are supported: " + delimiterString);
+            }
+            this.delimiter = delimiterString.charAt(0);
+            this.quote = format.getQuoteCharacter() == null ? -1 : format.getQuoteCharacter();
+            this.escape = format.getEscapeCharacter() == null ? -1 : format.getEscapeCharacter();
+            this.recordSeparator = format.getRecordSeparator() == null ? "\r\n" : format.getRecordSeparator();
+            return this;
+        }
+
+        /**
+         * 设置编码，默认为 UTF-8。
+         * @param charset 编码
+         * @return 当前Builder对象
+         */
+        public Builder<T> charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        /**
+         * 设置是否以 gzip 压缩输出，默认为 false。文件扩展名不会被自动添加。
+         * @param gzip 是否压缩
+         * @return 当前Builder对象
+         */
+        public Builder<T> gzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        /**
+         * 设置每个文件的最大行数（不含表头），超过时切换到下一个文件。默认为 0，即不按行数切分。
+         * @param maxRowsPerFile 最大行数
+         * @return 当前Builder对象
+         */
+        public Builder<T> maxRowsPerFile(long maxRowsPerFile) {
+            this.maxRowsPerFile = maxRowsPerFile;
+            return this;
+        }
+
+        /**
+         * 设置每个文件的大约最大字节数，超过时在行边界切换到下一个文件。默认为 0，即不按大小切分。
+         * @param maxBytesPerFile 最大字节数
+         * @return 当前Builder对象
+         */
+        public Builder<T> maxBytesPerFile(long maxBytesPerFile) {
+            this.maxBytesPerFile = maxBytesPerFile;
+            return this;
+        }
+
+        /**
+         * 设置字符缓冲区的大小，默认为 65536。
+         * @param bufferSize 缓冲区大小，单位为字符
+         * @return 当前Builder对象
+         */
+        public Builder<T> bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * 创建写入文件的 CsvWriter。设置了切分时 path 只用于生成文件名，实际文件见 {@link CsvWriter#getFiles()}。
+         * @param path 文件路径
+         * @return CsvWriter 对象
+         * @throws IOException 创建文件失败
+         */
+        public CsvWriter<T> build(Path path) throws IOException {
+            validate();
+            return new CsvWriter<>(this, path, null);
+        }
+
+        /**
+         * 创建写入输出流的 CsvWriter，关闭 CsvWriter 时同时关闭输出流。输出到流时不能切分。
+         * @param out 输出流
+         * @return CsvWriter 对象
+         */
+        public CsvWriter<T> build(OutputStream out) {
+            validate();
+            if (maxRowsPerFile > 0 || maxBytesPerFile > 0) {
+                throw new IllegalArgumentException("Splitting output requires a file path");
+            }
+            try {
+                return new CsvWriter<>(this, null, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void validate() {
+            if (bufferSize < 64 || maxRowsPerFile < 0 || maxBytesPerFile < 0) {
+                throw new IllegalArgumentException("Invalid CSV writer configuration: bufferSize=" + bufferSize
+                        + ", maxRowsPerFile=" + maxRowsPerFile + ", maxBytesPerFile=" + maxBytesPerFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.phosa.csv;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 直接在 {@link CharSequence} 上工作的数值和日期解析。
+ * <p>常见格式走手写的快速路径，不创建中间字符串，也不依赖异常控制流程；其它格式退回 JDK 的标准解析，结果与 JDK 一致。
+ * 首尾空格会被忽略，非法输入抛出 {@link NumberFormatException} 或 {@link java.time.format.DateTimeParseException}。
+ */
+public final class FastParsers {
+    /**
+     * 可以精确表示为 double 的 10 的幂
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private FastParsers() {
+
+    }
+
+    /**
+     * 解析十进制整数。
+     * @param s 字符序列
+     * @return 整数值
+     */
+    public static int parseInt(CharSequence s) {
+        long value = parseLong(s);
+        if (value != (int) value) {
+            throw new NumberFormatException("Value out of range for int: \"" + s + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * 解析十进制长整数。
+     * @param s 字符序列
+     * @return 长整数值
+     */
+    public static long parseLong(CharSequence s) {
+        int start = start(s);
+        int end = end(s, start);
+        boolean negative = false;
+        if (start < end && (s.charAt(start) == '-' || s.charAt(start) == '+')) {
+            negative = s.charAt(start) == '-';
+            start++;
+        }
+        if (start == end) {
+            throw invalid(s);
+        }
+        // 以负数累加，Long.MIN_VALUE 也不会溢出
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalid(s);
+            }
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Value out of range for long: \"" + s + "\"");
+            }
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw new NumberFormatException("Value out of range for long: \"" + s + "\"");
+            }
+            return -result;
+        }
+        return result;
+    }
+
+    /**
+     * 解析浮点数。不超过 15 位有效数字、且小数位不超过 22 位的普通小数直接计算，结果与 {@link Double#parseDouble} 相同。
+     * @param s 字符序列
+     * @return 浮点数值
+     */
+    public static double parseDouble(CharSequence s) {
+        int start = start(s);
+        int end = end(s, start);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int significant = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (mantissa != 0) {
+                    significant++;
+                }
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        boolean simple = i == end && digits > 0 && significant <= 15 && scale <= 22;
+        if (!simple) {
+            return Double.parseDouble(s.subSequence(start, end).toString());
+        }
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * 解析十进制小数。不超过 18 位数字的普通小数直接由未缩放值和小数位数构造。
+     * @param s 字符序列
+     * @return 小数值
+     */
+    public static BigDecimal parseDecimal(CharSequence s) {
+        int start = start(s);
+        int end = end(s, start);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (i != end || digits == 0 || digits > 18) {
+            return new BigDecimal(s.subSequence(start, end).toString());
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    /**
+     * 解析布尔值，接受 true/false、1/0、yes/no、y/n，忽略大小写。
+     * @param s 字符序列
+     * @return 布尔值
+     */
+    public static boolean parseBoolean(CharSequence s) {
+        int start = start(s);
+        int end = end(s, start);
+        int length = end - start;
+        if (regionMatches(s, start, length, "true") || regionMatches(s, start, length, "1")
+                || regionMatches(s, start, length, "yes") || regionMatches(s, start, length, "y")) {
+            return true;
+        }
+        if (regionMatches(s, start, length, "false") || regionMatches(s, start, length, "0")
+                || regionMatches(s, start, length, "no") || regionMatches(s, start, length, "n")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid boolean: \"" + s + "\"");
+    }
+
+    /**
+     * 解析日期。{@code yyyy-MM-dd} 和 {@code yyyy/MM/dd} 直接按位解析，其它格式按 ISO-8601 解析。
+     * @param s 字符序列
+     * @return 日期
+     */
+    public static LocalDate parseDate(CharSequence s) {
+        int start = start(s);
+        int end = end(s, start);
+        LocalDate date = end - start == 10 ? fastDate(s, start) : null;
+        return date != null ? date : LocalDate.parse(s.subSequence(start, end));
+    }
+
+    /**
+     * 解析日期时间。{@code yyyy-MM-dd HH:mm:ss} 和 {@code yyyy-MM-ddTHH:mm:ss} 直接按位解析，
+     * 其它格式中日期与时间以空格分隔的按 {@code yyyy-MM-dd HH:mm:ss} 解析，否则按 ISO-8601 解析。
+     * @param s 字符序列
+     * @return 日期时间
+     */
+    public static LocalDateTime parseDateTime(CharSequence s) {
+        int start = start(s);
+        int end = end(s, start);
+        if (end - start == 19 && (s.charAt(start + 10) == ' ' || s.charAt(start + 10) == 'T')
+                && s.charAt(start + 13) == ':' && s.charAt(start + 16) == ':') {
+            LocalDate date = fastDate(s, start);
+            int hour = digits(s, start + 11, 2);
+            int minute = digits(s, start + 14, 2);
+            int second = digits(s, start + 17, 2);
+            if (date != null && hour >= 0 && minute >= 0 && second >= 0) {
+                return LocalDateTime.of(date, LocalTime.of(hour, minute, second));
+            }
+        }
+        CharSequence text = s.subSequence(start, end);
+        return end - start > 10 && s.charAt(start + 10) == ' '
+                ? LocalDateTime.parse(text, DATE_TIME)
+                : LocalDateTime.parse(text);
+    }
+
+    /**
+     * 判断字符序列去掉首尾空格后是否为空。
+     * @param s 字符序列
+     * @return 如果为空则返回 true
+     */
+    public static boolean isBlank(CharSequence s) {
+        int start = start(s);
+        return end(s, start) == start;
+    }
+
+    private static int start(CharSequence s) {
+        int start = 0;
+        while (start < s.length() && s.charAt(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int end(CharSequence s, int start) {
+        int end = s.length();
+        while (end > start && s.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * 解析固定位数的十进制数字，包含非数字字符时返回 -1。
+     */
+    private static int digits(CharSequence s, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * 按位解析从 offset 开始的 {@code yyyy-MM-dd} 或 {@code yyyy/MM/dd}，格式不符时返回 null。
+     */
+    private static LocalDate fastDate(CharSequence s, int offset) {
+        char separator = s.charAt(offset + 4);
+        if ((separator != '-' && separator != '/') || s.charAt(offset + 7) != separator) {
+            return null;
+        }
+        int year = digits(s, offset, 4);
+        int month = digits(s, offset + 5, 2);
+        int day = digits(s, offset + 8, 2);
+        return year >= 0 && month >= 0 && day >= 0 ? LocalDate.of(year, month, day) : null;
+    }
+
+    private static boolean regionMatches(CharSequence s, int start, int length, String expected) {
+        if (length != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.toLowerCase(s.charAt(start + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static NumberFormatException invalid(CharSequence s) {
+        return new NumberFormatException("For input string: \"" + s + "\"");
+    }
+}
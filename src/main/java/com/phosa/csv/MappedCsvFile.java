@@ -0,0 +1,350 @@
+package com.phosa.csv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 内存映射的 Csv 文件，按记录边界切分为多个分块，供多个线程并行解析。
+ * <p>切分点必须落在引号之外的换行符之后。对于 RFC 4180 风格的引号（字段内的引号写成两个引号），
+ * 某个位置是否处于引号内只取决于此前引号字符个数的奇偶性，因此先并行统计每个分块的引号数，
+ * 前缀异或得到每个分块起点的引号状态，再并行地从各个起点向后寻找第一个引号外的换行符。
+ * 设置了转义字符时奇偶性不再可靠，退化为一次顺序扫描。
+ * <p>切分按字节进行，要求编码中换行符和引号都是单字节，且不会出现在多字节字符内部，
+ * 例如 UTF-8、GBK、ISO-8859-1；UTF-16 等编码不支持。仅以 {@code \r} 结尾的行不会被识别为切分点，
+ * 注释行中出现的引号也会干扰切分。
+ */
+public final class MappedCsvFile implements Closeable {
+    /**
+     * 分块的最小字节数
+     */
+    private static final long MIN_CHUNK = 1 << 20;
+    /**
+     * 分块的最大字节数，分块解码后需要整体放在内存中，因此不宜过大
+     */
+    private static final long MAX_CHUNK = 16 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Charset charset;
+    private final CSVFormat chunkFormat;
+    private final String[] headerNames;
+    private final long[] boundaries;
+
+    private MappedCsvFile(Path path, FileChannel channel, CSVFormat format, Charset charset, long chunkSize) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.charset = charset;
+        long size = channel.size();
+        Character quote = format.getQuoteCharacter();
+        int quoteByte = quote == null ? -1 : singleByte(charset, quote);
+        int escapeByte = format.getEscapeCharacter() == null ? -1 : singleByte(charset, format.getEscapeCharacter());
+        singleByte(charset, '\n');
+
+        long dataStart = hasBom(channel, size, charset) ? 3 : 0;
+        String[] header = format.getHeader();
+        boolean firstRecordIsHeader = header != null && (header.length == 0 || format.getSkipHeaderRecord());
+        if (firstRecordIsHeader && dataStart < size) {
+            long headerEnd = nextRecordStart(dataStart, size, false, quoteByte, escapeByte);
+            if (header.length == 0) {
+                header = parseHeader(dataStart, headerEnd, format);
+            }
+            dataStart = headerEnd;
+        }
+        this.headerNames = header == null || header.length == 0 ? null : header;
+        CSVFormat.Builder builder = format.builder().setSkipHeaderRecord(false);
+        if (headerNames != null) {
+            builder.setHeader(headerNames);
+        }
+        this.chunkFormat = builder.build();
+        this.boundaries = split(dataStart, size, chunkSize, quoteByte, escapeByte);
+    }
+
+    /**
+     * 映射并切分 Csv 文件，分块大小根据文件大小和公共线程池的并行度自动选择。
+     * @param path 文件路径
+     * @param format 文件格式，表头的处理方式与 {@link CSVParser} 相同
+     * @param charset 文件编码
+     * @return 映射的文件，使用完毕后需要关闭
+     * @throws IOException 读取文件失败
+     */
+    public static MappedCsvFile open(Path path, CSVFormat format, Charset charset) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long target = channel.size() / (ForkJoinPool.getCommonPoolParallelism() * 4L);
+            return new MappedCsvFile(path, channel, format, charset, Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, target)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 获取表头。
+     * @return 表头，格式中未使用表头时返回 null
+     */
+    public String[] getHeaderNames() {
+        return headerNames == null ? null : headerNames.clone();
+    }
+
+    /**
+     * 获取解析分块所用的格式：已固定表头，且不再跳过首行。
+     * @return Csv 格式
+     */
+    public CSVFormat getChunkFormat() {
+        return chunkFormat;
+    }
+
+    /**
+     * 获取分块数。
+     * @return 分块数
+     */
+    public int getChunkCount() {
+        return boundaries.length - 1;
+    }
+
+    /**
+     * 获取分块在文件中的起始字节位置。
+     * @param index 分块序号
+     * @return 字节位置
+     */
+    public long getChunkStart(int index) {
+        return boundaries[index];
+    }
+
+    /**
+     * 映射并解码一个分块。
+     * @param index 分块序号
+     * @return 分块内容
+     */
+    public CharBuffer decodeChunk(int index) {
+        return decode(boundaries[index], boundaries[index + 1]);
+    }
+
+    /**
+     * 并行解析所有分块。每个分块在一个任务中顺序解析，记录号从分块起点重新计数。
+     * @param ordered 是否保持记录在文件中的顺序；不需要顺序时设为 false 可以减少合并开销
+     * @return 并行的记录流，关闭流时同时关闭文件
+     */
+    public Stream<CSVRecord> records(boolean ordered) {
+        Stream<CSVRecord> stream = IntStream.range(0, getChunkCount()).parallel().boxed().flatMap(this::parseChunk);
+        if (!ordered) {
+            stream = stream.unordered();
+        }
+        return stream.onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private Stream<CSVRecord> parseChunk(int index) {
+        try {
+            CSVParser parser = new CSVParser(new CharBufferReader(decodeChunk(index)), chunkFormat);
+            return parser.stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse CSV chunk at byte " + boundaries[index] + " of " + path, e);
+        }
+    }
+
+    private String[] parseHeader(long start, long end, CSVFormat format) throws IOException {
+        CSVFormat headerless = format.builder().setHeader((String[]) null).setSkipHeaderRecord(false).build();
+        try (CSVParser parser = new CSVParser(new CharBufferReader(decode(start, end)), headerless)) {
+            Iterator<CSVRecord> iterator = parser.iterator();
+            return iterator.hasNext() ? iterator.next().values() : new String[0];
+        }
+    }
+
+    private CharBuffer decode(long start, long end) {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IllegalStateException("CSV record starting at byte " + start + " of " + path + " is too long");
+        }
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            return charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .decode(buffer);
+        } catch (CharacterCodingException e) {
+            throw new IllegalStateException("Failed to decode CSV chunk at byte " + start + " of " + path, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map CSV chunk at byte " + start + " of " + path, e);
+        }
+    }
+
+    /**
+     * 计算分块边界，返回值的首尾分别为数据起点和文件末尾。
+     */
+    private long[] split(long dataStart, long size, long chunkSize, int quoteByte, int escapeByte) throws IOException {
+        if (dataStart >= size) {
+            return new long[]{dataStart};
+        }
+        int count = (int) Math.min(Integer.MAX_VALUE - 1, (size - dataStart + chunkSize - 1) / chunkSize);
+        long[] nominal = new long[count];
+        for (int i = 0; i < count; i++) {
+            nominal[i] = dataStart + i * chunkSize;
+        }
+        long[] starts = new long[count + 1];
+        starts[0] = dataStart;
+        starts[count] = size;
+        if (count > 1) {
+            if (escapeByte >= 0) {
+                sequentialBoundaries(nominal, size, quoteByte, escapeByte, starts);
+            } else {
+                parallelBoundaries(nominal, size, quoteByte, starts);
+            }
+        }
+        // 单条记录跨越多个名义分块时，相邻的边界会重合，去掉空分块
+        long[] distinct = new long[count + 1];
+        int n = 0;
+        for (long start : starts) {
+            if (n == 0 || start > distinct[n - 1]) {
+                distinct[n++] = start;
+            }
+        }
+        if (distinct[n - 1] != size) {
+            distinct[n++] = size;
+        }
+        return Arrays.copyOf(distinct, n);
+    }
+
+    private void parallelBoundaries(long[] nominal, long size, int quoteByte, long[] starts) {
+        int count = nominal.length;
+        boolean[] inQuote = new boolean[count];
+        if (quoteByte >= 0) {
+            long[] quotes = IntStream.range(0, count).parallel()
+                    .mapToLong(i -> countByte(nominal[i], i + 1 < count ? nominal[i + 1] : size, quoteByte))
+                    .toArray();
+            for (int i = 1; i < count; i++) {
+                inQuote[i] = inQuote[i - 1] ^ ((quotes[i - 1] & 1) == 1);
+            }
+        }
+        IntStream.range(1, count).parallel().forEach(i -> {
+            try {
+                starts[i] = nextRecordStart(nominal[i], size, inQuote[i], quoteByte, -1);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void sequentialBoundaries(long[] nominal, long size, int quoteByte, int escapeByte, long[] starts) throws IOException {
+        long position = nominal[0];
+        boolean inQuote = false;
+        boolean escaped = false;
+        int next = 1;
+        while (position < size && next < nominal.length) {
+            MappedByteBuffer buffer = map(position, size);
+            int limit = buffer.limit();
+            for (int i = 0; i < limit && next < nominal.length; i++) {
+                int b = buffer.get(i);
+                if (escaped) {
+                    escaped = false;
+                } else if (b == escapeByte) {
+                    escaped = true;
+                } else if (b == quoteByte) {
+                    inQuote = !inQuote;
+                } else if (b == '\n' && !inQuote) {
+                    while (next < nominal.length && position + i >= nominal[next]) {
+                        starts[next++] = position + i + 1;
+                    }
+                }
+            }
+            position += limit;
+        }
+        while (next < nominal.length) {
+            starts[next++] = size;
+        }
+    }
+
+    /**
+     * 从 position 开始寻找第一个引号外的换行符，返回其后一个字节的位置，找不到时返回文件末尾。
+     */
+    private long nextRecordStart(long position, long size, boolean inQuote, int quoteByte, int escapeByte) throws IOException {
+        boolean escaped = false;
+        while (position < size) {
+            MappedByteBuffer buffer = map(position, size);
+            int limit = buffer.limit();
+            for (int i = 0; i < limit; i++) {
+                int b = buffer.get(i);
+                if (escaped) {
+                    escaped = false;
+                } else if (b == escapeByte) {
+                    escaped = true;
+                } else if (b == quoteByte) {
+                    inQuote = !inQuote;
+                } else if (b == '\n' && !inQuote) {
+                    return position + i + 1;
+                }
+            }
+            position += limit;
+        }
+        return size;
+    }
+
+    private long countByte(long start, long end, int value) {
+        long count = 0;
+        try {
+            long position = start;
+            while (position < end) {
+                MappedByteBuffer buffer = map(position, end);
+                int limit = buffer.limit();
+                for (int i = 0; i < limit; i++) {
+                    if (buffer.get(i) == value) {
+                        count++;
+                    }
+                }
+                position += limit;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    private MappedByteBuffer map(long position, long end) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(end - position, 1 << 30));
+    }
+
+    private static boolean hasBom(FileChannel channel, long size, Charset charset) throws IOException {
+        if (size < 3 || !"UTF-8".equals(charset.name())) {
+            return false;
+        }
+        ByteBuffer head = ByteBuffer.allocate(3);
+        channel.read(head, 0);
+        return head.get(0) == (byte) 0xEF && head.get(1) == (byte) 0xBB && head.get(2) == (byte) 0xBF;
+    }
+
+    private static int singleByte(Charset charset, char c) {
+        byte[] bytes = String.valueOf(c).getBytes(charset);
+        if (bytes.length != 1) {
+            throw new IllegalArgumentException("Charset " + charset + " is not supported for chunked CSV parsing");
+        }
+        return bytes[0];
+    }
+}
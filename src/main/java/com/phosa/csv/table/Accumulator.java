@@ -0,0 +1,258 @@
+package com.phosa.csv.table;
+
+import java.util.Arrays;
+
+/**
+ * 一个聚合函数在一段行上的部分结果。各段并行累加后再合并，每组的状态保存在按组号索引的基本类型数组中。
+ */
+abstract class Accumulator {
+    final Aggregation aggregation;
+    final int groups;
+
+    Accumulator(Aggregation aggregation, int groups) {
+        this.aggregation = aggregation;
+        this.groups = groups;
+    }
+
+    /**
+     * 为聚合函数创建空的部分结果。
+     */
+    static Accumulator create(Aggregation aggregation, Column column, int groups) {
+        if (aggregation.kind == Aggregation.Kind.COUNT) {
+            return new Count(aggregation, column, groups);
+        }
+        if (column instanceof LongColumn c) {
+            return new LongStats(aggregation, c, groups);
+        }
+        if (column instanceof DoubleColumn c) {
+            return new DoubleStats(aggregation, c, groups);
+        }
+        throw new IllegalArgumentException("Cannot apply " + aggregation.kind + " to non-numeric column '"
+                + aggregation.column + "'");
+    }
+
+    /**
+     * 累加 [from, to) 范围内的行。
+     */
+    abstract void accumulate(int[] groupIds, int from, int to);
+
+    /**
+     * 合并同一聚合函数在另一段行上的部分结果。
+     */
+    abstract void merge(Accumulator other);
+
+    /**
+     * 生成结果列。
+     */
+    abstract Column result(String name);
+
+    static long[] nullBits(long[] counts, int groups) {
+        long[] nulls = null;
+        for (int g = 0; g < groups; g++) {
+            if (counts[g] == 0) {
+                if (nulls == null) {
+                    nulls = new long[(groups + 63) >>> 6];
+                }
+                nulls[g >>> 6] |= 1L << g;
+            }
+        }
+        return nulls;
+    }
+
+    private static final class Count extends Accumulator {
+        private final Column column;
+        private final long[] counts;
+
+        Count(Aggregation aggregation, Column column, int groups) {
+            super(aggregation, groups);
+            this.column = column;
+            this.counts = new long[groups];
+        }
+
+        @Override
+        void accumulate(int[] groupIds, int from, int to) {
+            if (column == null) {
+                for (int r = from; r < to; r++) {
+                    counts[groupIds[r]]++;
+                }
+            } else {
+                for (int r = from; r < to; r++) {
+                    if (!column.isNull(r)) {
+                        counts[groupIds[r]]++;
+                    }
+                }
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            long[] o = ((Count) other).counts;
+            for (int g = 0; g < groups; g++) {
+                counts[g] += o[g];
+            }
+        }
+
+        @Override
+        Column result(String name) {
+            return new LongColumn(name, counts, groups, null);
+        }
+    }
+
+    private static final class LongStats extends Accumulator {
+        private final LongColumn column;
+        private final long[] counts;
+        private final long[] values;
+
+        LongStats(Aggregation aggregation, LongColumn column, int groups) {
+            super(aggregation, groups);
+            this.column = column;
+            this.counts = new long[groups];
+            this.values = new long[groups];
+            if (aggregation.kind == Aggregation.Kind.MIN) {
+                Arrays.fill(values, Long.MAX_VALUE);
+            } else if (aggregation.kind == Aggregation.Kind.MAX) {
+                Arrays.fill(values, Long.MIN_VALUE);
+            }
+        }
+
+        @Override
+        void accumulate(int[] groupIds, int from, int to) {
+            long[] data = column.values;
+            long[] nulls = column.nulls;
+            switch (aggregation.kind) {
+                case MIN -> {
+                    for (int r = from; r < to; r++) {
+                        if (!Column.bit(nulls, r)) {
+                            int g = groupIds[r];
+                            counts[g]++;
+                            values[g] = Math.min(values[g], data[r]);
+                        }
+                    }
+                }
+                case MAX -> {
+                    for (int r = from; r < to; r++) {
+                        if (!Column.bit(nulls, r)) {
+                            int g = groupIds[r];
+                            counts[g]++;
+                            values[g] = Math.max(values[g], data[r]);
+                        }
+                    }
+                }
+                default -> {
+                    for (int r = from; r < to; r++) {
+                        if (!Column.bit(nulls, r)) {
+                            int g = groupIds[r];
+                            counts[g]++;
+                            values[g] += data[r];
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            LongStats o = (LongStats) other;
+            for (int g = 0; g < groups; g++) {
+                counts[g] += o.counts[g];
+                switch (aggregation.kind) {
+                    case MIN -> values[g] = Math.min(values[g], o.values[g]);
+                    case MAX -> values[g] = Math.max(values[g], o.values[g]);
+                    default -> values[g] += o.values[g];
+                }
+            }
+        }
+
+        @Override
+        Column result(String name) {
+            long[] nulls = nullBits(counts, groups);
+            if (aggregation.kind == Aggregation.Kind.MEAN) {
+                double[] means = new double[groups];
+                for (int g = 0; g < groups; g++) {
+                    means[g] = counts[g] == 0 ? 0 : (double) values[g] / counts[g];
+                }
+                return new DoubleColumn(name, means, groups, nulls);
+            }
+            return new LongColumn(name, values, groups, nulls);
+        }
+    }
+
+    private static final class DoubleStats extends Accumulator {
+        private final DoubleColumn column;
+        private final long[] counts;
+        private final double[] values;
+
+        DoubleStats(Aggregation aggregation, DoubleColumn column, int groups) {
+            super(aggregation, groups);
+            this.column = column;
+            this.counts = new long[groups];
+            this.values = new double[groups];
+            if (aggregation.kind == Aggregation.Kind.MIN) {
+                Arrays.fill(values, Double.POSITIVE_INFINITY);
+            } else if (aggregation.kind == Aggregation.Kind.MAX) {
+                Arrays.fill(values, Double.NEGATIVE_INFINITY);
+            }
+        }
+
+        @Override
+        void accumulate(int[] groupIds, int from, int to) {
+            double[] data = column.values;
+            long[] nulls = column.nulls;
+            switch (aggregation.kind) {
+                case MIN -> {
+                    for (int r = from; r < to; r++) {
+                        if (!Column.bit(nulls, r)) {
+                            int g = groupIds[r];
+                            counts[g]++;
+                            values[g] = Math.min(values[g], data[r]);
+                        }
+                    }
+                }
+                case MAX -> {
+                    for (int r = from; r < to; r++) {
+                        if (!Column.bit(nulls, r)) {
+                            int g = groupIds[r];
+                            counts[g]++;
+                            values[g] = Math.max(values[g], data[r]);
+                        }
+                    }
+                }
+                default -> {
+                    for (int r = from; r < to; r++) {
+                        if (!Column.bit(nulls, r)) {
+                            int g = groupIds[r];
+                            counts[g]++;
+                            values[g] += data[r];
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            DoubleStats o = (DoubleStats) other;
+            for (int g = 0; g < groups; g++) {
+                counts[g] += o.counts[g];
+                switch (aggregation.kind) {
+                    case MIN -> values[g] = Math.min(values[g], o.values[g]);
+                    case MAX -> values[g] = Math.max(values[g], o.values[g]);
+                    default -> values[g] += o.values[g];
+                }
+            }
+        }
+
+        @Override
+        Column result(String name) {
+            long[] nulls = nullBits(counts, groups);
+            if (aggregation.kind == Aggregation.Kind.MEAN) {
+                for (int g = 0; g < groups; g++) {
+                    if (counts[g] != 0) {
+                        values[g] /= counts[g];
+                    }
+                }
+            }
+            return new DoubleColumn(name, values, groups, nulls);
+        }
+    }
+}
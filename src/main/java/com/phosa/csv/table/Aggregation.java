@@ -0,0 +1,97 @@
+package com.phosa.csv.table;
+
+import java.util.Locale;
+
+/**
+ * 聚合函数，用于 {@link ColumnTable#aggregate(Aggregation...)} 和 {@link ColumnTable.GroupBy#aggregate(Aggregation...)}。
+ * <p>null 值不参与计算；组内没有非 null 值时 sum、min、max、mean 的结果为 null。
+ * 结果列默认命名为 {@code count}、{@code sum_amount} 这样的形式，可以通过 {@link #as(String)} 修改。
+ */
+public final class Aggregation {
+    enum Kind {
+        COUNT, SUM, MIN, MAX, MEAN
+    }
+
+    final Kind kind;
+    /**
+     * 聚合的列，count() 时为 null
+     */
+    final String column;
+    final String alias;
+
+    private Aggregation(Kind kind, String column, String alias) {
+        this.kind = kind;
+        this.column = column;
+        this.alias = alias;
+    }
+
+    /**
+     * 统计行数。
+     * @return 聚合函数
+     */
+    public static Aggregation count() {
+        return new Aggregation(Kind.COUNT, null, null);
+    }
+
+    /**
+     * 统计某列非 null 值的个数。
+     * @param column 列名
+     * @return 聚合函数
+     */
+    public static Aggregation count(String column) {
+        return new Aggregation(Kind.COUNT, column, null);
+    }
+
+    /**
+     * 求和，整数列的结果为整数。
+     * @param column 数值列的列名
+     * @return 聚合函数
+     */
+    public static Aggregation sum(String column) {
+        return new Aggregation(Kind.SUM, column, null);
+    }
+
+    /**
+     * 求最小值。
+     * @param column 数值列的列名
+     * @return 聚合函数
+     */
+    public static Aggregation min(String column) {
+        return new Aggregation(Kind.MIN, column, null);
+    }
+
+    /**
+     * 求最大值。
+     * @param column 数值列的列名
+     * @return 聚合函数
+     */
+    public static Aggregation max(String column) {
+        return new Aggregation(Kind.MAX, column, null);
+    }
+
+    /**
+     * 求平均值，结果为浮点数。
+     * @param column 数值列的列名
+     * @return 聚合函数
+     */
+    public static Aggregation mean(String column) {
+        return new Aggregation(Kind.MEAN, column, null);
+    }
+
+    /**
+     * 指定结果列的名称。
+     * @param alias 列名
+     * @return 新的聚合函数
+     */
+    public Aggregation as(String alias) {
+        return new Aggregation(kind, column, alias);
+    }
+
+    String outputName() {
+        if (alias != null) {
+            return alias;
+        }
+        String name = kind.name().toLowerCase(Locale.ROOT);
+        return column == null ? name : name + "_" + column;
+    }
+}
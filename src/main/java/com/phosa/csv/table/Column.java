@@ -0,0 +1,59 @@
+package com.phosa.csv.table;
+
+/**
+ * 一列数据。列创建后不再修改，可以被多个表共享。
+ */
+abstract class Column {
+    final String name;
+    final int size;
+
+    Column(String name, int size) {
+        this.name = name;
+        this.size = size;
+    }
+
+    abstract ColumnType type();
+
+    abstract boolean isNull(int row);
+
+    /**
+     * 按行号取出若干行组成新列。
+     */
+    abstract Column gather(String name, int[] rows);
+
+    /**
+     * 比较两行的值，null 排在最后。
+     */
+    abstract int compare(int a, int b);
+
+    /**
+     * 格式化一行的值，null 返回 null。
+     */
+    abstract String format(int row);
+
+    /**
+     * 获取 null 位图中的一位，位图为 null 表示没有 null。
+     */
+    static boolean bit(long[] bits, int index) {
+        return bits != null && (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * 按行号从位图中取出若干位。
+     */
+    static long[] gatherBits(long[] bits, int[] rows) {
+        if (bits == null) {
+            return null;
+        }
+        long[] result = null;
+        for (int i = 0; i < rows.length; i++) {
+            if (bit(bits, rows[i])) {
+                if (result == null) {
+                    result = new long[(rows.length + 63) >>> 6];
+                }
+                result[i >>> 6] |= 1L << i;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,687 @@
+package com.phosa.csv.table;
+
+import com.phosa.csv.CsvRow;
+import com.phosa.csv.CsvScanner;
+import com.phosa.csv.FastParsers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * 按列存储的不可变内存表。
+ * <p>整数列和浮点数列保存在 long[]、double[] 中，字符串列按字典编码为 int[]，重复的字符串只保存一份。
+ * 过滤、分组聚合都是对基本类型数组的顺序循环，按行分段后在公共线程池中并行执行；排序使用并行归并排序。
+ * 每个操作都返回新表，原表不变。空单元格保存为 null，不参与过滤和聚合，排序时排在最后。
+ * <p>使用示例：
+ * <pre>{@code
+ *     ColumnTable orders = CsvUtil.readColumnTable(path, CSVFormat.DEFAULT.builder().setHeader().build(), StandardCharsets.UTF_8);
+ *     ColumnTable summary = orders
+ *             .filterString("status", "PAID"::equals)
+ *             .filterDouble("amount", v -> v > 0)
+ *             .groupBy("country")
+ *             .aggregate(Aggregation.count(), Aggregation.sum("amount").as("total"))
+ *             .sort("total", false);
+ * }</pre>
+ */
+public final class ColumnTable {
+    /**
+     * 并行处理时每段的行数
+     */
+    private static final int CHUNK = 1 << 16;
+
+    private final Column[] columns;
+    private final Map<String, Integer> index = new LinkedHashMap<>();
+    private final int rowCount;
+
+    ColumnTable(Column[] columns, int rowCount) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        for (int i = 0; i < columns.length; i++) {
+            index.putIfAbsent(columns[i].name, i);
+        }
+    }
+
+    /**
+     * 读取扫描器中剩余的所有行。
+     * <p>未指定类型的列自动推断：先尝试整数，遇到无法解析的值时依次提升为浮点数和字符串。
+     * 整数列中有超出 double 精确范围（±2<sup>53</sup>）的值时不会提升为浮点数，而是直接提升为字符串；
+     * 提升为字符串的列保留每个值的原文，例如 {@code 007} 仍是 {@code 007}。
+     * 自动推断的列在读取期间额外保存原文的字典编码，数值列较多且取值各不相同时可以显式指定类型以减少内存占用。
+     *
+     * @param scanner Csv 扫描器，没有表头时列名为从 0 开始的列序号
+     * @param types 指定类型的列，可以为空
+     * @return 表
+     * @throws IOException 读取失败
+     * @throws IllegalArgumentException 指定类型的列中有无法解析的值
+     */
+    public static ColumnTable read(CsvScanner scanner, Map<String, ColumnType> types) throws IOException {
+        List<String> names = scanner.getHeaderNames();
+        List<ColumnBuilder> builders = new ArrayList<>();
+        if (names != null) {
+            for (String name : names) {
+                builders.add(new ColumnBuilder(name, types.get(name)));
+            }
+        }
+        int rows = 0;
+        while (scanner.next()) {
+            CsvRow row = scanner.row();
+            if (names == null) {
+                while (builders.size() < row.size()) {
+                    String name = String.valueOf(builders.size());
+                    ColumnBuilder builder = new ColumnBuilder(name, types.get(name));
+                    // 之前的行没有该列
+                    for (int r = 0; r < rows; r++) {
+                        builder.add(null, r + 1L);
+                    }
+                    builders.add(builder);
+                }
+            }
+            for (int c = 0; c < builders.size(); c++) {
+                builders.get(c).add(row.get(c), row.getRecordNumber());
+            }
+            rows++;
+        }
+        Column[] columns = new Column[builders.size()];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = builders.get(c).build();
+        }
+        return new ColumnTable(columns, rows);
+    }
+
+    /**
+     * 获取行数。
+     * @return 行数
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 获取列名。
+     * @return 列名
+     */
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<>(columns.length);
+        for (Column column : columns) {
+            names.add(column.name);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * 获取列的类型。
+     * @param column 列名
+     * @return 列类型
+     */
+    public ColumnType getColumnType(String column) {
+        return column(column).type();
+    }
+
+    /**
+     * 判断单元格是否为 null。
+     * @param column 列名
+     * @param row 行号，从 0 开始
+     * @return 如果为 null 则返回 true
+     */
+    public boolean isNull(String column, int row) {
+        checkRow(row);
+        return column(column).isNull(row);
+    }
+
+    /**
+     * 获取整数列中的值。
+     * @param column 列名
+     * @param row 行号，从 0 开始
+     * @return 整数值，null 时返回 0
+     */
+    public long getLong(String column, int row) {
+        checkRow(row);
+        if (!(column(column) instanceof LongColumn c)) {
+            throw new IllegalArgumentException("Column '" + column + "' is not of type LONG");
+        }
+        return c.values[row];
+    }
+
+    /**
+     * 获取数值列中的值，整数列的值会被转换为浮点数。
+     * @param column 列名
+     * @param row 行号，从 0 开始
+     * @return 浮点数值，null 时返回 0
+     */
+    public double getDouble(String column, int row) {
+        checkRow(row);
+        Column c = column(column);
+        if (c instanceof DoubleColumn d) {
+            return d.values[row];
+        }
+        if (c instanceof LongColumn l) {
+            return l.values[row];
+        }
+        throw new IllegalArgumentException("Column '" + column + "' is not numeric");
+    }
+
+    /**
+     * 获取单元格的值，数值会被格式化为字符串。
+     * @param column 列名
+     * @param row 行号，从 0 开始
+     * @return 字符串值，null 时返回 null
+     */
+    public String getString(String column, int row) {
+        checkRow(row);
+        return column(column).format(row);
+    }
+
+    /**
+     * 只保留指定的列，不复制数据。
+     * @param columns 列名
+     * @return 新表
+     */
+    public ColumnTable select(String... columns) {
+        Column[] selected = new Column[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            selected[i] = column(columns[i]);
+        }
+        return new ColumnTable(selected, rowCount);
+    }
+
+    /**
+     * 保留前 n 行。
+     * @param n 行数
+     * @return 新表
+     */
+    public ColumnTable head(int n) {
+        int count = Math.max(0, Math.min(n, rowCount));
+        int[] rows = new int[count];
+        Arrays.setAll(rows, i -> i);
+        return gather(rows);
+    }
+
+    /**
+     * 保留整数列满足条件的行。
+     * @param column 整数列的列名
+     * @param predicate 条件
+     * @return 新表
+     */
+    public ColumnTable filterLong(String column, LongPredicate predicate) {
+        if (!(column(column) instanceof LongColumn c)) {
+            throw new IllegalArgumentException("Column '" + column + "' is not of type LONG");
+        }
+        long[] values = c.values;
+        long[] nulls = c.nulls;
+        return filterRows((from, to, out) -> {
+            int n = 0;
+            for (int r = from; r < to; r++) {
+                if (!Column.bit(nulls, r) && predicate.test(values[r])) {
+                    out[n++] = r;
+                }
+            }
+            return n;
+        });
+    }
+
+    /**
+     * 保留数值列满足条件的行，整数列的值会被转换为浮点数。
+     * @param column 数值列的列名
+     * @param predicate 条件
+     * @return 新表
+     */
+    public ColumnTable filterDouble(String column, DoublePredicate predicate) {
+        Column c = column(column);
+        if (c instanceof LongColumn) {
+            return filterLong(column, v -> predicate.test(v));
+        }
+        if (!(c instanceof DoubleColumn d)) {
+            throw new IllegalArgumentException("Column '" + column + "' is not numeric");
+        }
+        double[] values = d.values;
+        long[] nulls = d.nulls;
+        return filterRows((from, to, out) -> {
+            int n = 0;
+            for (int r = from; r < to; r++) {
+                if (!Column.bit(nulls, r) && predicate.test(values[r])) {
+                    out[n++] = r;
+                }
+            }
+            return n;
+        });
+    }
+
+    /**
+     * 保留字符串列满足条件的行。条件对字典中的每个不同的字符串只计算一次，之后逐行只比较编号。
+     * @param column 字符串列的列名
+     * @param predicate 条件
+     * @return 新表
+     */
+    public ColumnTable filterString(String column, Predicate<String> predicate) {
+        if (!(column(column) instanceof StringColumn c)) {
+            throw new IllegalArgumentException("Column '" + column + "' is not of type STRING");
+        }
+        boolean[] matches = new boolean[c.dictionary.length];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = predicate.test(c.dictionary[i]);
+        }
+        int[] codes = c.codes;
+        return filterRows((from, to, out) -> {
+            int n = 0;
+            for (int r = from; r < to; r++) {
+                int code = codes[r];
+                if (code >= 0 && matches[code]) {
+                    out[n++] = r;
+                }
+            }
+            return n;
+        });
+    }
+
+    /**
+     * 按一列排序，排序是稳定的。
+     * @param column 列名
+     * @param ascending 是否升序；升序时 null 排在最后，降序时排在最前
+     * @return 新表
+     */
+    public ColumnTable sort(String column, boolean ascending) {
+        Column c = column(column);
+        int[] rows = ascending
+                ? IntSorter.sortedIndexes(rowCount, c::compare)
+                : IntSorter.sortedIndexes(rowCount, (a, b) -> c.compare(b, a));
+        return gather(rows);
+    }
+
+    /**
+     * 按多列升序排序，前一列相同时比较后一列，排序是稳定的。
+     * @param columns 列名
+     * @return 新表
+     */
+    public ColumnTable sortBy(String... columns) {
+        Column[] keys = new Column[columns.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = column(columns[i]);
+        }
+        return gather(IntSorter.sortedIndexes(rowCount, (a, b) -> {
+            for (Column key : keys) {
+                int result = key.compare(a, b);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }));
+    }
+
+    /**
+     * 按若干列分组。
+     * @param keys 分组列的列名，可以是任意类型；null 被视为一个单独的值
+     * @return 分组
+     */
+    public GroupBy groupBy(String... keys) {
+        Column[] keyColumns = new Column[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keyColumns[i] = column(keys[i]);
+        }
+        return new GroupBy(keyColumns);
+    }
+
+    /**
+     * 对整张表聚合，结果只有一行，空表也是如此：计数为 0，其他聚合函数的结果为 null。
+     * @param aggregations 聚合函数
+     * @return 聚合结果
+     */
+    public ColumnTable aggregate(Aggregation... aggregations) {
+        return new GroupBy(new Column[0]).aggregate(aggregations);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ColumnTable[rows=").append(rowCount).append(", columns=");
+        for (int i = 0; i < columns.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(columns[i].name).append(':').append(columns[i].type());
+        }
+        return sb.append(']').toString();
+    }
+
+    private Column column(String name) {
+        Integer i = index.get(name);
+        if (i == null) {
+            throw new IllegalArgumentException("Column '" + name + "' not found");
+        }
+        return columns[i];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + rowCount);
+        }
+    }
+
+    private int chunkCount() {
+        return (rowCount + CHUNK - 1) / CHUNK;
+    }
+
+    /**
+     * 分段并行地找出满足条件的行号，再按原顺序拼接。
+     */
+    private ColumnTable filterRows(ChunkFilter filter) {
+        int[][] parts = IntStream.range(0, chunkCount()).parallel().mapToObj(chunk -> {
+            int from = chunk * CHUNK;
+            int to = Math.min(rowCount, from + CHUNK);
+            int[] out = new int[to - from];
+            return Arrays.copyOf(out, filter.filter(from, to, out));
+        }).toArray(int[][]::new);
+        int total = 0;
+        for (int[] part : parts) {
+            total += part.length;
+        }
+        int[] rows = new int[total];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, rows, offset, part.length);
+            offset += part.length;
+        }
+        return gather(rows);
+    }
+
+    private ColumnTable gather(int[] rows) {
+        Column[] result = Arrays.stream(columns).parallel()
+                .map(c -> c.gather(c.name, rows))
+                .toArray(Column[]::new);
+        return new ColumnTable(result, rows.length);
+    }
+
+    /**
+     * 在 [from, to) 范围内筛选行，把满足条件的行号依次写入 out，返回个数。
+     */
+    @FunctionalInterface
+    private interface ChunkFilter {
+        int filter(int from, int to, int[] out);
+    }
+
+    /**
+     * 分组结果。组号按每组第一次出现的顺序分配，聚合结果中的组也按该顺序排列。
+     */
+    public final class GroupBy {
+        private final Column[] keys;
+        private final int[] groupIds;
+        private final int[] firstRows;
+        private final int groupCount;
+
+        private GroupBy(Column[] keys) {
+            this.keys = keys;
+            this.groupIds = new int[rowCount];
+            if (keys.length == 0) {
+                // 不分组时总是一组，空表的聚合结果也有一行
+                groupCount = 1;
+                firstRows = new int[]{0};
+                return;
+            }
+            // 逐列把 (已有组号, 本列的值编号) 映射为新的稠密组号
+            int count = 0;
+            int[] valueIds = new int[rowCount];
+            for (Column key : keys) {
+                long cardinality = valueIds(key, valueIds);
+                LongIntHashMap combined = new LongIntHashMap(1024);
+                for (int r = 0; r < rowCount; r++) {
+                    groupIds[r] = combined.getOrAssign(groupIds[r] * cardinality + valueIds[r]);
+                }
+                count = combined.size();
+            }
+            groupCount = count;
+            firstRows = new int[groupCount];
+            Arrays.fill(firstRows, -1);
+            for (int r = 0; r < rowCount; r++) {
+                if (firstRows[groupIds[r]] < 0) {
+                    firstRows[groupIds[r]] = r;
+                }
+            }
+        }
+
+        /**
+         * 获取组数。
+         * @return 组数
+         */
+        public int getGroupCount() {
+            return groupCount;
+        }
+
+        /**
+         * 对每组计算聚合函数。结果表依次包含分组列和各聚合函数的结果列，每组一行。
+         * @param aggregations 聚合函数
+         * @return 聚合结果
+         */
+        public ColumnTable aggregate(Aggregation... aggregations) {
+            Column[] sources = new Column[aggregations.length];
+            for (int i = 0; i < aggregations.length; i++) {
+                sources[i] = aggregations[i].column == null ? null : column(aggregations[i].column);
+            }
+            // 组数很多时每段的部分结果本身就很大，不再分段
+            int chunks = groupCount > CHUNK ? 1 : Math.min(chunkCount(), ForkJoinPool.getCommonPoolParallelism() * 2);
+            int rowsPerChunk = Math.max(1, (rowCount + Math.max(chunks, 1) - 1) / Math.max(chunks, 1));
+            Accumulator[] totals = IntStream.range(0, Math.max(chunks, 1)).parallel().mapToObj(chunk -> {
+                int from = Math.min(rowCount, chunk * rowsPerChunk);
+                int to = Math.min(rowCount, from + rowsPerChunk);
+                Accumulator[] partial = new Accumulator[aggregations.length];
+                for (int i = 0; i < partial.length; i++) {
+                    partial[i] = Accumulator.create(aggregations[i], sources[i], groupCount);
+                    partial[i].accumulate(groupIds, from, to);
+                }
+                return partial;
+            }).reduce((a, b) -> {
+                for (int i = 0; i < a.length; i++) {
+                    a[i].merge(b[i]);
+                }
+                return a;
+            }).orElseThrow();
+            Column[] result = new Column[keys.length + aggregations.length];
+            for (int i = 0; i < keys.length; i++) {
+                result[i] = keys[i].gather(keys[i].name, firstRows);
+            }
+            for (int i = 0; i < aggregations.length; i++) {
+                result[keys.length + i] = totals[i].result(aggregations[i].outputName());
+            }
+            return new ColumnTable(result, groupCount);
+        }
+
+        /**
+         * 为一列的每行分配值编号，返回编号的个数上限。null 的编号为 0。
+         */
+        private long valueIds(Column key, int[] ids) {
+            if (key instanceof StringColumn s) {
+                for (int r = 0; r < rowCount; r++) {
+                    ids[r] = s.codes[r] + 1;
+                }
+                return s.dictionary.length + 1L;
+            }
+            LongIntHashMap map = new LongIntHashMap(1024);
+            for (int r = 0; r < rowCount; r++) {
+                if (key.isNull(r)) {
+                    ids[r] = 0;
+                } else {
+                    long bits = key instanceof LongColumn l ? l.values[r] : Double.doubleToLongBits(((DoubleColumn) key).values[r]);
+                    ids[r] = map.getOrAssign(bits) + 1;
+                }
+            }
+            return map.size() + 1L;
+        }
+    }
+
+    /**
+     * 读取时逐行追加一列的值，必要时提升列的类型。
+     * <p>自动推断的列在读完之前同时保存每个值的原文（按字典编码），提升为字符串时直接使用原文，
+     * 不会把已读入的数值重新格式化。
+     */
+    private static final class ColumnBuilder {
+        /**
+         * double 能精确表示的整数范围
+         */
+        private static final long MAX_EXACT_LONG = 1L << 53;
+
+        private final String name;
+        private final boolean fixed;
+        private ColumnType type;
+        private long[] longs;
+        private double[] doubles;
+        private int[] codes;
+        private StringDictionary dictionary;
+        private long[] nulls;
+        private int size;
+
+        ColumnBuilder(String name, ColumnType type) {
+            this.name = name;
+            this.fixed = type != null;
+            this.type = type == null ? ColumnType.LONG : type;
+            if (this.type == ColumnType.LONG) {
+                longs = new long[1024];
+            } else if (this.type == ColumnType.DOUBLE) {
+                doubles = new double[1024];
+            }
+            if (!fixed || this.type == ColumnType.STRING) {
+                codes = new int[1024];
+                dictionary = new StringDictionary();
+            }
+        }
+
+        void add(CharSequence value, long recordNumber) {
+            ensureCapacity();
+            if (codes != null) {
+                codes[size] = value == null || value.length() == 0 ? -1 : dictionary.code(value);
+            }
+            if (type == ColumnType.STRING) {
+                size++;
+                return;
+            }
+            if (value == null || value.length() == 0 || FastParsers.isBlank(value)) {
+                setNull();
+                size++;
+                return;
+            }
+            try {
+                if (type == ColumnType.LONG) {
+                    longs[size] = FastParsers.parseLong(value);
+                } else {
+                    double d = FastParsers.parseDouble(value);
+                    if (!fixed && !exact(d) && isLong(value)) {
+                        // 超出 double 精度的整数，按浮点数保存会丢失精度
+                        toStrings();
+                    } else {
+                        doubles[size] = d;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                if (fixed) {
+                    throw new IllegalArgumentException("Cannot parse column '" + name + "' of record "
+                            + recordNumber + " as " + type + ": " + value, e);
+                }
+                promote(value);
+            }
+            size++;
+        }
+
+        Column build() {
+            return switch (type) {
+                case LONG -> new LongColumn(name, longs, size, nulls);
+                case DOUBLE -> new DoubleColumn(name, doubles, size, nulls);
+                case STRING -> new StringColumn(name, codes, size, dictionary.toArray());
+            };
+        }
+
+        private void setNull() {
+            if (nulls == null) {
+                nulls = new long[(capacity() + 63) >>> 6];
+            }
+            nulls[size >>> 6] |= 1L << size;
+        }
+
+        private int capacity() {
+            return switch (type) {
+                case LONG -> longs.length;
+                case DOUBLE -> doubles.length;
+                case STRING -> codes.length;
+            };
+        }
+
+        private void ensureCapacity() {
+            if (size < capacity()) {
+                return;
+            }
+            int capacity = capacity() * 2;
+            if (longs != null) {
+                longs = Arrays.copyOf(longs, capacity);
+            }
+            if (doubles != null) {
+                doubles = Arrays.copyOf(doubles, capacity);
+            }
+            if (codes != null) {
+                codes = Arrays.copyOf(codes, capacity);
+            }
+            if (nulls != null) {
+                nulls = Arrays.copyOf(nulls, (capacity + 63) >>> 6);
+            }
+        }
+
+        /**
+         * 当前值无法按列类型解析时提升列的类型。整数列在已有的值都能被 double 精确表示时提升为浮点数，
+         * 否则与浮点数列一样提升为字符串。
+         */
+        private void promote(CharSequence value) {
+            if (type == ColumnType.LONG) {
+                double d;
+                try {
+                    d = FastParsers.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    toStrings();
+                    return;
+                }
+                for (int i = 0; i < size; i++) {
+                    if (longs[i] < -MAX_EXACT_LONG || longs[i] > MAX_EXACT_LONG) {
+                        toStrings();
+                        return;
+                    }
+                }
+                doubles = new double[longs.length];
+                for (int i = 0; i < size; i++) {
+                    doubles[i] = longs[i];
+                }
+                doubles[size] = d;
+                longs = null;
+                type = ColumnType.DOUBLE;
+                return;
+            }
+            toStrings();
+        }
+
+        /**
+         * 改为字符串列，使用保存的原文。
+         */
+        private void toStrings() {
+            longs = null;
+            doubles = null;
+            nulls = null;
+            type = ColumnType.STRING;
+        }
+
+        /**
+         * 超出范围的整数解析后可能恰好舍入到 2<sup>53</sup>，边界本身也视为不精确
+         */
+        private static boolean exact(double value) {
+            return value > -MAX_EXACT_LONG && value < MAX_EXACT_LONG;
+        }
+
+        private static boolean isLong(CharSequence value) {
+            try {
+                FastParsers.parseLong(value);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
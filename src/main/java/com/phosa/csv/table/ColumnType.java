@@ -0,0 +1,19 @@
+package com.phosa.csv.table;
+
+/**
+ * {@link ColumnTable} 中列的存储类型。
+ */
+public enum ColumnType {
+    /**
+     * 整数，以 long[] 存储
+     */
+    LONG,
+    /**
+     * 浮点数，以 double[] 存储
+     */
+    DOUBLE,
+    /**
+     * 字符串，以字典编码存储：每行一个 int 编号，相同的字符串只保存一份
+     */
+    STRING
+}
@@ -0,0 +1,53 @@
+package com.phosa.csv.table;
+
+/**
+ * 浮点数列。
+ */
+final class DoubleColumn extends Column {
+    final double[] values;
+    /**
+     * null 位图，没有 null 时为 null
+     */
+    final long[] nulls;
+
+    DoubleColumn(String name, double[] values, int size, long[] nulls) {
+        super(name, size);
+        this.values = values;
+        this.nulls = nulls;
+    }
+
+    @Override
+    ColumnType type() {
+        return ColumnType.DOUBLE;
+    }
+
+    @Override
+    boolean isNull(int row) {
+        return bit(nulls, row);
+    }
+
+    @Override
+    Column gather(String name, int[] rows) {
+        double[] result = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            result[i] = values[rows[i]];
+        }
+        return new DoubleColumn(name, result, rows.length, gatherBits(nulls, rows));
+    }
+
+    @Override
+    int compare(int a, int b) {
+        if (nulls != null) {
+            boolean na = bit(nulls, a);
+            if (na != bit(nulls, b)) {
+                return na ? 1 : -1;
+            }
+        }
+        return Double.compare(values[a], values[b]);
+    }
+
+    @Override
+    String format(int row) {
+        return isNull(row) ? null : Double.toString(values[row]);
+    }
+}
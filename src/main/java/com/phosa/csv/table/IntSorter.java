@@ -0,0 +1,118 @@
+package com.phosa.csv.table;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 行号数组的稳定并行归并排序，比较函数直接读取列中的基本类型数组，不需要装箱。
+ */
+final class IntSorter {
+    /**
+     * 小于该长度的区间直接插入排序
+     */
+    private static final int INSERTION_THRESHOLD = 32;
+    /**
+     * 小于该长度的区间不再拆分为并行任务
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private IntSorter() {
+
+    }
+
+    /**
+     * 比较两个行号。
+     */
+    @FunctionalInterface
+    interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * 返回 0 到 n - 1 按比较函数稳定排序后的结果。
+     */
+    static int[] sortedIndexes(int n, IntComparator comparator) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = i;
+        }
+        int[] work = new int[n];
+        if (n < PARALLEL_THRESHOLD) {
+            sort(a, work, 0, n, comparator);
+        } else {
+            ForkJoinPool.commonPool().invoke(new SortTask(a, work, 0, n, comparator));
+        }
+        return a;
+    }
+
+    private static void sort(int[] a, int[] work, int from, int to, IntComparator comparator) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, comparator);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(a, work, from, mid, comparator);
+        sort(a, work, mid, to, comparator);
+        merge(a, work, from, mid, to, comparator);
+    }
+
+    private static void insertionSort(int[] a, int from, int to, IntComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int value = a[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(a[j], value) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void merge(int[] a, int[] work, int from, int mid, int to, IntComparator comparator) {
+        if (comparator.compare(a[mid - 1], a[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(a, from, work, from, to - from);
+        int i = from;
+        int j = mid;
+        int k = from;
+        while (i < mid && j < to) {
+            a[k++] = comparator.compare(work[j], work[i]) < 0 ? work[j++] : work[i++];
+        }
+        while (i < mid) {
+            a[k++] = work[i++];
+        }
+        while (j < to) {
+            a[k++] = work[j++];
+        }
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int[] work;
+        private final int from;
+        private final int to;
+        private final IntComparator comparator;
+
+        SortTask(int[] a, int[] work, int from, int to, IntComparator comparator) {
+            this.a = a;
+            this.work = work;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < PARALLEL_THRESHOLD) {
+                sort(a, work, from, to, comparator);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(a, work, from, mid, comparator), new SortTask(a, work, mid, to, comparator));
+            merge(a, work, from, mid, to, comparator);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.phosa.csv.table;
+
+/**
+ * 整数列。
+ */
+final class LongColumn extends Column {
+    final long[] values;
+    /**
+     * null 位图，没有 null 时为 null
+     */
+    final long[] nulls;
+
+    LongColumn(String name, long[] values, int size, long[] nulls) {
+        super(name, size);
+        this.values = values;
+        this.nulls = nulls;
+    }
+
+    @Override
+    ColumnType type() {
+        return ColumnType.LONG;
+    }
+
+    @Override
+    boolean isNull(int row) {
+        return bit(nulls, row);
+    }
+
+    @Override
+    Column gather(String name, int[] rows) {
+        long[] result = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            result[i] = values[rows[i]];
+        }
+        return new LongColumn(name, result, rows.length, gatherBits(nulls, rows));
+    }
+
+    @Override
+    int compare(int a, int b) {
+        if (nulls != null) {
+            boolean na = bit(nulls, a);
+            if (na != bit(nulls, b)) {
+                return na ? 1 : -1;
+            }
+        }
+        return Long.compare(values[a], values[b]);
+    }
+
+    @Override
+    String format(int row) {
+        return isNull(row) ? null : Long.toString(values[row]);
+    }
+}
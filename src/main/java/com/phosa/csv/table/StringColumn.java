@@ -0,0 +1,78 @@
+package com.phosa.csv.table;
+
+import java.util.Arrays;
+
+/**
+ * 字典编码的字符串列，编号 -1 表示 null。
+ */
+final class StringColumn extends Column {
+    final int[] codes;
+    final String[] dictionary;
+    /**
+     * 字典中每个编号按字符串顺序的名次，第一次排序时计算
+     */
+    private volatile int[] ranks;
+
+    StringColumn(String name, int[] codes, int size, String[] dictionary) {
+        super(name, size);
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    ColumnType type() {
+        return ColumnType.STRING;
+    }
+
+    @Override
+    boolean isNull(int row) {
+        return codes[row] < 0;
+    }
+
+    @Override
+    Column gather(String name, int[] rows) {
+        int[] result = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            result[i] = codes[rows[i]];
+        }
+        // 共享字典，未被引用的条目只会占用少量内存
+        return new StringColumn(name, result, rows.length, dictionary);
+    }
+
+    @Override
+    int compare(int a, int b) {
+        int ca = codes[a];
+        int cb = codes[b];
+        if (ca < 0 || cb < 0) {
+            return ca < 0 ? (cb < 0 ? 0 : 1) : -1;
+        }
+        int[] r = ranks();
+        return Integer.compare(r[ca], r[cb]);
+    }
+
+    @Override
+    String format(int row) {
+        int code = codes[row];
+        return code < 0 ? null : dictionary[code];
+    }
+
+    /**
+     * 对字典排序一次得到名次，之后每次比较只需比较两个 int。
+     */
+    int[] ranks() {
+        int[] r = ranks;
+        if (r == null) {
+            Integer[] order = new Integer[dictionary.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (x, y) -> dictionary[x].compareTo(dictionary[y]));
+            r = new int[dictionary.length];
+            for (int i = 0; i < order.length; i++) {
+                r[order[i]] = i;
+            }
+            ranks = r;
+        }
+        return r;
+    }
+}
@@ -0,0 +1,92 @@
+package com.phosa.csv.table;
+
+import java.util.Arrays;
+
+/**
+ * 构建字典编码时使用的字符串字典。
+ * <p>查找直接比较 {@link CharSequence} 的内容，已有的字符串不会再创建 String，只有新出现的字符串才会被复制一次。
+ */
+final class StringDictionary {
+    private String[] values = new String[16];
+    private int[] hashes = new int[16];
+    /**
+     * 开放寻址表，保存编号加一，0 表示空槽
+     */
+    private int[] table = new int[32];
+    private int size;
+
+    /**
+     * 获取字符串的编号，不存在时加入字典。
+     */
+    int code(CharSequence s) {
+        int hash = hash(s);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) {
+                break;
+            }
+            int code = entry - 1;
+            if (hashes[code] == hash && contentEquals(values[code], s)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int code = size++;
+        values[code] = s.toString();
+        hashes[code] = hash;
+        table[slot] = code + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        int mask = newTable.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = code + 1;
+        }
+        table = newTable;
+    }
+
+    private static int hash(CharSequence s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        // 打散低位，线性探测只使用低位
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean contentEquals(String value, CharSequence s) {
+        int length = value.length();
+        if (length != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,13 +1,21 @@
 package com.phosa.encryption;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.security.SecureRandom;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
 import java.util.Base64;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * 使用Java实现AES-GCM加密和解密的工具类。
@@ -16,8 +24,9 @@ import java.util.Base64;
 public class AESGCMUtil extends EncryptionUtil {
     private static final String ALGORITHM = "AES";
     private static final String TRANSFORMATION = "AES/GCM/NoPadding";
-    private static final int GCM_IV_LENGTH = 12; // GCM推荐的IV长度为12字节
+    private static final int GCM_IV_LENGTH = NonceGenerator.NONCE_LENGTH; // GCM推荐的IV长度为12字节
     private static final int GCM_TAG_LENGTH = 128; // GCM认证标签长度，单位为位
+    private static final CipherContext CONTEXT = CipherContext.of(TRANSFORMATION);
 
     private AESGCMUtil() {
 
@@ -31,29 +40,27 @@ public class AESGCMUtil extends EncryptionUtil {
      * @return Base64编码的密文字符串
      */
     public static String encrypt(String plaintext, String key) {
+        SecretKey secretKey;
         try {
-            // 生成随机的12字节初始化向量（IV）
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            SecureRandom random = new SecureRandom();
-            random.nextBytes(iv);
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-
-            // 准备密钥
-            SecretKeySpec keySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
-
-            // 初始化AES加密器
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, gcmSpec);
-
-            // 加密明文
-            byte[] encryptedBytes = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
-
-            // 拼接IV和密文并进行Base64编码
-            byte[] encryptedMessage = new byte[iv.length + encryptedBytes.length];
-            System.arraycopy(iv, 0, encryptedMessage, 0, iv.length);
-            System.arraycopy(encryptedBytes, 0, encryptedMessage, iv.length, encryptedBytes.length);
+            secretKey = CipherContext.key(key, ALGORITHM);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+        return encrypt(plaintext, secretKey);
+    }
 
-            return Base64.getEncoder().encodeToString(encryptedMessage);
+    /**
+     * 使用AES-GCM和指定的密钥加密明文，例如 {@link KeyDerivation} 派生的密钥。
+     *
+     * @param plaintext 明文字符串
+     * @param key       AES密钥
+     * @return Base64编码的密文字符串
+     */
+    public static String encrypt(String plaintext, SecretKey key) {
+        try {
+            // IV和密文直接写入同一个数组，再进行Base64编码
+            return Base64.getEncoder().encodeToString(encrypt(plaintext.getBytes(StandardCharsets.UTF_8), key));
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -68,31 +75,525 @@ public class AESGCMUtil extends EncryptionUtil {
      * @return 解密后的明文字符串
      */
     public static String decrypt(String ciphertext, String key) {
+        SecretKey secretKey;
         try {
-            // 解码Base64编码的密文
-            byte[] encryptedMessage = Base64.getDecoder().decode(ciphertext);
+            secretKey = CipherContext.key(key, ALGORITHM);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+        return decrypt(ciphertext, secretKey);
+    }
 
-            // 提取IV和密文
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            byte[] encryptedBytes = new byte[encryptedMessage.length - GCM_IV_LENGTH];
-            System.arraycopy(encryptedMessage, 0, iv, 0, GCM_IV_LENGTH);
-            System.arraycopy(encryptedMessage, GCM_IV_LENGTH, encryptedBytes, 0, encryptedBytes.length);
+    /**
+     * 使用AES-GCM和指定的密钥解密密文。
+     *
+     * @param ciphertext Base64编码的密文字符串
+     * @param key        AES密钥
+     * @return 解密后的明文字符串
+     */
+    public static String decrypt(String ciphertext, SecretKey key) {
+        try {
+            // 解码Base64编码的密文，直接从中读取IV和密文
+            return new String(decrypt(Base64.getDecoder().decode(ciphertext), key), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
 
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            SecretKeySpec keySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    /**
+     * 计算 {@link #encrypt(byte[], String)} 输出的长度：12字节IV、密文和16字节认证标签。
+     *
+     * @param plaintextLength 明文长度
+     * @return 输出长度
+     */
+    public static int getEncryptedLength(int plaintextLength) {
+        return GCM_IV_LENGTH + plaintextLength + GCM_TAG_LENGTH / 8;
+    }
 
-            // 初始化AES解密器
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, gcmSpec);
+    /**
+     * 计算解密输出的长度。
+     *
+     * @param ciphertextLength IV、密文和认证标签的总长度
+     * @return 明文长度
+     */
+    public static int getMaxDecryptedLength(int ciphertextLength) {
+        return Math.max(0, ciphertextLength - GCM_IV_LENGTH - GCM_TAG_LENGTH / 8);
+    }
 
-            // 解密密文
-            byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
+    /**
+     * 使用AES-GCM加密字节数组，不经过String和Base64。
+     *
+     * @param plaintext 明文
+     * @param key       加密密钥（长度应为128、192或256位）
+     * @return IV、密文和认证标签
+     * @throws GeneralSecurityException 密钥无效
+     */
+    public static byte[] encrypt(byte[] plaintext, String key) throws GeneralSecurityException {
+        return encrypt(plaintext, CipherContext.key(key, ALGORITHM));
+    }
 
-            return new String(decryptedBytes, StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * 使用AES-GCM和指定的密钥加密字节数组。
+     *
+     * @param plaintext 明文
+     * @param key       AES密钥
+     * @return IV、密文和认证标签
+     * @throws GeneralSecurityException 密钥无效
+     */
+    public static byte[] encrypt(byte[] plaintext, SecretKey key) throws GeneralSecurityException {
+        byte[] output = new byte[getEncryptedLength(plaintext.length)];
+        encrypt(plaintext, 0, plaintext.length, output, 0, key);
+        return output;
+    }
+
+    /**
+     * 解密 {@link #encrypt(byte[], String)} 的输出。
+     *
+     * @param ciphertext IV、密文和认证标签
+     * @param key        解密密钥
+     * @return 明文
+     * @throws GeneralSecurityException 密钥无效、密文被截断或认证失败
+     */
+    public static byte[] decrypt(byte[] ciphertext, String key) throws GeneralSecurityException {
+        return decrypt(ciphertext, CipherContext.key(key, ALGORITHM));
+    }
+
+    /**
+     * 使用AES-GCM和指定的密钥解密字节数组。
+     *
+     * @param ciphertext IV、密文和认证标签
+     * @param key        AES密钥
+     * @return 明文
+     * @throws GeneralSecurityException 密钥无效、密文被截断或认证失败
+     */
+    public static byte[] decrypt(byte[] ciphertext, SecretKey key) throws GeneralSecurityException {
+        byte[] output = new byte[getMaxDecryptedLength(ciphertext.length)];
+        decrypt(ciphertext, 0, ciphertext.length, output, 0, key);
+        return output;
+    }
+
+    /**
+     * 使用AES-GCM加密，IV、密文和认证标签写入调用方提供的数组，除JCA参数对象外不分配内存。
+     * <pre>{@code
+     *     byte[] output = new byte[AESGCMUtil.getEncryptedLength(maxFieldLength)];
+     *     int length = AESGCMUtil.encrypt(field, 0, field.length, output, 0, key);
+     * }</pre>
+     *
+     * @param input        明文所在数组
+     * @param offset       明文起始位置
+     * @param length       明文长度
+     * @param output       输出数组，剩余空间不小于 {@link #getEncryptedLength(int)}
+     * @param outputOffset 输出起始位置
+     * @param key          加密密钥（长度应为128、192或256位）
+     * @return 写入的字节数
+     * @throws GeneralSecurityException 密钥无效或输出空间不足
+     */
+    public static int encrypt(byte[] input, int offset, int length, byte[] output, int outputOffset, String key)
+            throws GeneralSecurityException {
+        return encrypt(input, offset, length, output, outputOffset, CipherContext.key(key, ALGORITHM));
+    }
+
+    /**
+     * 使用AES-GCM和指定的密钥加密，IV、密文和认证标签写入调用方提供的数组。
+     *
+     * @param input        明文所在数组
+     * @param offset       明文起始位置
+     * @param length       明文长度
+     * @param output       输出数组，剩余空间不小于 {@link #getEncryptedLength(int)}
+     * @param outputOffset 输出起始位置
+     * @param key          AES密钥
+     * @return 写入的字节数
+     * @throws GeneralSecurityException 密钥无效或输出空间不足
+     */
+    public static int encrypt(byte[] input, int offset, int length, byte[] output, int outputOffset, SecretKey key)
+            throws GeneralSecurityException {
+        int required = getEncryptedLength(length);
+        if (output.length - outputOffset < required) {
+            throw new ShortBufferException("Output buffer too short: need " + required + " bytes");
         }
-        return null;
+        byte[] iv = NonceGenerator.next();
+        Cipher cipher = CONTEXT.cipher();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+        System.arraycopy(iv, 0, output, outputOffset, GCM_IV_LENGTH);
+        return GCM_IV_LENGTH + cipher.doFinal(input, offset, length, output, outputOffset + GCM_IV_LENGTH);
+    }
+
+    /**
+     * 解密IV、密文和认证标签，明文写入调用方提供的数组。认证失败时输出数组的内容未定义。
+     *
+     * @param input        密文所在数组
+     * @param offset       密文起始位置
+     * @param length       IV、密文和认证标签的总长度
+     * @param output       输出数组，剩余空间不小于 {@link #getMaxDecryptedLength(int)}
+     * @param outputOffset 输出起始位置
+     * @param key          解密密钥
+     * @return 明文长度
+     * @throws GeneralSecurityException 密钥无效、密文被截断、认证失败或输出空间不足
+     */
+    public static int decrypt(byte[] input, int offset, int length, byte[] output, int outputOffset, String key)
+            throws GeneralSecurityException {
+        return decrypt(input, offset, length, output, outputOffset, CipherContext.key(key, ALGORITHM));
+    }
+
+    /**
+     * 使用AES-GCM和指定的密钥解密，明文写入调用方提供的数组。
+     *
+     * @param input        密文所在数组
+     * @param offset       密文起始位置
+     * @param length       IV、密文和认证标签的总长度
+     * @param output       输出数组，剩余空间不小于 {@link #getMaxDecryptedLength(int)}
+     * @param outputOffset 输出起始位置
+     * @param key          AES密钥
+     * @return 明文长度
+     * @throws GeneralSecurityException 密钥无效、密文被截断、认证失败或输出空间不足
+     */
+    public static int decrypt(byte[] input, int offset, int length, byte[] output, int outputOffset, SecretKey key)
+            throws GeneralSecurityException {
+        if (length < GCM_IV_LENGTH + GCM_TAG_LENGTH / 8) {
+            throw new AEADBadTagException("Ciphertext too short: " + length);
+        }
+        Cipher cipher = CONTEXT.cipher();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, input, offset, GCM_IV_LENGTH));
+        return cipher.doFinal(input, offset + GCM_IV_LENGTH, length - GCM_IV_LENGTH, output, outputOffset);
+    }
+
+    /**
+     * 使用AES-GCM加密缓冲区中剩余的明文，IV、密文和认证标签写入输出缓冲区，支持直接缓冲区。
+     * <p>成功后明文缓冲区的position移到limit，输出缓冲区的position前移写入的字节数。
+     *
+     * @param plaintext 明文
+     * @param output    输出缓冲区，剩余空间不小于 {@link #getEncryptedLength(int)}
+     * @param key       加密密钥（长度应为128、192或256位）
+     * @return 写入的字节数
+     * @throws GeneralSecurityException 密钥无效或输出空间不足
+     */
+    public static int encrypt(ByteBuffer plaintext, ByteBuffer output, String key) throws GeneralSecurityException {
+        return encrypt(plaintext, output, CipherContext.key(key, ALGORITHM));
+    }
+
+    /**
+     * 使用AES-GCM和指定的密钥加密缓冲区中剩余的明文，IV、密文和认证标签写入输出缓冲区。
+     *
+     * @param plaintext 明文
+     * @param output    输出缓冲区，剩余空间不小于 {@link #getEncryptedLength(int)}
+     * @param key       AES密钥
+     * @return 写入的字节数
+     * @throws GeneralSecurityException 密钥无效或输出空间不足
+     */
+    public static int encrypt(ByteBuffer plaintext, ByteBuffer output, SecretKey key) throws GeneralSecurityException {
+        int required = getEncryptedLength(plaintext.remaining());
+        if (output.remaining() < required) {
+            throw new ShortBufferException("Output buffer too short: need " + required + " bytes");
+        }
+        byte[] iv = NonceGenerator.next();
+        Cipher cipher = CONTEXT.cipher();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+        output.put(iv);
+        return GCM_IV_LENGTH + cipher.doFinal(plaintext, output);
+    }
+
+    /**
+     * 解密缓冲区中剩余的IV、密文和认证标签，明文写入输出缓冲区，支持直接缓冲区。
+     *
+     * @param ciphertext IV、密文和认证标签
+     * @param output     输出缓冲区，剩余空间不小于 {@link #getMaxDecryptedLength(int)}
+     * @param key        解密密钥
+     * @return 明文长度
+     * @throws GeneralSecurityException 密钥无效、密文被截断、认证失败或输出空间不足
+     */
+    public static int decrypt(ByteBuffer ciphertext, ByteBuffer output, String key) throws GeneralSecurityException {
+        return decrypt(ciphertext, output, CipherContext.key(key, ALGORITHM));
+    }
+
+    /**
+     * 使用AES-GCM和指定的密钥解密缓冲区中剩余的IV、密文和认证标签，明文写入输出缓冲区。
+     *
+     * @param ciphertext IV、密文和认证标签
+     * @param output     输出缓冲区，剩余空间不小于 {@link #getMaxDecryptedLength(int)}
+     * @param key        AES密钥
+     * @return 明文长度
+     * @throws GeneralSecurityException 密钥无效、密文被截断、认证失败或输出空间不足
+     */
+    public static int decrypt(ByteBuffer ciphertext, ByteBuffer output, SecretKey key) throws GeneralSecurityException {
+        if (ciphertext.remaining() < GCM_IV_LENGTH + GCM_TAG_LENGTH / 8) {
+            throw new AEADBadTagException("Ciphertext too short: " + ciphertext.remaining());
+        }
+        byte[] iv = CipherContext.ivBuffer(GCM_IV_LENGTH);
+        ciphertext.get(iv);
+        Cipher cipher = CONTEXT.cipher();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+        return cipher.doFinal(ciphertext, output);
+    }
+
+    /**
+     * 并行加密一批字符串，结果与逐个调用 {@link #encrypt(String, String)} 相同，顺序与输入一致。
+     * <p>适合对整列敏感字段加密。每个工作线程复用自己的 Cipher，nonce 由线程内的计数器生成，线程之间没有共享的锁，
+     * 吞吐量随CPU核数近似线性增长。使用公共 {@link java.util.concurrent.ForkJoinPool}。
+     * <pre>{@code
+     *     String[] encrypted = AESGCMUtil.encryptAll(phoneNumbers, key);
+     * }</pre>
+     *
+     * @param plaintexts 明文，null 元素原样保留为 null
+     * @param key        加密密钥（长度应为128、192或256位）
+     * @return Base64编码的密文
+     * @throws IllegalArgumentException 密钥无效
+     */
+    public static String[] encryptAll(String[] plaintexts, String key) {
+        SecretKey secretKey = CipherContext.key(key, ALGORITHM);
+        String[] result = new String[plaintexts.length];
+        IntStream.range(0, plaintexts.length).parallel().forEach(i -> {
+            if (plaintexts[i] != null) {
+                result[i] = Base64.getEncoder().encodeToString(encryptValue(plaintexts[i].getBytes(StandardCharsets.UTF_8), secretKey, i));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 并行解密一批 {@link #encrypt(String, String)} 的输出，顺序与输入一致。
+     *
+     * @param ciphertexts Base64编码的密文，null 元素原样保留为 null
+     * @param key         解密密钥
+     * @return 明文
+     * @throws IllegalArgumentException 密钥无效，或某个密文无法解码、认证失败，异常信息中包含其下标
+     */
+    public static String[] decryptAll(String[] ciphertexts, String key) {
+        SecretKey secretKey = CipherContext.key(key, ALGORITHM);
+        String[] result = new String[ciphertexts.length];
+        IntStream.range(0, ciphertexts.length).parallel().forEach(i -> {
+            if (ciphertexts[i] != null) {
+                byte[] ciphertext;
+                try {
+                    ciphertext = Base64.getDecoder().decode(ciphertexts[i]);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Cannot decode value at index " + i, e);
+                }
+                result[i] = new String(decryptValue(ciphertext, secretKey, i), StandardCharsets.UTF_8);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 并行加密一批字节数组，结果与逐个调用 {@link #encrypt(byte[], String)} 相同，顺序与输入一致。
+     *
+     * @param plaintexts 明文，null 元素原样保留为 null
+     * @param key        加密密钥（长度应为128、192或256位）
+     * @return IV、密文和认证标签
+     * @throws IllegalArgumentException 密钥无效
+     */
+    public static byte[][] encryptAll(byte[][] plaintexts, String key) {
+        SecretKey secretKey = CipherContext.key(key, ALGORITHM);
+        byte[][] result = new byte[plaintexts.length][];
+        IntStream.range(0, plaintexts.length).parallel().forEach(i -> {
+            if (plaintexts[i] != null) {
+                result[i] = encryptValue(plaintexts[i], secretKey, i);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 并行解密一批 {@link #encrypt(byte[], String)} 的输出，顺序与输入一致。
+     *
+     * @param ciphertexts IV、密文和认证标签，null 元素原样保留为 null
+     * @param key         解密密钥
+     * @return 明文
+     * @throws IllegalArgumentException 密钥无效，或某个密文认证失败，异常信息中包含其下标
+     */
+    public static byte[][] decryptAll(byte[][] ciphertexts, String key) {
+        SecretKey secretKey = CipherContext.key(key, ALGORITHM);
+        byte[][] result = new byte[ciphertexts.length][];
+        IntStream.range(0, ciphertexts.length).parallel().forEach(i -> {
+            if (ciphertexts[i] != null) {
+                result[i] = decryptValue(ciphertexts[i], secretKey, i);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 并行加密字符串流，返回的流为并行流，有序的输入流保持原有顺序。
+     * <pre>{@code
+     *     try (Stream<String> lines = Files.lines(input); PrintWriter out = new PrintWriter(Files.newBufferedWriter(output))) {
+     *         AESGCMUtil.encryptAll(lines, key).forEachOrdered(out::println);
+     *     }
+     * }</pre>
+     *
+     * @param plaintexts 明文流，null 元素原样保留为 null
+     * @param key        加密密钥（长度应为128、192或256位）
+     * @return Base64编码的密文流
+     * @throws IllegalArgumentException 密钥无效
+     */
+    public static Stream<String> encryptAll(Stream<String> plaintexts, String key) {
+        SecretKey secretKey = CipherContext.key(key, ALGORITHM);
+        return plaintexts.parallel().map(plaintext -> plaintext == null ? null
+                : Base64.getEncoder().encodeToString(encryptValue(plaintext.getBytes(StandardCharsets.UTF_8), secretKey, -1)));
+    }
+
+    /**
+     * 并行解密字符串流，返回的流为并行流，有序的输入流保持原有顺序。
+     *
+     * @param ciphertexts Base64编码的密文流，null 元素原样保留为 null
+     * @param key         解密密钥
+     * @return 明文流
+     * @throws IllegalArgumentException 密钥无效，或某个密文无法解码、认证失败
+     */
+    public static Stream<String> decryptAll(Stream<String> ciphertexts, String key) {
+        SecretKey secretKey = CipherContext.key(key, ALGORITHM);
+        return ciphertexts.parallel().map(ciphertext -> ciphertext == null ? null
+                : new String(decryptValue(Base64.getDecoder().decode(ciphertext), secretKey, -1), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 批量加密中的单个值，index 只用于错误信息，流中的元素传 -1。
+     */
+    private static byte[] encryptValue(byte[] plaintext, SecretKey key, int index) {
+        try {
+            byte[] output = new byte[getEncryptedLength(plaintext.length)];
+            encrypt(plaintext, 0, plaintext.length, output, 0, key);
+            return output;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(index < 0 ? "Cannot encrypt value" : "Cannot encrypt value at index " + index, e);
+        }
+    }
+
+    private static byte[] decryptValue(byte[] ciphertext, SecretKey key, int index) {
+        try {
+            byte[] output = new byte[getMaxDecryptedLength(ciphertext.length)];
+            decrypt(ciphertext, 0, ciphertext.length, output, 0, key);
+            return output;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(index < 0 ? "Cannot decrypt value" : "Cannot decrypt value at index " + index, e);
+        }
+    }
+
+    /**
+     * 使用AES-GCM流式加密，内存占用与数据大小无关。
+     * <p>数据按 64KB 分块加密，每块单独认证，解密时也可以流式进行。输出格式见 {@link #encrypt(InputStream, OutputStream, String, int)}。
+     * 不会关闭输入输出流。
+     * <pre>{@code
+     *     try (InputStream in = Files.newInputStream(backup); OutputStream out = Files.newOutputStream(encrypted)) {
+     *         AESGCMUtil.encrypt(in, out, key);
+     *     }
+     * }</pre>
+     *
+     * @param in  明文输入流
+     * @param out 密文输出流
+     * @param key 加密密钥（长度应为128、192或256位）
+     * @throws IOException 读写失败
+     */
+    public static void encrypt(InputStream in, OutputStream out, String key) throws IOException {
+        encrypt(in, out, key, CipherStreams.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 使用AES-GCM流式加密，指定分块大小。
+     * <p>输出以文件头（版本、块大小和随机 nonce 前缀）开头，之后是各块的密文和认证标签。
+     * 块序号和是否为最后一块都参与认证，调换、删除或截断块都会在解密时被发现。
+     * 块越大认证标签的开销越小，但解密时需要的缓冲区也越大。
+     *
+     * @param in        明文输入流
+     * @param out       密文输出流
+     * @param key       加密密钥（长度应为128、192或256位）
+     * @param chunkSize 分块大小，单位为字节，不超过16MB
+     * @throws IOException 读写失败
+     */
+    public static void encrypt(InputStream in, OutputStream out, String key, int chunkSize) throws IOException {
+        CipherStreams.transform(in, out, (source, target, direct) ->
+                CipherStreams.encryptGcm(source, target, CipherContext.key(key, ALGORITHM), chunkSize, direct));
+    }
+
+    /**
+     * 流式解密 {@link #encrypt(InputStream, OutputStream, String)} 的输出。
+     * <p>每块通过认证后才写入输出流；认证失败时抛出异常，此前写出的块都是完整且通过认证的。
+     * 不会关闭输入输出流。
+     *
+     * @param in  密文输入流
+     * @param out 明文输出流
+     * @param key 解密密钥
+     * @throws IOException 读写失败，或密文被截断、篡改，或密钥错误
+     */
+    public static void decrypt(InputStream in, OutputStream out, String key) throws IOException {
+        decrypt(in, out, CipherContext.key(key, ALGORITHM));
+    }
+
+    /**
+     * 使用指定的密钥流式加密，格式同 {@link #encrypt(InputStream, OutputStream, String, int)}。不会关闭输入输出流。
+     *
+     * @param in  明文输入流
+     * @param out 密文输出流
+     * @param key AES密钥
+     * @throws IOException 读写失败
+     */
+    public static void encrypt(InputStream in, OutputStream out, SecretKey key) throws IOException {
+        CipherStreams.transform(in, out, (source, target, direct) ->
+                CipherStreams.encryptGcm(source, target, key, CipherStreams.DEFAULT_CHUNK_SIZE, direct));
+    }
+
+    /**
+     * 使用指定的密钥流式解密。不会关闭输入输出流。
+     *
+     * @param in  密文输入流
+     * @param out 明文输出流
+     * @param key AES密钥
+     * @throws IOException 读写失败，或密文被截断、篡改，或密钥错误
+     */
+    public static void decrypt(InputStream in, OutputStream out, SecretKey key) throws IOException {
+        CipherStreams.transform(in, out, (source, target, direct) -> CipherStreams.decryptGcm(source, target, key, direct));
+    }
+
+    /**
+     * 使用AES-GCM加密文件，读写使用直接缓冲区。
+     * <p>结果先写入目标目录下的临时文件，成功后再替换目标文件。
+     *
+     * @param source 明文文件
+     * @param target 密文文件
+     * @param key    加密密钥（长度应为128、192或256位）
+     * @throws IOException 读写失败
+     */
+    public static void encrypt(Path source, Path target, String key) throws IOException {
+        encrypt(source, target, CipherContext.key(key, ALGORITHM));
+    }
+
+    /**
+     * 使用指定的密钥加密文件。
+     *
+     * @param source 明文文件
+     * @param target 密文文件
+     * @param key    AES密钥
+     * @throws IOException 读写失败
+     */
+    public static void encrypt(Path source, Path target, SecretKey key) throws IOException {
+        CipherStreams.transform(source, target, (in, out, direct) ->
+                CipherStreams.encryptGcm(in, out, key, CipherStreams.DEFAULT_CHUNK_SIZE, direct));
+    }
+
+    /**
+     * 解密 {@link #encrypt(Path, Path, String)} 加密的文件。
+     * <p>结果先写入目标目录下的临时文件，全部块通过认证后才替换目标文件，认证失败时不会留下任何明文。
+     *
+     * @param source 密文文件
+     * @param target 明文文件
+     * @param key    解密密钥
+     * @throws IOException 读写失败，或密文被截断、篡改，或密钥错误
+     */
+    public static void decrypt(Path source, Path target, String key) throws IOException {
+        decrypt(source, target, CipherContext.key(key, ALGORITHM));
+    }
+
+    /**
+     * 使用指定的密钥解密文件，全部块通过认证后才替换目标文件。
+     *
+     * @param source 密文文件
+     * @param target 明文文件
+     * @param key    AES密钥
+     * @throws IOException 读写失败，或密文被截断、篡改，或密钥错误
+     */
+    public static void decrypt(Path source, Path target, SecretKey key) throws IOException {
+        CipherStreams.transform(source, target, (in, out, direct) -> CipherStreams.decryptGcm(in, out, key, direct));
     }
 
     /**
@@ -0,0 +1,201 @@
+package com.phosa.encryption;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 transformation 复用 {@link Cipher} 实例的加解密上下文。
+ * <p>{@link Cipher#getInstance(String)} 每次都要查找 Provider 并创建实例，对短字段逐条加密时开销明显。
+ * 上下文为每个线程保存一个 Cipher，同一线程的后续调用只需重新 init；
+ * 由字符串派生的 {@link SecretKeySpec} 也按算法和密钥缓存，相同密钥重复 init 时 JDK 可以跳过密钥扩展。
+ * 密钥缓存最多保存 1024 个密钥，30 分钟未使用的密钥会被移除，密钥不会无限期地留在内存中。
+ * <p>上下文可以在多个线程间共享，但 {@link #cipher()} 返回的实例只能在当前线程中使用，不要跨线程传递或长期持有。
+ * <pre>{@code
+ *     CipherContext context = CipherContext.of("AES/CBC/PKCS5Padding");
+ *     Cipher cipher = context.cipher();
+ *     cipher.init(Cipher.ENCRYPT_MODE, CipherContext.key(key, "AES"), iv);
+ *     byte[] encrypted = cipher.doFinal(data);
+ * }</pre>
+ */
+public final class CipherContext {
+    /**
+     * 密钥缓存的最大条目数，清除过期密钥后仍然超出时清空重建，避免大量一次性密钥常驻内存
+     */
+    private static final int MAX_CACHED_KEYS = 1024;
+
+    /**
+     * 密钥的过期时间，从最后一次使用开始计算
+     */
+    private static final long KEY_TTL_NANOS = TimeUnit.MINUTES.toNanos(30);
+
+    /**
+     * 命中时最多每秒更新一次最后使用时间，避免多个线程反复写同一个字段
+     */
+    private static final long TOUCH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 清除过期密钥的间隔，清除在 {@link #key(String, String)} 中顺带进行
+     */
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final Map<String, CipherContext> contexts = new ConcurrentHashMap<>();
+
+    private static final Map<KeyId, CachedKey> keys = new ConcurrentHashMap<>();
+
+    private static volatile long nextSweep = System.nanoTime() + SWEEP_INTERVAL_NANOS;
+
+    /**
+     * 每个线程独立的随机数生成器，避免多个线程争用同一个 SecureRandom
+     */
+    private static final ThreadLocal<SecureRandom> randoms = ThreadLocal.withInitial(CipherContext::newRandom);
+
+    /**
+     * 每个线程复用的 IV 缓冲区
+     */
+    private static final ThreadLocal<byte[]> ivs = new ThreadLocal<>();
+
+    private final String transformation;
+
+    private final ThreadLocal<Cipher> ciphers = new ThreadLocal<>();
+
+    private CipherContext(String transformation) {
+        this.transformation = transformation;
+    }
+
+    /**
+     * 获取 transformation 对应的上下文，相同的 transformation 总是返回同一个实例。
+     * @param transformation 例如 {@code AES/GCM/NoPadding}
+     * @return 上下文
+     */
+    public static CipherContext of(String transformation) {
+        return contexts.computeIfAbsent(transformation, CipherContext::new);
+    }
+
+    /**
+     * 获取 transformation
+     * @return transformation
+     */
+    public String getTransformation() {
+        return transformation;
+    }
+
+    /**
+     * 获取当前线程的 Cipher，首次调用时创建。使用前需要重新 init。
+     * @return 当前线程的 Cipher
+     * @throws GeneralSecurityException transformation 不受支持
+     */
+    public Cipher cipher() throws GeneralSecurityException {
+        Cipher cipher = ciphers.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(transformation);
+            ciphers.set(cipher);
+        }
+        return cipher;
+    }
+
+    /**
+     * 获取由字符串密钥的 UTF-8 字节构造的密钥，结果按算法和密钥缓存，30 分钟未使用后过期。
+     * @param key 密钥字符串
+     * @param algorithm 算法，例如 {@code AES}
+     * @return 密钥
+     */
+    public static SecretKeySpec key(String key, String algorithm) {
+        long now = System.nanoTime();
+        if (now - nextSweep > 0) {
+            sweep(now);
+        }
+        KeyId id = new KeyId(algorithm, key);
+        CachedKey cached = keys.get(id);
+        if (cached != null) {
+            if (now - cached.lastUsed > TOUCH_INTERVAL_NANOS) {
+                cached.lastUsed = now;
+            }
+            return cached.spec;
+        }
+        if (keys.size() >= MAX_CACHED_KEYS) {
+            sweep(now);
+            if (keys.size() >= MAX_CACHED_KEYS) {
+                keys.clear();
+            }
+        }
+        SecretKeySpec spec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), algorithm);
+        keys.put(id, new CachedKey(spec, now));
+        return spec;
+    }
+
+    /**
+     * 移除过期的密钥。多个线程同时清除时结果相同。
+     */
+    private static void sweep(long now) {
+        nextSweep = now + SWEEP_INTERVAL_NANOS;
+        keys.values().removeIf(entry -> now - entry.lastUsed > KEY_TTL_NANOS);
+    }
+
+    /**
+     * 获取当前线程复用的 IV 缓冲区，内容在同一线程下一次调用时被覆盖。
+     * @param length IV 长度
+     * @return IV 缓冲区
+     */
+    static byte[] ivBuffer(int length) {
+        byte[] iv = ivs.get();
+        if (iv == null || iv.length != length) {
+            iv = new byte[length];
+            ivs.set(iv);
+        }
+        return iv;
+    }
+
+    /**
+     * 生成随机 IV，写入当前线程复用的缓冲区。
+     * @param length IV 长度
+     * @return IV 缓冲区，内容在同一线程下一次调用时被覆盖
+     */
+    static byte[] randomIv(int length) {
+        byte[] iv = ivBuffer(length);
+        randoms.get().nextBytes(iv);
+        return iv;
+    }
+
+    /**
+     * 获取当前线程的随机数生成器。
+     * @return 随机数生成器，只能在当前线程中使用
+     */
+    static SecureRandom random() {
+        return randoms.get();
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * 清空密钥缓存，例如在轮换密钥后释放旧密钥。
+     */
+    public static void clearKeys() {
+        keys.clear();
+    }
+
+    private record KeyId(String algorithm, String key) {
+    }
+
+    private static final class CachedKey {
+        final SecretKeySpec spec;
+        volatile long lastUsed;
+
+        CachedKey(SecretKeySpec spec, long lastUsed) {
+            this.spec = spec;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
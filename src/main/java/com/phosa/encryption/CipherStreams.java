@@ -0,0 +1,309 @@
+package com.phosa.encryption;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+
+/**
+ * 流式加解密的实现，内存占用只与缓冲区大小有关，与数据总量无关。
+ * <p>GCM 的密文按块认证，格式为：
+ * <pre>
+ *     版本(1) | 块大小(4) | nonce 前缀(8) | 块 0 密文 + 标签(16) | 块 1 ... | 最后一块密文 + 标签(16)
+ * </pre>
+ * 每块的 nonce 为随机前缀加 4 字节块序号，附加认证数据为文件头加一个表示是否为最后一块的字节，
+ * 因此调换、删除、截断或拼接其他文件的块都会导致认证失败。解密时每块通过认证后才输出，不会输出未经认证的明文。
+ * <p>CBC 的密文格式与 {@link EncryptionUtil#baseEncrypt} 相同（IV 加密文，不做 Base64），没有完整性保护。
+ */
+final class CipherStreams {
+    private static final byte GCM_VERSION = 1;
+    private static final int GCM_HEADER_LENGTH = 1 + 4 + 8;
+    private static final int GCM_TAG_BYTES = 16;
+    private static final int NONCE_LENGTH = 12;
+    /**
+     * GCM 默认块大小
+     */
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    /**
+     * GCM 最大块大小，解密时也用于拒绝被篡改的文件头
+     */
+    static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final int CBC_BUFFER_SIZE = 64 * 1024;
+
+    private CipherStreams() {
+    }
+
+    /**
+     * 从输入通道读取到输出通道的一次加密或解密。
+     */
+    @FunctionalInterface
+    interface Transform {
+        void apply(ReadableByteChannel in, WritableByteChannel out, boolean direct) throws IOException;
+    }
+
+    /**
+     * 在两个流之间执行转换，不关闭流。
+     */
+    static void transform(InputStream in, OutputStream out, Transform transform) throws IOException {
+        transform.apply(Channels.newChannel(in), Channels.newChannel(out), false);
+        out.flush();
+    }
+
+    /**
+     * 在两个文件之间执行转换，使用直接缓冲区。结果先写入目标目录下的临时文件，成功后再替换目标文件，
+     * 失败时不会留下不完整的输出。
+     */
+    static void transform(Path source, Path target, Transform transform) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, target.getFileName().toString() + ".", ".tmp");
+        try {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                transform.apply(in, out, true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * 分块 GCM 加密。
+     */
+    static void encryptGcm(ReadableByteChannel in, WritableByteChannel out, SecretKey key, int chunkSize, boolean direct)
+            throws IOException {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE + ": " + chunkSize);
+        }
+        byte[] header = new byte[GCM_HEADER_LENGTH];
+        header[0] = GCM_VERSION;
+        ByteBuffer.wrap(header, 1, 4).putInt(chunkSize);
+        byte[] prefix = new byte[8];
+        CipherContext.random().nextBytes(prefix);
+        System.arraycopy(prefix, 0, header, 5, 8);
+        writeFully(out, ByteBuffer.wrap(header));
+
+        Cipher cipher = gcmCipher();
+        byte[] aad = aad(header);
+        // 多读一个字节，用来判断当前块是否为最后一块
+        ByteBuffer plain = allocate(chunkSize + 1, direct);
+        ByteBuffer sealed = allocate(chunkSize + GCM_TAG_BYTES, direct);
+        fill(in, plain);
+        for (long counter = 0; ; counter++) {
+            plain.flip();
+            boolean last = plain.remaining() <= chunkSize;
+            int limit = plain.limit();
+            if (!last) {
+                plain.limit(chunkSize);
+            }
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BYTES * 8, nonce(prefix, counter)));
+                aad[GCM_HEADER_LENGTH] = (byte) (last ? 1 : 0);
+                cipher.updateAAD(aad);
+                sealed.clear();
+                cipher.doFinal(plain, sealed);
+            } catch (InvalidKeyException e) {
+                throw new IllegalArgumentException("Invalid AES key", e);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Cannot encrypt chunk " + counter, e);
+            }
+            sealed.flip();
+            writeFully(out, sealed);
+            if (last) {
+                return;
+            }
+            plain.limit(limit);
+            plain.compact();
+            fill(in, plain);
+        }
+    }
+
+    /**
+     * 分块 GCM 解密。
+     */
+    static void decryptGcm(ReadableByteChannel in, WritableByteChannel out, SecretKey key, boolean direct)
+            throws IOException {
+        ByteBuffer headerBuffer = ByteBuffer.allocate(GCM_HEADER_LENGTH);
+        if (!fill(in, headerBuffer)) {
+            throw new IOException("Truncated encrypted stream header");
+        }
+        byte[] header = headerBuffer.array();
+        if (header[0] != GCM_VERSION) {
+            throw new IOException("Unsupported encrypted stream version " + header[0]);
+        }
+        int chunkSize = ByteBuffer.wrap(header, 1, 4).getInt();
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IOException("Invalid chunk size in encrypted stream header: " + chunkSize);
+        }
+        byte[] prefix = new byte[8];
+        System.arraycopy(header, 5, prefix, 0, 8);
+
+        Cipher cipher = gcmCipher();
+        byte[] aad = aad(header);
+        int sealedSize = chunkSize + GCM_TAG_BYTES;
+        ByteBuffer sealed = allocate(sealedSize + 1, direct);
+        ByteBuffer plain = allocate(sealedSize, direct);
+        fill(in, sealed);
+        for (long counter = 0; ; counter++) {
+            sealed.flip();
+            boolean last = sealed.remaining() <= sealedSize;
+            if (last && sealed.remaining() < GCM_TAG_BYTES) {
+                throw new IOException("Truncated encrypted stream at chunk " + counter);
+            }
+            int limit = sealed.limit();
+            if (!last) {
+                sealed.limit(sealedSize);
+            }
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BYTES * 8, nonce(prefix, counter)));
+                aad[GCM_HEADER_LENGTH] = (byte) (last ? 1 : 0);
+                cipher.updateAAD(aad);
+                plain.clear();
+                cipher.doFinal(sealed, plain);
+            } catch (InvalidKeyException e) {
+                throw new IllegalArgumentException("Invalid AES key", e);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Authentication failed for chunk " + counter, e);
+            }
+            plain.flip();
+            writeFully(out, plain);
+            if (last) {
+                return;
+            }
+            sealed.limit(limit);
+            sealed.compact();
+            fill(in, sealed);
+        }
+    }
+
+    /**
+     * CBC 加密，输出随机 IV 和密文。
+     */
+    static void encryptCbc(ReadableByteChannel in, WritableByteChannel out, SecretKey key, String transformation,
+                           boolean direct) throws IOException {
+        try {
+            Cipher cipher = CipherContext.of(transformation).cipher();
+            byte[] iv = new byte[cipher.getBlockSize()];
+            CipherContext.random().nextBytes(iv);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+            writeFully(out, ByteBuffer.wrap(iv));
+            pipe(in, out, cipher, direct);
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException("Invalid key for " + transformation, e);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Encryption failed", e);
+        }
+    }
+
+    /**
+     * CBC 解密，先读取 IV。
+     */
+    static void decryptCbc(ReadableByteChannel in, WritableByteChannel out, SecretKey key, String transformation,
+                           boolean direct) throws IOException {
+        try {
+            Cipher cipher = CipherContext.of(transformation).cipher();
+            ByteBuffer iv = ByteBuffer.allocate(cipher.getBlockSize());
+            if (!fill(in, iv)) {
+                throw new IOException("Truncated encrypted stream: missing IV");
+            }
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv.array()));
+            pipe(in, out, cipher, direct);
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException("Invalid key for " + transformation, e);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Decryption failed", e);
+        }
+    }
+
+    private static void pipe(ReadableByteChannel in, WritableByteChannel out, Cipher cipher, boolean direct)
+            throws IOException, GeneralSecurityException {
+        ByteBuffer input = allocate(CBC_BUFFER_SIZE, direct);
+        ByteBuffer output = allocate(CBC_BUFFER_SIZE + 2 * cipher.getBlockSize(), direct);
+        while (in.read(input) >= 0) {
+            input.flip();
+            output.clear();
+            cipher.update(input, output);
+            output.flip();
+            writeFully(out, output);
+            input.clear();
+        }
+        input.flip();
+        output.clear();
+        cipher.doFinal(input, output);
+        output.flip();
+        writeFully(out, output);
+    }
+
+    private static Cipher gcmCipher() {
+        try {
+            return CipherContext.of("AES/GCM/NoPadding").cipher();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM/NoPadding is not available", e);
+        }
+    }
+
+    /**
+     * 附加认证数据：文件头加一个最后一块标记字节。
+     */
+    private static byte[] aad(byte[] header) {
+        byte[] aad = new byte[GCM_HEADER_LENGTH + 1];
+        System.arraycopy(header, 0, aad, 0, GCM_HEADER_LENGTH);
+        return aad;
+    }
+
+    private static byte[] nonce(byte[] prefix, long counter) throws IOException {
+        if (counter > 0xFFFFFFFFL) {
+            throw new IOException("Encrypted stream exceeds the maximum number of chunks");
+        }
+        byte[] nonce = new byte[NONCE_LENGTH];
+        System.arraycopy(prefix, 0, nonce, 0, prefix.length);
+        nonce[8] = (byte) (counter >>> 24);
+        nonce[9] = (byte) (counter >>> 16);
+        nonce[10] = (byte) (counter >>> 8);
+        nonce[11] = (byte) counter;
+        return nonce;
+    }
+
+    private static ByteBuffer allocate(int capacity, boolean direct) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * 读满缓冲区或读到输入末尾。
+     * @return 缓冲区被读满时返回 true
+     */
+    private static boolean fill(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
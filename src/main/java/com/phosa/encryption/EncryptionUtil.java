@@ -4,11 +4,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Base64;
 
 import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
 import java.util.Arrays;
-import java.util.Random;
 
 /**
  * 使用Java实现AES-256加密和解密功能的工具类。
@@ -36,6 +44,9 @@ public class EncryptionUtil {
     public static String RSA_ECB_OAEPWithSHA_1AndMGF1Padding = "RSA/ECB/OAEPWithSHA-1AndMGF1Padding";
     public static String RSA_ECB_OAEPWithSHA_256AndMGF1Padding = "RSA/ECB/OAEPWithSHA-256AndMGF1Padding";
 
+    private static final int CBC_BLOCK_SIZE = 16;
+    private static final int CBC_IV_LENGTH = 16;
+
 
     /**
      * 使用AES-256对明文进行加密。
@@ -56,16 +67,15 @@ public class EncryptionUtil {
      */
     public static String baseEncrypt(String algorithm, String transformation, String plaintext, String key) {
         try {
-            // 生成一个随机的16字节的初始化向量
-            byte[] initVector = new byte[16];
-            (new Random()).nextBytes(initVector);
+            // 生成一个随机的16字节的初始化向量，使用当前线程的随机数生成器
+            byte[] initVector = CipherContext.randomIv(16);
             IvParameterSpec iv = new IvParameterSpec(initVector);
 
             // 准备密钥
-            SecretKeySpec skeySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), algorithm);
+            SecretKeySpec skeySpec = CipherContext.key(key, algorithm);
 
-            // 准备AES加密器
-            Cipher cipher = Cipher.getInstance(transformation);
+            // 准备AES加密器，复用当前线程的实例
+            Cipher cipher = CipherContext.of(transformation).cipher();
             cipher.init(Cipher.ENCRYPT_MODE, skeySpec, iv);
 
             // 将明文编码为字节数组
@@ -106,10 +116,10 @@ public class EncryptionUtil {
 
             // 创建初始化向量和密钥
             IvParameterSpec iv = new IvParameterSpec(initVector);
-            SecretKeySpec skeySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), algorithm);
+            SecretKeySpec skeySpec = CipherContext.key(key, algorithm);
 
-            // 准备AES解密器
-            Cipher cipher = Cipher.getInstance(transformation);
+            // 准备AES解密器，复用当前线程的实例
+            Cipher cipher = CipherContext.of(transformation).cipher();
             cipher.init(Cipher.DECRYPT_MODE, skeySpec, iv);
 
             // 解密密文字节数组
@@ -125,9 +135,382 @@ public class EncryptionUtil {
     }
 
     public static String encrypt(String plaintext, String key) {
-        return baseEncrypt("AES", "AES/CBC/PKCS5Padding", plaintext, key);
+        SecretKey secretKey;
+        try {
+            secretKey = CipherContext.key(key, AES);
+        } catch (Exception ex) {
+            log.error("加密失败", ex);
+            return null;
+        }
+        return encrypt(plaintext, secretKey);
     }
     public static String decrypt(String plaintext, String key){
-        return baseDecrypt("AES", "AES/CBC/PKCS5Padding", plaintext, key);
+        SecretKey secretKey;
+        try {
+            secretKey = CipherContext.key(key, AES);
+        } catch (Exception ex) {
+            log.error("解密失败", ex);
+            return null;
+        }
+        return decrypt(plaintext, secretKey);
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥加密明文，例如 {@link KeyDerivation} 派生的密钥。
+     *
+     * @param plaintext 明文字符串
+     * @param key AES密钥
+     * @return Base64编码的密文字符串，格式与 {@link #encrypt(String, String)} 相同
+     */
+    public static String encrypt(String plaintext, SecretKey key) {
+        try {
+            return Base64.encodeBase64String(encrypt(plaintext.getBytes(StandardCharsets.UTF_8), key));
+        } catch (Exception ex) {
+            log.error("加密失败", ex);
+        }
+        return null;
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥解密Base64编码的密文。
+     *
+     * @param ciphertext Base64编码的密文字符串
+     * @param key AES密钥
+     * @return 解密后的明文字符串
+     */
+    public static String decrypt(String ciphertext, SecretKey key) {
+        try {
+            return new String(decrypt(Base64.decodeBase64(ciphertext), key), StandardCharsets.UTF_8);
+        } catch (Exception ex) {
+            log.error("解密失败", ex);
+        }
+        return null;
+    }
+
+    /**
+     * 计算 {@link #encrypt(byte[], String)} 输出的长度：16字节IV加上填充后的密文。
+     *
+     * @param plaintextLength 明文长度
+     * @return 输出长度
+     */
+    public static int getEncryptedLength(int plaintextLength) {
+        return CBC_IV_LENGTH + (plaintextLength / CBC_BLOCK_SIZE + 1) * CBC_BLOCK_SIZE;
+    }
+
+    /**
+     * 计算解密输出长度的上限，用于准备输出缓冲区。
+     *
+     * @param ciphertextLength IV加密文的长度
+     * @return 明文长度的上限
+     */
+    public static int getMaxDecryptedLength(int ciphertextLength) {
+        return Math.max(0, ciphertextLength - CBC_IV_LENGTH);
+    }
+
+    /**
+     * 使用AES-CBC加密字节数组，不经过String和Base64。
+     *
+     * @param plaintext 明文
+     * @param key 加密密钥
+     * @return IV加密文
+     * @throws GeneralSecurityException 密钥无效
+     */
+    public static byte[] encrypt(byte[] plaintext, String key) throws GeneralSecurityException {
+        return encrypt(plaintext, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥加密字节数组，例如 {@link KeyDerivation} 派生的密钥。
+     *
+     * @param plaintext 明文
+     * @param key AES密钥
+     * @return IV加密文
+     * @throws GeneralSecurityException 密钥无效
+     */
+    public static byte[] encrypt(byte[] plaintext, SecretKey key) throws GeneralSecurityException {
+        byte[] output = new byte[getEncryptedLength(plaintext.length)];
+        encrypt(plaintext, 0, plaintext.length, output, 0, key);
+        return output;
+    }
+
+    /**
+     * 解密 {@link #encrypt(byte[], String)} 的输出。
+     *
+     * @param ciphertext IV加密文
+     * @param key 解密密钥（需要与加密时使用的密钥相同）
+     * @return 明文
+     * @throws GeneralSecurityException 密钥无效、密文长度错误或填充错误
+     */
+    public static byte[] decrypt(byte[] ciphertext, String key) throws GeneralSecurityException {
+        return decrypt(ciphertext, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥解密字节数组。
+     *
+     * @param ciphertext IV加密文
+     * @param key AES密钥
+     * @return 明文
+     * @throws GeneralSecurityException 密钥无效、密文长度错误或填充错误
+     */
+    public static byte[] decrypt(byte[] ciphertext, SecretKey key) throws GeneralSecurityException {
+        byte[] output = new byte[getMaxDecryptedLength(ciphertext.length)];
+        int length = decrypt(ciphertext, 0, ciphertext.length, output, 0, key);
+        return length == output.length ? output : Arrays.copyOf(output, length);
+    }
+
+    /**
+     * 使用AES-CBC加密，IV和密文写入调用方提供的数组，除JCA参数对象外不分配内存。
+     * <pre>{@code
+     *     byte[] output = new byte[EncryptionUtil.getEncryptedLength(maxFieldLength)];
+     *     int length = EncryptionUtil.encrypt(field, 0, field.length, output, 0, key);
+     * }</pre>
+     *
+     * @param input 明文所在数组
+     * @param offset 明文起始位置
+     * @param length 明文长度
+     * @param output 输出数组，剩余空间不小于 {@link #getEncryptedLength(int)}
+     * @param outputOffset 输出起始位置
+     * @param key 加密密钥
+     * @return 写入的字节数
+     * @throws GeneralSecurityException 密钥无效或输出空间不足
+     */
+    public static int encrypt(byte[] input, int offset, int length, byte[] output, int outputOffset, String key)
+            throws GeneralSecurityException {
+        return encrypt(input, offset, length, output, outputOffset, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥加密，IV和密文写入调用方提供的数组。
+     *
+     * @param input 明文所在数组
+     * @param offset 明文起始位置
+     * @param length 明文长度
+     * @param output 输出数组，剩余空间不小于 {@link #getEncryptedLength(int)}
+     * @param outputOffset 输出起始位置
+     * @param key AES密钥
+     * @return 写入的字节数
+     * @throws GeneralSecurityException 密钥无效或输出空间不足
+     */
+    public static int encrypt(byte[] input, int offset, int length, byte[] output, int outputOffset, SecretKey key)
+            throws GeneralSecurityException {
+        int required = getEncryptedLength(length);
+        if (output.length - outputOffset < required) {
+            throw new ShortBufferException("Output buffer too short: need " + required + " bytes");
+        }
+        byte[] iv = CipherContext.randomIv(CBC_IV_LENGTH);
+        Cipher cipher = CipherContext.of(AES_CBC_PKCS5Padding).cipher();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        System.arraycopy(iv, 0, output, outputOffset, CBC_IV_LENGTH);
+        return CBC_IV_LENGTH + cipher.doFinal(input, offset, length, output, outputOffset + CBC_IV_LENGTH);
+    }
+
+    /**
+     * 解密IV加密文，明文写入调用方提供的数组。
+     *
+     * @param input 密文所在数组
+     * @param offset 密文起始位置
+     * @param length IV加密文的长度
+     * @param output 输出数组，剩余空间不小于 {@link #getMaxDecryptedLength(int)}
+     * @param outputOffset 输出起始位置
+     * @param key 解密密钥（需要与加密时使用的密钥相同）
+     * @return 明文长度
+     * @throws GeneralSecurityException 密钥无效、密文长度错误、填充错误或输出空间不足
+     */
+    public static int decrypt(byte[] input, int offset, int length, byte[] output, int outputOffset, String key)
+            throws GeneralSecurityException {
+        return decrypt(input, offset, length, output, outputOffset, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥解密，明文写入调用方提供的数组。
+     *
+     * @param input 密文所在数组
+     * @param offset 密文起始位置
+     * @param length IV加密文的长度
+     * @param output 输出数组，剩余空间不小于 {@link #getMaxDecryptedLength(int)}
+     * @param outputOffset 输出起始位置
+     * @param key AES密钥
+     * @return 明文长度
+     * @throws GeneralSecurityException 密钥无效、密文长度错误、填充错误或输出空间不足
+     */
+    public static int decrypt(byte[] input, int offset, int length, byte[] output, int outputOffset, SecretKey key)
+            throws GeneralSecurityException {
+        if (length < CBC_IV_LENGTH) {
+            throw new IllegalBlockSizeException("Ciphertext too short: " + length);
+        }
+        Cipher cipher = CipherContext.of(AES_CBC_PKCS5Padding).cipher();
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(input, offset, CBC_IV_LENGTH));
+        return cipher.doFinal(input, offset + CBC_IV_LENGTH, length - CBC_IV_LENGTH, output, outputOffset);
+    }
+
+    /**
+     * 使用AES-CBC加密缓冲区中剩余的明文，IV和密文写入输出缓冲区，支持直接缓冲区。
+     * <p>成功后明文缓冲区的position移到limit，输出缓冲区的position前移写入的字节数。
+     *
+     * @param plaintext 明文
+     * @param output 输出缓冲区，剩余空间不小于 {@link #getEncryptedLength(int)}
+     * @param key 加密密钥
+     * @return 写入的字节数
+     * @throws GeneralSecurityException 密钥无效或输出空间不足
+     */
+    public static int encrypt(ByteBuffer plaintext, ByteBuffer output, String key) throws GeneralSecurityException {
+        return encrypt(plaintext, output, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥加密缓冲区中剩余的明文，IV和密文写入输出缓冲区。
+     *
+     * @param plaintext 明文
+     * @param output 输出缓冲区，剩余空间不小于 {@link #getEncryptedLength(int)}
+     * @param key AES密钥
+     * @return 写入的字节数
+     * @throws GeneralSecurityException 密钥无效或输出空间不足
+     */
+    public static int encrypt(ByteBuffer plaintext, ByteBuffer output, SecretKey key) throws GeneralSecurityException {
+        int required = getEncryptedLength(plaintext.remaining());
+        if (output.remaining() < required) {
+            throw new ShortBufferException("Output buffer too short: need " + required + " bytes");
+        }
+        byte[] iv = CipherContext.randomIv(CBC_IV_LENGTH);
+        Cipher cipher = CipherContext.of(AES_CBC_PKCS5Padding).cipher();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        output.put(iv);
+        return CBC_IV_LENGTH + cipher.doFinal(plaintext, output);
+    }
+
+    /**
+     * 解密缓冲区中剩余的IV加密文，明文写入输出缓冲区，支持直接缓冲区。
+     *
+     * @param ciphertext IV加密文
+     * @param output 输出缓冲区，剩余空间不小于 {@link #getMaxDecryptedLength(int)}
+     * @param key 解密密钥（需要与加密时使用的密钥相同）
+     * @return 明文长度
+     * @throws GeneralSecurityException 密钥无效、密文长度错误、填充错误或输出空间不足
+     */
+    public static int decrypt(ByteBuffer ciphertext, ByteBuffer output, String key) throws GeneralSecurityException {
+        return decrypt(ciphertext, output, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥解密缓冲区中剩余的IV加密文，明文写入输出缓冲区。
+     *
+     * @param ciphertext IV加密文
+     * @param output 输出缓冲区，剩余空间不小于 {@link #getMaxDecryptedLength(int)}
+     * @param key AES密钥
+     * @return 明文长度
+     * @throws GeneralSecurityException 密钥无效、密文长度错误、填充错误或输出空间不足
+     */
+    public static int decrypt(ByteBuffer ciphertext, ByteBuffer output, SecretKey key) throws GeneralSecurityException {
+        if (ciphertext.remaining() < CBC_IV_LENGTH) {
+            throw new IllegalBlockSizeException("Ciphertext too short: " + ciphertext.remaining());
+        }
+        byte[] iv = CipherContext.ivBuffer(CBC_IV_LENGTH);
+        ciphertext.get(iv);
+        Cipher cipher = CipherContext.of(AES_CBC_PKCS5Padding).cipher();
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+        return cipher.doFinal(ciphertext, output);
+    }
+
+    /**
+     * 使用AES-CBC流式加密，输出随机IV和密文，内存占用与数据大小无关。
+     * <p>输出与 {@link #encrypt(String, String)} 解码Base64之后的格式相同。CBC没有完整性保护，需要防篡改时请使用
+     * {@link AESGCMUtil#encrypt(InputStream, OutputStream, String)}。不会关闭输入输出流。
+     *
+     * @param in 明文输入流
+     * @param out 密文输出流
+     * @param key 加密密钥
+     * @throws IOException 读写失败
+     */
+    public static void encrypt(InputStream in, OutputStream out, String key) throws IOException {
+        encrypt(in, out, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥流式加密。不会关闭输入输出流。
+     *
+     * @param in 明文输入流
+     * @param out 密文输出流
+     * @param key AES密钥
+     * @throws IOException 读写失败
+     */
+    public static void encrypt(InputStream in, OutputStream out, SecretKey key) throws IOException {
+        CipherStreams.transform(in, out, (source, target, direct) ->
+                CipherStreams.encryptCbc(source, target, key, AES_CBC_PKCS5Padding, direct));
+    }
+
+    /**
+     * 流式解密 {@link #encrypt(InputStream, OutputStream, String)} 的输出。不会关闭输入输出流。
+     *
+     * @param in 密文输入流
+     * @param out 明文输出流
+     * @param key 解密密钥（需要与加密时使用的密钥相同）
+     * @throws IOException 读写失败或填充错误
+     */
+    public static void decrypt(InputStream in, OutputStream out, String key) throws IOException {
+        decrypt(in, out, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥流式解密。不会关闭输入输出流。
+     *
+     * @param in 密文输入流
+     * @param out 明文输出流
+     * @param key AES密钥
+     * @throws IOException 读写失败或填充错误
+     */
+    public static void decrypt(InputStream in, OutputStream out, SecretKey key) throws IOException {
+        CipherStreams.transform(in, out, (source, target, direct) ->
+                CipherStreams.decryptCbc(source, target, key, AES_CBC_PKCS5Padding, direct));
+    }
+
+    /**
+     * 使用AES-CBC加密文件，读写使用直接缓冲区。结果先写入临时文件，成功后再替换目标文件。
+     *
+     * @param source 明文文件
+     * @param target 密文文件
+     * @param key 加密密钥
+     * @throws IOException 读写失败
+     */
+    public static void encrypt(Path source, Path target, String key) throws IOException {
+        encrypt(source, target, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥加密文件。
+     *
+     * @param source 明文文件
+     * @param target 密文文件
+     * @param key AES密钥
+     * @throws IOException 读写失败
+     */
+    public static void encrypt(Path source, Path target, SecretKey key) throws IOException {
+        CipherStreams.transform(source, target, (in, out, direct) ->
+                CipherStreams.encryptCbc(in, out, key, AES_CBC_PKCS5Padding, direct));
+    }
+
+    /**
+     * 解密 {@link #encrypt(Path, Path, String)} 加密的文件。结果先写入临时文件，成功后再替换目标文件。
+     *
+     * @param source 密文文件
+     * @param target 明文文件
+     * @param key 解密密钥（需要与加密时使用的密钥相同）
+     * @throws IOException 读写失败或填充错误
+     */
+    public static void decrypt(Path source, Path target, String key) throws IOException {
+        decrypt(source, target, CipherContext.key(key, AES));
+    }
+
+    /**
+     * 使用AES-CBC和指定的密钥解密文件。
+     *
+     * @param source 密文文件
+     * @param target 明文文件
+     * @param key AES密钥
+     * @throws IOException 读写失败或填充错误
+     */
+    public static void decrypt(Path source, Path target, SecretKey key) throws IOException {
+        CipherStreams.transform(source, target, (in, out, direct) ->
+                CipherStreams.decryptCbc(in, out, key, AES_CBC_PKCS5Padding, direct));
     }
 }
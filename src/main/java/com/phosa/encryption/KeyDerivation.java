@@ -0,0 +1,238 @@
+package com.phosa.encryption;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 由口令或主密钥派生AES密钥的工具类，派生结果缓存在有界、带过期时间的缓存中。
+ * <p>{@link EncryptionUtil} 的字符串密钥直接使用其 UTF-8 字节，长度必须恰好是 16、24 或 32。
+ * 使用任意长度的口令时应先通过 PBKDF2 派生密钥，再调用各工具类接受 {@link SecretKey} 的方法。
+ * PBKDF2 故意设计得很慢，缓存保证同一口令和参数只派生一次，而不是每条消息都派生一次。
+ * <p>缓存以带进程内随机密钥的 HMAC-SHA256 摘要为键，不保存口令本身；最多保存 256 个密钥，
+ * 默认 30 分钟未使用后过期。同一密钥在缓存未命中时被多个线程同时请求，可能会被派生多次，结果相同。
+ * JDK 没有内置 Argon2，这里只提供 PBKDF2 和 HKDF。
+ * <pre>{@code
+ *     SecretKey key = KeyDerivation.pbkdf2(passphrase, salt);
+ *     String ciphertext = AESGCMUtil.encrypt(plaintext, key);
+ * }</pre>
+ */
+public final class KeyDerivation {
+    /**
+     * PBKDF2-HMAC-SHA256 的默认迭代次数
+     */
+    public static final int DEFAULT_ITERATIONS = 600_000;
+
+    private static final int MAX_CACHED_KEYS = 256;
+
+    private static final String PBKDF2 = "PBKDF2WithHmacSHA256";
+
+    private static final String HMAC = "HmacSHA256";
+
+    private static final int HASH_LENGTH = 32;
+
+    /**
+     * 计算缓存键时使用的进程内随机密钥，避免在内存中留下可以离线破解的口令摘要
+     */
+    private static final SecretKeySpec cacheKey;
+
+    private static final Map<String, CachedKey> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedKey> eldest) {
+            return size() > MAX_CACHED_KEYS;
+        }
+    };
+
+    private static volatile long ttlNanos = Duration.ofMinutes(30).toNanos();
+
+    static {
+        byte[] bytes = new byte[HASH_LENGTH];
+        CipherContext.random().nextBytes(bytes);
+        cacheKey = new SecretKeySpec(bytes, HMAC);
+    }
+
+    private KeyDerivation() {
+
+    }
+
+    /**
+     * 使用 PBKDF2-HMAC-SHA256 和默认迭代次数由口令派生 256 位AES密钥。
+     *
+     * @param passphrase 口令
+     * @param salt       盐，至少 16 字节，同一口令在不同用途中应使用不同的盐，见 {@link #randomSalt()}
+     * @return AES密钥
+     */
+    public static SecretKey pbkdf2(String passphrase, byte[] salt) {
+        return pbkdf2(passphrase, salt, DEFAULT_ITERATIONS, 256);
+    }
+
+    /**
+     * 使用 PBKDF2-HMAC-SHA256 由口令派生AES密钥，相同参数的结果从缓存中返回。
+     *
+     * @param passphrase 口令
+     * @param salt       盐，至少 16 字节
+     * @param iterations 迭代次数
+     * @param keyBits    密钥长度，128、192 或 256
+     * @return AES密钥
+     * @throws IllegalArgumentException 参数无效
+     */
+    public static SecretKey pbkdf2(String passphrase, byte[] salt, int iterations, int keyBits) {
+        if (salt == null || salt.length < 16) {
+            throw new IllegalArgumentException("Salt must be at least 16 bytes");
+        }
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be positive: " + iterations);
+        }
+        checkKeyBits(keyBits);
+        String id = cacheId("pbkdf2", iterations, keyBits, passphrase.getBytes(StandardCharsets.UTF_8), salt, null);
+        SecretKey key = cached(id);
+        if (key == null) {
+            PBEKeySpec spec = new PBEKeySpec(passphrase.toCharArray(), salt, iterations, keyBits);
+            try {
+                byte[] encoded = SecretKeyFactory.getInstance(PBKDF2).generateSecret(spec).getEncoded();
+                key = new SecretKeySpec(encoded, "AES");
+                Arrays.fill(encoded, (byte) 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(PBKDF2 + " is not available", e);
+            } finally {
+                spec.clearPassword();
+            }
+            put(id, key);
+        }
+        return key;
+    }
+
+    /**
+     * 使用 HKDF-SHA256（RFC 5869）由高熵的主密钥派生AES密钥，相同参数的结果从缓存中返回。
+     * <p>HKDF 不适用于口令，口令请使用 {@link #pbkdf2(String, byte[])}。通过不同的 info 可以由同一主密钥派生多个互相独立的密钥。
+     *
+     * @param inputKey 主密钥
+     * @param salt     盐，可以为 null
+     * @param info     用途标识，可以为 null
+     * @param keyBits  密钥长度，128、192 或 256
+     * @return AES密钥
+     * @throws IllegalArgumentException 参数无效
+     */
+    public static SecretKey hkdf(byte[] inputKey, byte[] salt, byte[] info, int keyBits) {
+        checkKeyBits(keyBits);
+        String id = cacheId("hkdf", 0, keyBits, inputKey, salt, info);
+        SecretKey key = cached(id);
+        if (key == null) {
+            try {
+                Mac mac = Mac.getInstance(HMAC);
+                // 提取：PRK = HMAC(salt, IKM)，salt 为空时使用全零
+                mac.init(new SecretKeySpec(salt == null || salt.length == 0 ? new byte[HASH_LENGTH] : salt, HMAC));
+                byte[] prk = mac.doFinal(inputKey);
+                // 扩展：T(i) = HMAC(PRK, T(i-1) | info | i)，密钥不超过 32 字节时只需要一轮
+                mac.init(new SecretKeySpec(prk, HMAC));
+                if (info != null) {
+                    mac.update(info);
+                }
+                mac.update((byte) 1);
+                byte[] okm = mac.doFinal();
+                key = new SecretKeySpec(okm, 0, keyBits / 8, "AES");
+                Arrays.fill(prk, (byte) 0);
+                Arrays.fill(okm, (byte) 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(HMAC + " is not available", e);
+            }
+            put(id, key);
+        }
+        return key;
+    }
+
+    /**
+     * 生成 16 字节的随机盐。盐不需要保密，通常与密文一起保存。
+     *
+     * @return 盐
+     */
+    public static byte[] randomSalt() {
+        byte[] salt = new byte[16];
+        CipherContext.random().nextBytes(salt);
+        return salt;
+    }
+
+    /**
+     * 设置缓存的过期时间，从最后一次使用开始计算，只影响之后放入或命中的密钥。
+     *
+     * @param ttl 过期时间
+     */
+    public static void setCacheTtl(Duration ttl) {
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("TTL must not be negative: " + ttl);
+        }
+        ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * 清空缓存，例如在轮换口令后释放旧密钥。
+     */
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static void checkKeyBits(int keyBits) {
+        if (keyBits != 128 && keyBits != 192 && keyBits != 256) {
+            throw new IllegalArgumentException("Key length must be 128, 192 or 256 bits: " + keyBits);
+        }
+    }
+
+    private static SecretKey cached(String id) {
+        long now = System.nanoTime();
+        synchronized (cache) {
+            CachedKey entry = cache.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAt > 0) {
+                cache.remove(id);
+                return null;
+            }
+            cache.put(id, new CachedKey(entry.key, now + ttlNanos));
+            return entry.key;
+        }
+    }
+
+    private static void put(String id, SecretKey key) {
+        CachedKey entry = new CachedKey(key, System.nanoTime() + ttlNanos);
+        synchronized (cache) {
+            cache.put(id, entry);
+        }
+    }
+
+    /**
+     * 计算缓存键：派生函数和参数连同各个输入的长度和内容一起做 HMAC，不同输入不会拼接出相同的结果。
+     */
+    private static String cacheId(String function, int iterations, int keyBits, byte[] secret, byte[] salt, byte[] info) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(cacheKey);
+            mac.update(function.getBytes(StandardCharsets.US_ASCII));
+            mac.update(ByteBuffer.allocate(8).putInt(iterations).putInt(keyBits).array());
+            for (byte[] part : new byte[][]{secret, salt, info}) {
+                mac.update(ByteBuffer.allocate(4).putInt(part == null ? -1 : part.length).array());
+                if (part != null) {
+                    mac.update(part);
+                }
+            }
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+
+    private record CachedKey(SecretKey key, long expiresAt) {
+    }
+}
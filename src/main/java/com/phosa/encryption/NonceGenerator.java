@@ -0,0 +1,43 @@
+package com.phosa.encryption;
+
+/**
+ * 每个线程独立的 GCM nonce 生成器。
+ * <p>nonce 为 8 字节随机前缀加 4 字节递增计数器，前缀在线程第一次使用和计数器用尽时重新随机生成。
+ * 同一前缀下的 nonce 不会重复，不同前缀相同的概率可以忽略，同时避免了每次加密都从 SecureRandom 取 12 字节。
+ * <p>计数器产生的 nonce 是可预测的，只适用于 GCM 这类只要求 nonce 不重复的模式，CBC 的 IV 必须使用
+ * {@link CipherContext#randomIv(int)}。
+ */
+final class NonceGenerator {
+    static final int NONCE_LENGTH = 12;
+
+    private static final ThreadLocal<NonceGenerator> generators = ThreadLocal.withInitial(NonceGenerator::new);
+
+    private final byte[] nonce = new byte[NONCE_LENGTH];
+    private int counter;
+
+    private NonceGenerator() {
+    }
+
+    /**
+     * 生成下一个 nonce，写入当前线程复用的数组。
+     * @return nonce，内容在同一线程下一次调用时被覆盖
+     */
+    static byte[] next() {
+        return generators.get().nextNonce();
+    }
+
+    private byte[] nextNonce() {
+        if (counter == 0) {
+            // 首次使用或计数器回绕时更换前缀
+            byte[] prefix = new byte[8];
+            CipherContext.random().nextBytes(prefix);
+            System.arraycopy(prefix, 0, nonce, 0, 8);
+        }
+        nonce[8] = (byte) (counter >>> 24);
+        nonce[9] = (byte) (counter >>> 16);
+        nonce[10] = (byte) (counter >>> 8);
+        nonce[11] = (byte) counter;
+        counter++;
+        return nonce;
+    }
+}
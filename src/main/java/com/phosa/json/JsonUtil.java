@@ -1,14 +1,36 @@
 package com.phosa.json;
 
 import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
 import com.alibaba.fastjson2.JSONObject;
 import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.util.TypeUtils;
+import com.phosa.json.exception.JsonException;
 import com.phosa.json.model.JsonArray;
 import com.phosa.json.model.JsonObject;
+import com.phosa.json.schema.JsonSchema;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * JSON工具类，用于处理对象与JSON之间的转换。
@@ -38,6 +60,28 @@ public class JsonUtil {
         return JSON.parseObject(json, clazz, JSONReader.Feature.SupportSmartMatch);
     }
 
+    /**
+     * 先按 Schema 校验 JSON 字符串，通过后再解析为指定类型的对象。
+     * <p>字符串只解析一次：先得到未绑定的 JSON 树用于校验，校验通过后直接由该树绑定为目标对象，
+     * 未通过时不会创建任何业务对象。
+     *
+     * @param json JSON字符串
+     * @param clazz 目标对象的类型
+     * @param schema 编译后的 Schema
+     * @param <T> 泛型类型
+     * @return 解析后的对象
+     * @throws JsonException 校验未通过时抛出
+     */
+    public static <T> T parseStringToObject(String json, Class<T> clazz, JsonSchema schema) {
+        Object tree = JSON.parse(json);
+        schema.assertValid(tree);
+        if (tree instanceof JSONObject jsonObject) {
+            return jsonObject.toJavaObject(clazz, JSONReader.Feature.SupportSmartMatch);
+        }
+        // 数组和标量同样由已解析的树转换，不再重新解析字符串
+        return TypeUtils.cast(tree, clazz);
+    }
+
     /**
      * 将JSON字符串解析为Map，键和值均为字符串类型。
      *
@@ -109,4 +153,332 @@ public class JsonUtil {
     public static JsonArray parseStringToJSONArray(String json) {
         return new JsonArray(JSON.parseArray(json));
     }
+
+    /**
+     * 将对象序列化为 JSONB 二进制格式。
+     * <p>JSONB 是 fastjson2 的紧凑二进制格式，体积和解析开销都小于文本 JSON，适合缓存、RPC 和落盘快照等不需要可读性的场景。
+     *
+     * @param obj 需要序列化的对象，支持 {@link JsonObject} 和 {@link JsonArray}
+     * @return JSONB 字节数组
+     */
+    public static byte[] toBytes(Object obj) {
+        return JSONB.toBytes(unwrap(obj));
+    }
+
+    /**
+     * 将 JSONB 二进制数据解析为指定类型的对象。
+     *
+     * @param bytes JSONB 字节数组
+     * @param clazz 目标对象的类型，传入 {@link JsonObject} 或 {@link JsonArray} 时返回对应的包装对象
+     * @param <T> 泛型类型
+     * @return 解析后的对象
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T fromBytes(byte[] bytes, Class<T> clazz) {
+        if (clazz == JsonObject.class) {
+            return (T) parseBytesToJSONObject(bytes);
+        } else if (clazz == JsonArray.class) {
+            return (T) parseBytesToJSONArray(bytes);
+        }
+        return JSONB.parseObject(bytes, clazz, JSONReader.Feature.SupportSmartMatch);
+    }
+
+    /**
+     * 将 JSONB 二进制数据解析为JSONObject对象。
+     *
+     * @param bytes JSONB 字节数组
+     * @return JSONObject对象
+     */
+    public static JsonObject parseBytesToJSONObject(byte[] bytes) {
+        return new JsonObject(JSONB.parseObject(bytes));
+    }
+
+    /**
+     * 将 JSONB 二进制数据解析为JSONArray对象。
+     *
+     * @param bytes JSONB 字节数组
+     * @return JSONArray对象
+     */
+    public static JsonArray parseBytesToJSONArray(byte[] bytes) {
+        return new JsonArray(JSONB.parseArray(bytes));
+    }
+
+    /**
+     * NDJSON 分块的最小字节数，过小的分块会让调度开销超过解析本身。
+     */
+    private static final int JSON_LINES_MIN_CHUNK = 1 << 20;
+
+    /**
+     * NDJSON 分块的最大字节数，限制每个工作线程同时持有的缓冲区大小。
+     */
+    private static final int JSON_LINES_MAX_CHUNK = 16 << 20;
+
+    /**
+     * 将对象流以 NDJSON（JSON Lines）格式写入输出流，每个对象占一行。
+     * <p>写入完成后会刷新输出流，但不会关闭它。
+     *
+     * @param stream 需要写入的对象流
+     * @param out 目标输出流
+     * @param <T> 泛型类型
+     * @return 写入的行数
+     */
+    public static <T> long writeJsonLines(Stream<T> stream, OutputStream out) {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        long[] count = new long[1];
+        try {
+            stream.forEachOrdered(item -> {
+                try {
+                    buffered.write(JSON.toJSONBytes(unwrap(item)));
+                    buffered.write('\n');
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            buffered.flush();
+        } catch (IOException e) {
+            throw new JsonException("Failed to write JSON lines", e);
+        } catch (UncheckedIOException e) {
+            throw new JsonException("Failed to write JSON lines", e.getCause());
+        }
+        return count[0];
+    }
+
+    /**
+     * 将对象流以 NDJSON（JSON Lines）格式写入文件，文件已存在时会被覆盖。
+     *
+     * @param stream 需要写入的对象流
+     * @param path 目标文件路径
+     * @param <T> 泛型类型
+     * @return 写入的行数
+     */
+    public static <T> long writeJsonLines(Stream<T> stream, Path path) {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            return writeJsonLines(stream, out);
+        } catch (IOException e) {
+            throw new JsonException("Failed to write JSON lines to " + path, e);
+        }
+    }
+
+    /**
+     * 并行读取 NDJSON（JSON Lines）文件，结果按文件中的行顺序返回。
+     *
+     * @param path 文件路径
+     * @param clazz 每一行对应的对象类型，传入 {@link JsonObject} 时返回未绑定的 JSON 对象
+     * @param <T> 泛型类型
+     * @return 解析后的对象列表
+     * @see #readJsonLines(Path, Class, boolean, Consumer)
+     */
+    public static <T> List<T> readJsonLines(Path path, Class<T> clazz) {
+        List<T> result = new ArrayList<>();
+        readJsonLines(path, clazz, true, result::add);
+        return result;
+    }
+
+    /**
+     * 并行读取 NDJSON（JSON Lines）文件。
+     * <p>文件以内存映射的方式打开，并按行边界切分为若干分块，由 ForkJoin 公共线程池并行解析。
+     * 空行会被忽略，行尾的 {@code \r} 会被去除，文件编码须为 UTF-8。
+     * 同时处理的分块数不超过公共线程池并行度的两倍，分块随着 consumer 的消费逐个提交，内存占用与文件大小无关；
+     * 任一分块解析失败或 consumer 抛出异常时，其余分块会尽快停止。
+     * <ul>
+     *     <li>{@code preserveOrder} 为 true 时，consumer 只会在调用线程中按行顺序被调用；</li>
+     *     <li>{@code preserveOrder} 为 false 时，consumer 会在各工作线程中并发调用，调用方需要保证其线程安全，
+     *     但各分块无需互相等待，吞吐量更高。</li>
+     * </ul>
+     *
+     * @param path 文件路径
+     * @param clazz 每一行对应的对象类型，传入 {@link JsonObject} 时返回未绑定的 JSON 对象
+     * @param preserveOrder 是否保持文件中的行顺序
+     * @param consumer 接收解析结果的回调
+     * @param <T> 泛型类型
+     */
+    public static <T> void readJsonLines(Path path, Class<T> clazz, boolean preserveOrder, Consumer<? super T> consumer) {
+        int window = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * 2);
+        AtomicBoolean aborted = new AtomicBoolean();
+        ArrayDeque<JsonLinesChunk<T>> inFlight = new ArrayDeque<>(window);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            JsonLinesSplitter splitter = new JsonLinesSplitter(channel);
+            while (true) {
+                // 窗口内的分块被消费一个才提交下一个，保序时最多 window 个分块的结果同时驻留内存
+                while (inFlight.size() < window && splitter.hasNext()) {
+                    long start = splitter.position;
+                    JsonLinesChunk<T> chunk = new JsonLinesChunk<>(splitter.next(), start, clazz,
+                            preserveOrder ? null : consumer, aborted);
+                    chunk.fork();
+                    inFlight.add(chunk);
+                }
+                JsonLinesChunk<T> chunk = inFlight.poll();
+                if (chunk == null) {
+                    return;
+                }
+                List<T> values = chunk.join();
+                if (preserveOrder) {
+                    values.forEach(consumer);
+                }
+            }
+        } catch (IOException e) {
+            throw new JsonException("Failed to read JSON lines from " + path, e);
+        } finally {
+            if (!inFlight.isEmpty()) {
+                aborted.set(true);
+                for (JsonLinesChunk<T> chunk : inFlight) {
+                    chunk.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按行边界依次切出文件的分块，每个分块的终点都落在换行符之后。
+     */
+    private static final class JsonLinesSplitter {
+        private final FileChannel channel;
+        private final long size;
+        private final long target;
+        private final ByteBuffer probe = ByteBuffer.allocate(8192);
+        long position;
+
+        JsonLinesSplitter(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            long target = size / (ForkJoinPool.getCommonPoolParallelism() * 4L);
+            this.target = Math.max(JSON_LINES_MIN_CHUNK, Math.min(JSON_LINES_MAX_CHUNK, target));
+        }
+
+        boolean hasNext() {
+            return position < size;
+        }
+
+        MappedByteBuffer next() throws IOException {
+            long start = position;
+            long end = Math.min(size, start + target);
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            if (end - start > Integer.MAX_VALUE) {
+                throw new JsonException("JSON line starting at byte " + start + " is too long");
+            }
+            position = end;
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+    }
+
+    /**
+     * 解析单行 JSON。
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T decodeLine(byte[] bytes, int offset, int length, Class<T> clazz) {
+        if (clazz == JsonObject.class) {
+            return (T) new JsonObject(JSON.parseObject(bytes, offset, length, StandardCharsets.UTF_8));
+        }
+        return JSON.parseObject(bytes, offset, length, StandardCharsets.UTF_8, clazz);
+    }
+
+    /**
+     * 将 {@link JsonObject}、{@link JsonArray} 包装类还原为 fastjson2 的原生容器，其余对象原样返回。
+     */
+    private static Object unwrap(Object obj) {
+        if (obj instanceof JsonObject jo) {
+            return jo.getJSONObject();
+        } else if (obj instanceof JsonArray ja) {
+            return ja.getJSONArray();
+        }
+        return obj;
+    }
+
+    /**
+     * NDJSON 文件中的一个分块，负责解析其中的所有行。
+     * <p>sink 不为空时，解析结果直接交给 sink，任务本身返回空列表。
+     */
+    private static final class JsonLinesChunk<T> extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final MappedByteBuffer buffer;
+        private final long position;
+        private final Class<T> clazz;
+        private final Consumer<? super T> sink;
+        private final AtomicBoolean aborted;
+
+        JsonLinesChunk(MappedByteBuffer buffer, long position, Class<T> clazz, Consumer<? super T> sink,
+                       AtomicBoolean aborted) {
+            this.buffer = buffer;
+            this.position = position;
+            this.clazz = clazz;
+            this.sink = sink;
+            this.aborted = aborted;
+        }
+
+        @Override
+        protected List<T> compute() {
+            // 直接在映射内存上查找行边界，每行只复制到按最长行扩容的缓冲区中，不整块复制分块
+            int limit = buffer.limit();
+            byte[] line = new byte[256];
+            List<T> values = sink == null ? new ArrayList<>() : List.of();
+            int lineStart = 0;
+            while (lineStart < limit && !aborted.get()) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                    contentEnd--;
+                }
+                int length = contentEnd - lineStart;
+                if (length > line.length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                buffer.get(lineStart, line, 0, length);
+                if (!isBlank(line, 0, length)) {
+                    T value;
+                    try {
+                        value = decodeLine(line, 0, length, clazz);
+                    } catch (RuntimeException e) {
+                        aborted.set(true);
+                        throw new JsonException("Invalid JSON line at byte " + (position + lineStart), e);
+                    }
+                    if (sink == null) {
+                        values.add(value);
+                    } else {
+                        try {
+                            sink.accept(value);
+                        } catch (RuntimeException e) {
+                            aborted.set(true);
+                            throw e;
+                        }
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            return values;
+        }
+
+        private static boolean isBlank(byte[] bytes, int from, int to) {
+            for (int i = from; i < to; i++) {
+                byte b = bytes[i];
+                if (b != ' ' && b != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
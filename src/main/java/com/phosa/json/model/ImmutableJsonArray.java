@@ -0,0 +1,339 @@
+package com.phosa.json.model;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.phosa.json.exception.JsonException;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * ImmutableJsonArray 是不可变、可持久化的 JSON 数组。
+ * <p>内部使用 32 叉前缀树加尾部缓冲区存储元素，{@link #append(Object)} 和 {@link #with(int, Object)}
+ * 只复制被修改的路径，其余节点在新旧版本之间共享。实例可以在多个线程之间直接共享读取。
+ * <p>嵌套的对象和数组在放入时会被转换为 {@link ImmutableJsonObject} 和 {@link ImmutableJsonArray}，
+ * {@link #hashCode()} 计算一次后会被缓存。
+ */
+public final class ImmutableJsonArray {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final ImmutableJsonArray EMPTY = new ImmutableJsonArray(0, BITS, new Object[WIDTH], new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+    /**
+     * 缓存的哈希值，0 表示尚未计算。
+     */
+    private int hash;
+
+    private ImmutableJsonArray(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * 获取空的 ImmutableJsonArray。
+     * @return 空数组
+     */
+    public static ImmutableJsonArray empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 从 JsonArray 深度复制出一个不可变数组。
+     * @param jsonArray 源数组
+     * @return 不可变数组
+     */
+    public static ImmutableJsonArray copyOf(JsonArray jsonArray) {
+        return copyOf(jsonArray.getJSONArray());
+    }
+
+    /**
+     * 从集合深度复制出一个不可变数组。
+     * @param values 源集合
+     * @return 不可变数组
+     */
+    public static ImmutableJsonArray copyOf(Collection<?> values) {
+        ImmutableJsonArray result = EMPTY;
+        for (Object value : values) {
+            result = result.append(value);
+        }
+        return result;
+    }
+
+    /**
+     * 获取数组的大小。
+     * @return 数组中元素的数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 判断数组是否为空。
+     * @return 如果数组为空则返回 true
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 获取指定索引位置的元素，嵌套的对象和数组以不可变形式返回。
+     * @param index 元素的索引
+     * @return 指定索引位置的元素
+     */
+    public Object get(int index) {
+        return arrayFor(index)[index & MASK];
+    }
+
+    /**
+     * 获取指定索引位置的元素并转换为字符串。
+     * @param index 元素的索引
+     * @return 对应的字符串值
+     */
+    public String getAsString(int index) {
+        return ImmutableJsonObject.asString(get(index));
+    }
+
+    /**
+     * 获取指定索引位置的不可变对象，不会产生新的包装对象。
+     * @param index 元素的索引
+     * @return 对应的不可变对象
+     */
+    public ImmutableJsonObject getAsJsonObject(int index) {
+        Object value = get(index);
+        if (value == null || value instanceof ImmutableJsonObject) {
+            return (ImmutableJsonObject) value;
+        }
+        throw new JsonException("Element at index " + index + " is not an object");
+    }
+
+    /**
+     * 获取指定索引位置的不可变数组，不会产生新的包装对象。
+     * @param index 元素的索引
+     * @return 对应的不可变数组
+     */
+    public ImmutableJsonArray getAsJsonArray(int index) {
+        Object value = get(index);
+        if (value == null || value instanceof ImmutableJsonArray) {
+            return (ImmutableJsonArray) value;
+        }
+        throw new JsonException("Element at index " + index + " is not an array");
+    }
+
+    /**
+     * 获取指定索引位置的元素并转换为布尔值。
+     * @param index 元素的索引
+     * @return 对应的布尔值
+     */
+    public boolean getAsBoolean(int index) {
+        return ImmutableJsonObject.asBoolean(get(index));
+    }
+
+    /**
+     * 获取指定索引位置的元素并转换为整数。
+     * @param index 元素的索引
+     * @return 对应的整数值
+     */
+    public int getAsInt(int index) {
+        return (int) ImmutableJsonObject.asLong(get(index));
+    }
+
+    /**
+     * 获取指定索引位置的元素并转换为长整型。
+     * @param index 元素的索引
+     * @return 对应的长整型值
+     */
+    public long getAsLong(int index) {
+        return ImmutableJsonObject.asLong(get(index));
+    }
+
+    /**
+     * 获取指定索引位置的元素并转换为双精度浮点数。
+     * @param index 元素的索引
+     * @return 对应的双精度浮点数值
+     */
+    public double getAsDouble(int index) {
+        return ImmutableJsonObject.asDouble(get(index));
+    }
+
+    /**
+     * 返回在末尾追加了元素的新数组，当前数组保持不变。
+     * @param value 要追加的元素
+     * @return 新的不可变数组
+     */
+    public ImmutableJsonArray append(Object value) {
+        Object frozen = ImmutableJsonObject.freeze(value);
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = new Object[tail.length + 1];
+            System.arraycopy(tail, 0, newTail, 0, tail.length);
+            newTail[tail.length] = frozen;
+            return new ImmutableJsonArray(size + 1, shift, root, newTail);
+        }
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new ImmutableJsonArray(size + 1, newShift, newRoot, new Object[]{frozen});
+    }
+
+    /**
+     * 返回替换了指定位置元素的新数组，当前数组保持不变。
+     * @param index 元素的索引
+     * @param value 新的元素
+     * @return 新的不可变数组，元素未发生变化时返回当前数组
+     */
+    public ImmutableJsonArray with(int index, Object value) {
+        checkIndex(index);
+        Object frozen = ImmutableJsonObject.freeze(value);
+        if (Objects.equals(get(index), frozen)) {
+            return this;
+        }
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = frozen;
+            return new ImmutableJsonArray(size, shift, root, newTail);
+        }
+        return new ImmutableJsonArray(size, shift, assoc(shift, root, index, frozen), tail);
+    }
+
+    /**
+     * 按顺序遍历所有元素。
+     * @param action 对每个元素执行的操作
+     */
+    public void forEach(Consumer<Object> action) {
+        for (int i = 0; i < size; i += WIDTH) {
+            Object[] node = arrayFor(i);
+            int length = Math.min(WIDTH, size - i);
+            for (int j = 0; j < length; j++) {
+                action.accept(node[j]);
+            }
+        }
+    }
+
+    /**
+     * 深度复制为可变的 JsonArray。
+     * @return 可变的 JsonArray
+     */
+    public JsonArray toJsonArray() {
+        return new JsonArray(toJSONArray());
+    }
+
+    /**
+     * 深度复制为 fastjson2 的 JSONArray。
+     * @return JSONArray 实例
+     */
+    public JSONArray toJSONArray() {
+        JSONArray result = new JSONArray(size);
+        forEach(value -> result.add(ImmutableJsonObject.thaw(value)));
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && size != 0) {
+            h = 1;
+            for (int i = 0; i < size; i++) {
+                h = 31 * h + Objects.hashCode(get(i));
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ImmutableJsonArray other) || other.size != size) {
+            return false;
+        }
+        if (hash != 0 && other.hash != 0 && hash != other.hash) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!Objects.equals(get(i), other.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将数组转换为 JSON 字符串。
+     * @return 数组的 JSON 字符串表示
+     */
+    @Override
+    public String toString() {
+        return toJSONArray().toJSONString();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] arrayFor(int index) {
+        checkIndex(index);
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] result = parent.clone();
+        Object[] inserted;
+        if (level == BITS) {
+            inserted = tailNode;
+        } else {
+            Object[] child = (Object[]) parent[subIndex];
+            inserted = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+        result[subIndex] = inserted;
+        return result;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] result = new Object[WIDTH];
+        result[0] = newPath(level - BITS, node);
+        return result;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object value) {
+        Object[] result = node.clone();
+        if (level == 0) {
+            result[index & MASK] = value;
+        } else {
+            int subIndex = (index >>> level) & MASK;
+            result[subIndex] = assoc(level - BITS, (Object[]) node[subIndex], index, value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,566 @@
+package com.phosa.json.model;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.phosa.json.exception.JsonException;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * ImmutableJsonObject 是不可变、可持久化的 JSON 对象。
+ * <p>内部使用哈希数组映射前缀树（HAMT）存储键值对，{@link #with(String, Object)} 和 {@link #without(String)}
+ * 只复制从根到目标节点的一条路径，其余节点在新旧版本之间共享。实例一经创建就不会再改变，
+ * 可以在任意多个线程之间直接共享读取，不需要加锁或防御性复制，实例本身就是一份快照。
+ * <p>嵌套的对象和数组在放入时会被转换为 {@link ImmutableJsonObject} 和 {@link ImmutableJsonArray}，
+ * 其它值应为字符串、数字、布尔值或 null 等不可变类型。键的遍历顺序与插入顺序一致，{@link #hashCode()} 计算一次后会被缓存。
+ */
+public final class ImmutableJsonObject {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final BitmapNode EMPTY_NODE = new BitmapNode(0, new Object[0]);
+    private static final ImmutableJsonObject EMPTY = new ImmutableJsonObject(EMPTY_NODE, 0, 0L);
+
+    private final BitmapNode root;
+    private final int size;
+    private final long nextOrder;
+    /**
+     * 缓存的哈希值，0 表示尚未计算。与 String 相同，并发计算只会得到相同的结果，因此无需同步。
+     */
+    private int hash;
+    /**
+     * 按插入顺序排列的键值对，首次遍历时计算并缓存。
+     * 与 hash 不同，数组元素不是 final 的，必须通过 volatile 发布，其它线程才能看到填充完成的数组。
+     */
+    private volatile Leaf[] ordered;
+
+    private ImmutableJsonObject(BitmapNode root, int size, long nextOrder) {
+        this.root = root;
+        this.size = size;
+        this.nextOrder = nextOrder;
+    }
+
+    /**
+     * 获取空的 ImmutableJsonObject。
+     * @return 空对象
+     */
+    public static ImmutableJsonObject empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 从 JsonObject 深度复制出一个不可变对象。
+     * @param jsonObject 源对象
+     * @return 不可变对象
+     */
+    public static ImmutableJsonObject copyOf(JsonObject jsonObject) {
+        return copyOf(jsonObject.getJSONObject());
+    }
+
+    /**
+     * 从 Map 深度复制出一个不可变对象。
+     * @param map 源 Map
+     * @return 不可变对象
+     */
+    public static ImmutableJsonObject copyOf(Map<String, ?> map) {
+        ImmutableJsonObject result = EMPTY;
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            result = result.with(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 获取键值对的数量。
+     * @return 键值对数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 判断对象是否为空。
+     * @return 如果没有任何键值对则返回 true
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 判断是否包含指定的键。
+     * @param key 键
+     * @return 如果包含则返回 true
+     */
+    public boolean containsKey(String key) {
+        return find(key) != null;
+    }
+
+    /**
+     * 获取指定键对应的值，嵌套的对象和数组以不可变形式返回。
+     * @param key 键
+     * @return 对应的值，不存在时返回 null
+     */
+    public Object get(String key) {
+        Leaf leaf = find(key);
+        return leaf != null ? leaf.value : null;
+    }
+
+    /**
+     * 获取指定键对应的字符串值。
+     * @param key 键
+     * @return 字符串值，不存在时返回 null
+     */
+    public String getAsString(String key) {
+        return asString(get(key));
+    }
+
+    /**
+     * 获取指定键对应的不可变对象，不会产生新的包装对象。
+     * @param key 键
+     * @return 不可变对象，不存在时返回 null
+     */
+    public ImmutableJsonObject getAsJsonObject(String key) {
+        Object value = get(key);
+        if (value == null || value instanceof ImmutableJsonObject) {
+            return (ImmutableJsonObject) value;
+        }
+        throw new JsonException("Value of key '" + key + "' is not an object");
+    }
+
+    /**
+     * 获取指定键对应的不可变数组，不会产生新的包装对象。
+     * @param key 键
+     * @return 不可变数组，不存在时返回 null
+     */
+    public ImmutableJsonArray getAsJsonArray(String key) {
+        Object value = get(key);
+        if (value == null || value instanceof ImmutableJsonArray) {
+            return (ImmutableJsonArray) value;
+        }
+        throw new JsonException("Value of key '" + key + "' is not an array");
+    }
+
+    /**
+     * 获取指定键对应的布尔值。
+     * @param key 键
+     * @return 布尔值，不存在时返回 false
+     */
+    public boolean getAsBoolean(String key) {
+        return asBoolean(get(key));
+    }
+
+    /**
+     * 获取指定键对应的整数值。
+     * @param key 键
+     * @return 整数值，不存在时返回 0
+     */
+    public int getAsInt(String key) {
+        return (int) asLong(get(key));
+    }
+
+    /**
+     * 获取指定键对应的长整型值。
+     * @param key 键
+     * @return 长整型值，不存在时返回 0
+     */
+    public long getAsLong(String key) {
+        return asLong(get(key));
+    }
+
+    /**
+     * 获取指定键对应的双精度浮点数值。
+     * @param key 键
+     * @return 双精度浮点数值，不存在时返回 0
+     */
+    public double getAsDouble(String key) {
+        return asDouble(get(key));
+    }
+
+    /**
+     * 返回设置了指定键值对的新对象，当前对象保持不变。
+     * <p>只复制从根到目标位置的一条路径，耗时与对象大小的对数成正比。值未发生变化时直接返回当前对象。
+     * @param key 键
+     * @param value 值
+     * @return 新的不可变对象
+     */
+    public ImmutableJsonObject with(String key, Object value) {
+        if (key == null) {
+            throw new JsonException("Key must not be null");
+        }
+        Object frozen = freeze(value);
+        int h = spread(key.hashCode());
+        Leaf existing = find(root, h, key);
+        if (existing != null && Objects.equals(existing.value, frozen)) {
+            return this;
+        }
+        long order = existing != null ? existing.order : nextOrder;
+        BitmapNode newRoot = put(root, new Leaf(key, frozen, order, h), 0);
+        return existing != null
+                ? new ImmutableJsonObject(newRoot, size, nextOrder)
+                : new ImmutableJsonObject(newRoot, size + 1, nextOrder + 1);
+    }
+
+    /**
+     * 返回移除了指定键的新对象，当前对象保持不变。
+     * @param key 键
+     * @return 新的不可变对象，键不存在时返回当前对象
+     */
+    public ImmutableJsonObject without(String key) {
+        int h = spread(key.hashCode());
+        if (find(root, h, key) == null) {
+            return this;
+        }
+        return size == 1 ? EMPTY : new ImmutableJsonObject(remove(root, h, key, 0), size - 1, nextOrder);
+    }
+
+    /**
+     * 按插入顺序遍历所有键值对。
+     * @param action 对每个键值对执行的操作
+     */
+    public void forEach(BiConsumer<String, Object> action) {
+        for (Leaf leaf : ordered()) {
+            action.accept(leaf.key, leaf.value);
+        }
+    }
+
+    /**
+     * 按插入顺序获取所有键。
+     * @return 只读的键集合
+     */
+    public Set<String> keySet() {
+        Set<String> keys = new LinkedHashSet<>(size * 2);
+        for (Leaf leaf : ordered()) {
+            keys.add(leaf.key);
+        }
+        return Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * 深度复制为可变的 JsonObject。
+     * @return 可变的 JsonObject
+     */
+    public JsonObject toJsonObject() {
+        return new JsonObject(toJSONObject());
+    }
+
+    /**
+     * 深度复制为 fastjson2 的 JSONObject。
+     * @return JSONObject 实例
+     */
+    public JSONObject toJSONObject() {
+        JSONObject result = new JSONObject(size);
+        for (Leaf leaf : ordered()) {
+            result.put(leaf.key, thaw(leaf.value));
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && size != 0) {
+            for (Leaf leaf : ordered()) {
+                h += leaf.key.hashCode() ^ Objects.hashCode(leaf.value);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ImmutableJsonObject other) || other.size != size) {
+            return false;
+        }
+        if (hash != 0 && other.hash != 0 && hash != other.hash) {
+            return false;
+        }
+        for (Leaf leaf : ordered()) {
+            Leaf match = other.find(leaf.key);
+            if (match == null || !Objects.equals(leaf.value, match.value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 转换为 JSON 字符串。
+     * @return JSON 字符串
+     */
+    @Override
+    public String toString() {
+        return toJSONObject().toJSONString();
+    }
+
+    private Leaf find(String key) {
+        return key == null ? null : find(root, spread(key.hashCode()), key);
+    }
+
+    private Leaf[] ordered() {
+        Leaf[] result = ordered;
+        if (result == null) {
+            result = new Leaf[size];
+            collect(root, result, 0);
+            Arrays.sort(result, (a, b) -> Long.compare(a.order, b.order));
+            // 填充和排序完成后才发布
+            ordered = result;
+        }
+        return result;
+    }
+
+    private static int collect(Object node, Leaf[] target, int index) {
+        if (node instanceof Leaf leaf) {
+            target[index++] = leaf;
+        } else if (node instanceof Collision collision) {
+            for (Leaf leaf : collision.leaves) {
+                target[index++] = leaf;
+            }
+        } else {
+            for (Object slot : ((BitmapNode) node).slots) {
+                index = collect(slot, target, index);
+            }
+        }
+        return index;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static Leaf find(BitmapNode root, int hash, String key) {
+        Object node = root;
+        int shift = 0;
+        while (true) {
+            if (node instanceof BitmapNode bitmapNode) {
+                int bit = 1 << ((hash >>> shift) & MASK);
+                if ((bitmapNode.bitmap & bit) == 0) {
+                    return null;
+                }
+                node = bitmapNode.slots[Integer.bitCount(bitmapNode.bitmap & (bit - 1))];
+                shift += BITS;
+            } else if (node instanceof Leaf leaf) {
+                return leaf.hash == hash && leaf.key.equals(key) ? leaf : null;
+            } else {
+                Collision collision = (Collision) node;
+                if (collision.hash != hash) {
+                    return null;
+                }
+                for (Leaf leaf : collision.leaves) {
+                    if (leaf.key.equals(key)) {
+                        return leaf;
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    private static BitmapNode put(BitmapNode node, Leaf leaf, int shift) {
+        int bit = 1 << ((leaf.hash >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            slots[index] = leaf;
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            return new BitmapNode(node.bitmap | bit, slots);
+        }
+        Object existing = node.slots[index];
+        Object replacement;
+        if (existing instanceof BitmapNode child) {
+            replacement = put(child, leaf, shift + BITS);
+        } else if (existing instanceof Leaf other) {
+            if (other.key.equals(leaf.key)) {
+                replacement = leaf;
+            } else if (other.hash == leaf.hash) {
+                replacement = new Collision(leaf.hash, new Leaf[]{other, leaf});
+            } else {
+                replacement = put(put(EMPTY_NODE, other, shift + BITS), leaf, shift + BITS);
+            }
+        } else {
+            Collision collision = (Collision) existing;
+            if (collision.hash == leaf.hash) {
+                replacement = collision.put(leaf);
+            } else {
+                int collisionBit = 1 << ((collision.hash >>> (shift + BITS)) & MASK);
+                replacement = put(new BitmapNode(collisionBit, new Object[]{collision}), leaf, shift + BITS);
+            }
+        }
+        Object[] slots = node.slots.clone();
+        slots[index] = replacement;
+        return new BitmapNode(node.bitmap, slots);
+    }
+
+    private static BitmapNode remove(BitmapNode node, int hash, String key, int shift) {
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object existing = node.slots[index];
+        Object replacement = null;
+        if (existing instanceof BitmapNode child) {
+            BitmapNode removed = remove(child, hash, key, shift + BITS);
+            if (removed.slots.length == 1 && !(removed.slots[0] instanceof BitmapNode)) {
+                replacement = removed.slots[0];
+            } else if (removed.slots.length > 0) {
+                replacement = removed;
+            }
+        } else if (existing instanceof Collision collision) {
+            replacement = collision.remove(key);
+        }
+        if (replacement == null) {
+            Object[] slots = new Object[node.slots.length - 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+            return new BitmapNode(node.bitmap & ~bit, slots);
+        }
+        Object[] slots = node.slots.clone();
+        slots[index] = replacement;
+        return new BitmapNode(node.bitmap, slots);
+    }
+
+    /**
+     * 将值转换为不可变形式，嵌套的对象和数组会被递归复制。
+     */
+    @SuppressWarnings("unchecked")
+    static Object freeze(Object value) {
+        if (value instanceof JsonObject jo) {
+            return copyOf(jo);
+        } else if (value instanceof JsonArray ja) {
+            return ImmutableJsonArray.copyOf(ja);
+        } else if (value instanceof Map<?, ?> map) {
+            return copyOf((Map<String, ?>) map);
+        } else if (value instanceof Collection<?> collection) {
+            return ImmutableJsonArray.copyOf(collection);
+        }
+        return value;
+    }
+
+    /**
+     * 将不可变形式的值还原为 fastjson2 的可变容器。
+     */
+    static Object thaw(Object value) {
+        if (value instanceof ImmutableJsonObject object) {
+            return object.toJSONObject();
+        } else if (value instanceof ImmutableJsonArray array) {
+            return array.toJSONArray();
+        }
+        return value;
+    }
+
+    static String asString(Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        return value.toString();
+    }
+
+    static boolean asBoolean(Object value) {
+        if (value instanceof Boolean b) {
+            return b;
+        } else if (value instanceof Number n) {
+            return n.intValue() != 0;
+        } else if (value instanceof String s) {
+            return Boolean.parseBoolean(s) || "1".equals(s);
+        }
+        return false;
+    }
+
+    static long asLong(Object value) {
+        if (value instanceof Number n) {
+            return n.longValue();
+        } else if (value instanceof Boolean b) {
+            return b ? 1 : 0;
+        } else if (value instanceof String s && !s.isEmpty()) {
+            try {
+                return Long.parseLong(s);
+            } catch (NumberFormatException e) {
+                return (long) Double.parseDouble(s);
+            }
+        }
+        return 0L;
+    }
+
+    static double asDouble(Object value) {
+        if (value instanceof Number n) {
+            return n.doubleValue();
+        } else if (value instanceof Boolean b) {
+            return b ? 1 : 0;
+        } else if (value instanceof String s && !s.isEmpty()) {
+            return Double.parseDouble(s);
+        }
+        return 0D;
+    }
+
+    /**
+     * 键值对叶子节点，order 记录键第一次插入时的序号。
+     */
+    private static final class Leaf {
+        final String key;
+        final Object value;
+        final long order;
+        final int hash;
+
+        Leaf(String key, Object value, long order, int hash) {
+            this.key = key;
+            this.value = value;
+            this.order = order;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * 位图索引节点，每一位表示对应的 5 位哈希片段是否存在，slots 中只存放存在的子节点。
+     */
+    private static final class BitmapNode {
+        final int bitmap;
+        final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * 哈希值完全相同的键值对。
+     */
+    private static final class Collision {
+        final int hash;
+        final Leaf[] leaves;
+
+        Collision(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        Collision put(Leaf leaf) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].key.equals(leaf.key)) {
+                    Leaf[] copy = leaves.clone();
+                    copy[i] = leaf;
+                    return new Collision(hash, copy);
+                }
+            }
+            Leaf[] copy = Arrays.copyOf(leaves, leaves.length + 1);
+            copy[leaves.length] = leaf;
+            return new Collision(hash, copy);
+        }
+
+        Object remove(String key) {
+            if (leaves.length == 2) {
+                return leaves[0].key.equals(key) ? leaves[1] : leaves[0];
+            }
+            Leaf[] copy = new Leaf[leaves.length - 1];
+            int j = 0;
+            for (Leaf leaf : leaves) {
+                if (!leaf.key.equals(key)) {
+                    copy[j++] = leaf;
+                }
+            }
+            return new Collision(hash, copy);
+        }
+    }
+}
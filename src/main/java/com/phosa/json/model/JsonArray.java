@@ -296,6 +296,55 @@ public class JsonArray {
         return this.jsonArray.toJSONString();
     }
 
+    /**
+     * 深度优先遍历整个数组，遍历过程直接作用于底层容器，不会创建包装对象。
+     * @param visitor 访问者
+     */
+    public void accept(JsonVisitor visitor) {
+        JsonWalker.walk(this.jsonArray, visitor);
+    }
+
+    /**
+     * 遍历所有叶子节点，回调参数为叶子节点的路径和值。
+     * @param callback 叶子节点回调
+     */
+    public void forEachLeaf(JsonVisitor.LeafCallback callback) {
+        accept(JsonVisitor.ofLeaves(callback));
+    }
+
+    /**
+     * 创建指向当前数组的游标。
+     * @return 游标
+     */
+    public JsonCursor cursor() {
+        return JsonCursor.of(this);
+    }
+
+    /**
+     * 深度复制为不可变数组，复制结果可以在多个线程之间安全共享。
+     * @return 不可变数组
+     */
+    public ImmutableJsonArray freeze() {
+        return ImmutableJsonArray.copyOf(this);
+    }
+
+    /**
+     * 将数组序列化为 JSONB 二进制格式。
+     * @return JSONB 字节数组
+     */
+    public byte[] toBytes() {
+        return JsonUtil.toBytes(this);
+    }
+
+    /**
+     * 从 JSONB 二进制数据还原 JsonArray。
+     * @param bytes JSONB 字节数组
+     * @return JsonArray 实例
+     */
+    public static JsonArray fromBytes(byte[] bytes) {
+        return JsonUtil.parseBytesToJSONArray(bytes);
+    }
+
     /**
      * 获取内部的 JSONArray 对象。
      * @return 内部的 JSONArray 实例
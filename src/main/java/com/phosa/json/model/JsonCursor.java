@@ -0,0 +1,221 @@
+package com.phosa.json.model;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可复用的 JSON 游标，直接在底层 fastjson2 容器上移动，不会为途经的节点创建包装对象。
+ * <p>游标是可变的、非线程安全的，适合在循环中反复定位同一棵树上的不同位置：
+ * <pre>{@code
+ *     JsonCursor cursor = JsonCursor.of(doc);
+ *     for (int i = 0; i < n; i++) {
+ *         long id = cursor.reset().field("items").index(i).field("id").getLong();
+ *     }
+ * }</pre>
+ * 路径不存在时游标进入“缺失”状态，后续移动都不会再生效，取值方法返回默认值。
+ */
+public final class JsonCursor {
+    private final Object root;
+    private Object current;
+    private boolean missing;
+
+    private JsonCursor(Object root) {
+        this.root = root;
+        this.current = root;
+    }
+
+    /**
+     * 创建指向对象根节点的游标。
+     * @param jsonObject 根对象
+     * @return 游标
+     */
+    public static JsonCursor of(JsonObject jsonObject) {
+        return new JsonCursor(jsonObject.getJSONObject());
+    }
+
+    /**
+     * 创建指向数组根节点的游标。
+     * @param jsonArray 根数组
+     * @return 游标
+     */
+    public static JsonCursor of(JsonArray jsonArray) {
+        return new JsonCursor(jsonArray.getJSONArray());
+    }
+
+    /**
+     * 回到根节点。
+     * @return 当前游标，便于链式调用
+     */
+    public JsonCursor reset() {
+        current = root;
+        missing = false;
+        return this;
+    }
+
+    /**
+     * 移动到当前对象中指定键对应的节点。
+     * @param key 键
+     * @return 当前游标，便于链式调用
+     */
+    public JsonCursor field(String key) {
+        if (!missing && current instanceof Map<?, ?> map) {
+            Object value = map.get(key);
+            if (value != null || map.containsKey(key)) {
+                current = value;
+                return this;
+            }
+        }
+        missing = true;
+        return this;
+    }
+
+    /**
+     * 移动到当前数组中指定下标的元素。
+     * @param index 数组下标
+     * @return 当前游标，便于链式调用
+     */
+    public JsonCursor index(int index) {
+        if (!missing && current instanceof List<?> list && index >= 0 && index < list.size()) {
+            current = list.get(index);
+            return this;
+        }
+        missing = true;
+        return this;
+    }
+
+    /**
+     * 依次移动到给定的键。
+     * @param keys 键路径
+     * @return 当前游标，便于链式调用
+     */
+    public JsonCursor path(String... keys) {
+        for (String key : keys) {
+            field(key);
+        }
+        return this;
+    }
+
+    /**
+     * 判断当前位置是否存在。
+     * @return 如果路径存在则返回 true，值为 null 的键也视为存在
+     */
+    public boolean exists() {
+        return !missing;
+    }
+
+    /**
+     * 判断当前节点是否为对象。
+     * @return 如果是对象则返回 true
+     */
+    public boolean isObject() {
+        return !missing && current instanceof Map<?, ?>;
+    }
+
+    /**
+     * 判断当前节点是否为数组。
+     * @return 如果是数组则返回 true
+     */
+    public boolean isArray() {
+        return !missing && current instanceof List<?>;
+    }
+
+    /**
+     * 判断当前节点是否为 null 或不存在。
+     * @return 如果为 null 或不存在则返回 true
+     */
+    public boolean isNull() {
+        return missing || current == null;
+    }
+
+    /**
+     * 获取当前对象或数组的大小。
+     * @return 对象的键值对数量或数组的元素数量，其它节点返回 0
+     */
+    public int size() {
+        if (missing) {
+            return 0;
+        } else if (current instanceof Map<?, ?> map) {
+            return map.size();
+        } else if (current instanceof List<?> list) {
+            return list.size();
+        }
+        return 0;
+    }
+
+    /**
+     * 获取当前节点的原始值。
+     * @return 原始值，不存在时返回 null
+     */
+    public Object value() {
+        return missing ? null : current;
+    }
+
+    /**
+     * 获取当前节点的字符串值。
+     * @return 字符串值，不存在时返回 null
+     */
+    public String getString() {
+        return ImmutableJsonObject.asString(value());
+    }
+
+    /**
+     * 获取当前节点的整数值。
+     * @return 整数值，不存在时返回 0
+     */
+    public int getInt() {
+        return (int) ImmutableJsonObject.asLong(value());
+    }
+
+    /**
+     * 获取当前节点的长整型值。
+     * @return 长整型值，不存在时返回 0
+     */
+    public long getLong() {
+        return ImmutableJsonObject.asLong(value());
+    }
+
+    /**
+     * 获取当前节点的双精度浮点数值。
+     * @return 双精度浮点数值，不存在时返回 0
+     */
+    public double getDouble() {
+        return ImmutableJsonObject.asDouble(value());
+    }
+
+    /**
+     * 获取当前节点的布尔值。
+     * @return 布尔值，不存在时返回 false
+     */
+    public boolean getBoolean() {
+        return ImmutableJsonObject.asBoolean(value());
+    }
+
+    /**
+     * 以当前节点为根进行遍历。
+     * @param visitor 访问者
+     */
+    public void accept(JsonVisitor visitor) {
+        if (!missing) {
+            JsonWalker.walk(current, visitor);
+        }
+    }
+
+    /**
+     * 将当前节点包装为 JsonObject，包装对象与原树共享数据。
+     * @return JsonObject，当前节点不是对象时返回 null
+     */
+    public JsonObject toJsonObject() {
+        return !missing && current instanceof JSONObject object ? new JsonObject(object) : null;
+    }
+
+    /**
+     * 将当前节点包装为 JsonArray，包装对象与原树共享数据。
+     * @return JsonArray，当前节点不是数组时返回 null
+     */
+    public JsonArray toJsonArray() {
+        return !missing && current instanceof JSONArray array ? new JsonArray(array) : null;
+    }
+}
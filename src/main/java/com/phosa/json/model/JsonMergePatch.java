@@ -0,0 +1,92 @@
+package com.phosa.json.model;
+
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.Map;
+
+/**
+ * RFC 7386 JSON Merge Patch 的差异计算与应用。
+ * <p>合并补丁本身就是一个 JSON 对象：值为 null 的键表示删除，对象类型的值递归合并，其它值直接覆盖。
+ * 合并补丁无法表达“把值设为 null”和数组内部的局部修改，需要时请使用 {@link JsonPatch}。
+ */
+public final class JsonMergePatch {
+
+    private JsonMergePatch() {
+
+    }
+
+    /**
+     * 计算从 source 变换到 target 所需的合并补丁。
+     * <p>结构哈希相同且内容相等的子树会被整体跳过。target 中值为 null 的键会被视为删除。
+     *
+     * @param source 原始对象
+     * @param target 目标对象
+     * @return 合并补丁
+     */
+    public static JsonObject diff(JsonObject source, JsonObject target) {
+        return new JsonObject(diff(new JsonNodes.Hasher(), source.getJSONObject(), target.getJSONObject()));
+    }
+
+    /**
+     * 将合并补丁原地应用到对象上，补丁中的值会被复制后再写入。
+     *
+     * @param target 需要更新的对象
+     * @param patch 合并补丁
+     */
+    public static void apply(JsonObject target, JsonObject patch) {
+        merge(target.getJSONObject(), patch.getJSONObject());
+    }
+
+    private static JSONObject diff(JsonNodes.Hasher hasher, Map<String, Object> source, Map<String, Object> target) {
+        JSONObject patch = new JSONObject();
+        for (String key : source.keySet()) {
+            if (target.get(key) == null && source.get(key) != null) {
+                patch.put(key, null);
+            }
+        }
+        for (Map.Entry<String, Object> entry : target.entrySet()) {
+            Object targetValue = entry.getValue();
+            if (targetValue == null) {
+                continue;
+            }
+            Object sourceValue = source.get(entry.getKey());
+            if (hasher.same(sourceValue, targetValue)) {
+                continue;
+            }
+            if (sourceValue instanceof JSONObject s && targetValue instanceof JSONObject t) {
+                JSONObject nested = diff(hasher, s, t);
+                if (!nested.isEmpty()) {
+                    patch.put(entry.getKey(), nested);
+                }
+            } else {
+                patch.put(entry.getKey(), JsonNodes.deepCopy(targetValue));
+            }
+        }
+        return patch;
+    }
+
+    private static void merge(Map<String, Object> target, Map<?, ?> patch) {
+        for (Map.Entry<?, ?> entry : patch.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            Object value = entry.getValue();
+            if (value == null) {
+                target.remove(key);
+            } else if (value instanceof Map<?, ?> nestedPatch) {
+                Object existing = target.get(key);
+                JSONObject nestedTarget;
+                if (existing instanceof JSONObject object) {
+                    nestedTarget = object;
+                } else if (existing instanceof Map<?, ?> map) {
+                    // 普通 Map 复制为 JSONObject 后再合并，保留原有字段
+                    nestedTarget = new JSONObject(map);
+                } else {
+                    nestedTarget = new JSONObject();
+                }
+                merge(nestedTarget, nestedPatch);
+                target.put(key, nestedTarget);
+            } else {
+                target.put(key, JsonNodes.deepCopy(value));
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.phosa.json.model;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.math.BigDecimal;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 在 fastjson2 原生树（Map、List 和标量）上进行比较、哈希和复制的工具。
+ * <p>数值按 JSON 语义比较，例如 {@code 1}、{@code 1L} 和 {@code 1.0} 视为相等。
+ */
+public final class JsonNodes {
+
+    private JsonNodes() {
+
+    }
+
+    /**
+     * 带记忆的结构哈希，每个容器节点在一次比较过程中只会被计算一次。
+     */
+    static final class Hasher {
+        private final IdentityHashMap<Object, Integer> cache = new IdentityHashMap<>();
+
+        int hash(Object value) {
+            if (value instanceof Map<?, ?> || value instanceof List<?>) {
+                Integer cached = cache.get(value);
+                if (cached != null) {
+                    return cached;
+                }
+                int h = 0;
+                if (value instanceof Map<?, ?> map) {
+                    for (Map.Entry<?, ?> entry : map.entrySet()) {
+                        h += entry.getKey().hashCode() ^ hash(entry.getValue());
+                    }
+                } else {
+                    h = 1;
+                    for (Object element : (List<?>) value) {
+                        h = 31 * h + hash(element);
+                    }
+                }
+                cache.put(value, h);
+                return h;
+            }
+            return scalarHash(value);
+        }
+
+        /**
+         * 判断两个节点是否相等，哈希值不同的节点无需逐个比较。
+         */
+        boolean same(Object a, Object b) {
+            return a == b || (hash(a) == hash(b) && deepEquals(a, b));
+        }
+    }
+
+    /**
+     * 计算节点的结构哈希，与 {@link #deepEquals(Object, Object)} 保持一致。
+     *
+     * @param value 节点
+     * @return 哈希值
+     */
+    public static int hash(Object value) {
+        return new Hasher().hash(value);
+    }
+
+    static int scalarHash(Object value) {
+        if (value instanceof Number number) {
+            return Double.hashCode(number.doubleValue());
+        }
+        return Objects.hashCode(value);
+    }
+
+    /**
+     * 按 JSON 语义判断两个节点是否相等。
+     *
+     * @param a 节点
+     * @param b 节点
+     * @return 如果相等则返回 true
+     */
+    public static boolean deepEquals(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a instanceof Map<?, ?> ma && b instanceof Map<?, ?> mb) {
+            if (ma.size() != mb.size()) {
+                return false;
+            }
+            for (Map.Entry<?, ?> entry : ma.entrySet()) {
+                Object other = mb.get(entry.getKey());
+                if (other == null && !mb.containsKey(entry.getKey())) {
+                    return false;
+                }
+                if (!deepEquals(entry.getValue(), other)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof List<?> la && b instanceof List<?> lb) {
+            if (la.size() != lb.size()) {
+                return false;
+            }
+            Iterator<?> ia = la.iterator();
+            Iterator<?> ib = lb.iterator();
+            while (ia.hasNext()) {
+                if (!deepEquals(ia.next(), ib.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof Number na && b instanceof Number nb) {
+            return numberEquals(na, nb);
+        }
+        return Objects.equals(a, b);
+    }
+
+    private static boolean numberEquals(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return a.longValue() == b.longValue();
+        }
+        if (a instanceof Double || a instanceof Float || b instanceof Double || b instanceof Float) {
+            return Double.compare(a.doubleValue(), b.doubleValue()) == 0;
+        }
+        return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString())) == 0;
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte;
+    }
+
+    /**
+     * 深度复制节点，包装类会被还原为 fastjson2 的原生容器。
+     *
+     * @param value 节点
+     * @return 复制后的节点
+     */
+    public static Object deepCopy(Object value) {
+        if (value instanceof JsonObject jo) {
+            value = jo.getJSONObject();
+        } else if (value instanceof JsonArray ja) {
+            value = ja.getJSONArray();
+        }
+        if (value instanceof Map<?, ?> map) {
+            JSONObject copy = new JSONObject(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(String.valueOf(entry.getKey()), deepCopy(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            JSONArray copy = new JSONArray(list.size());
+            for (Object element : list) {
+                copy.add(deepCopy(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * 按 RFC 6901 转义 JSON Pointer 中的一段。
+     */
+    static String escape(String token) {
+        if (token.indexOf('~') < 0 && token.indexOf('/') < 0) {
+            return token;
+        }
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * 按 RFC 6901 还原 JSON Pointer 中的一段。
+     */
+    static String unescape(String token) {
+        if (token.indexOf('~') < 0) {
+            return token;
+        }
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
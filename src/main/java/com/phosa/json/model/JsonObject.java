@@ -2,6 +2,7 @@ package com.phosa.json.model;
 
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
+import com.phosa.json.JsonUtil;
 import com.phosa.json.exception.JsonException;
 
 import java.util.Arrays;
@@ -103,20 +104,68 @@ public class JsonObject {
         return false;
     }
     public String getNestedValue(String... keys) {
-        JsonObject current = this;
+        JSONObject current = this.jsonObject;
         for (String k : keys) {
-            if (current != null) {
-                current = current.getAsJsonObject(k);
-            } else {
+            if (current == null) {
                 throw new JsonException("Invalid key path: " + Arrays.toString(keys));
             }
+            current = current.getJSONObject(k);
         }
-        return current != null ? current.toString() : "";
+        return JSON.toJSONString(current);
+    }
+
+    /**
+     * 深度优先遍历整个对象，遍历过程直接作用于底层容器，不会创建包装对象。
+     * @param visitor 访问者
+     */
+    public void accept(JsonVisitor visitor) {
+        JsonWalker.walk(this.jsonObject, visitor);
+    }
+
+    /**
+     * 遍历所有叶子节点，回调参数为叶子节点的路径和值。
+     * @param callback 叶子节点回调
+     */
+    public void forEachLeaf(JsonVisitor.LeafCallback callback) {
+        accept(JsonVisitor.ofLeaves(callback));
+    }
+
+    /**
+     * 创建指向当前对象的游标。
+     * @return 游标
+     */
+    public JsonCursor cursor() {
+        return JsonCursor.of(this);
     }
     public String toString() {
         return JSON.toJSONString(this.jsonObject);
     }
 
+    /**
+     * 深度复制为不可变对象，复制结果可以在多个线程之间安全共享。
+     * @return 不可变对象
+     */
+    public ImmutableJsonObject freeze() {
+        return ImmutableJsonObject.copyOf(this);
+    }
+
+    /**
+     * 序列化为 JSONB 二进制格式。
+     * @return JSONB 字节数组
+     */
+    public byte[] toBytes() {
+        return JsonUtil.toBytes(this);
+    }
+
+    /**
+     * 从 JSONB 二进制数据还原 JsonObject。
+     * @param bytes JSONB 字节数组
+     * @return JsonObject 实例
+     */
+    public static JsonObject fromBytes(byte[] bytes) {
+        return JsonUtil.parseBytesToJSONObject(bytes);
+    }
+
     public JSONObject getJSONObject() {
         return jsonObject;
     }
@@ -0,0 +1,367 @@
+package com.phosa.json.model;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.phosa.json.exception.JsonException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 6902 JSON Patch 的差异计算与应用。
+ * <p>补丁以 {@link JsonArray} 表示，每个元素都是形如 {@code {"op":"replace","path":"/a/b","value":1}} 的操作对象，
+ * 可以直接通过 {@code toString()} 发送给其他服务。
+ * <p>使用示例：
+ * <pre>{@code
+ *     JsonArray patch = JsonPatch.diff(oldDoc, newDoc);
+ *     // 对端收到补丁后原地更新自己的副本
+ *     JsonPatch.apply(replica, patch);
+ * }</pre>
+ */
+public final class JsonPatch {
+    public static final String ADD = "add";
+    public static final String REMOVE = "remove";
+    public static final String REPLACE = "replace";
+    public static final String MOVE = "move";
+    public static final String COPY = "copy";
+    public static final String TEST = "test";
+
+    private JsonPatch() {
+
+    }
+
+    /**
+     * 计算从 source 变换到 target 所需的补丁。
+     * <p>每个子树的结构哈希只计算一次，哈希相同且内容相等的子树会被整体跳过；数组先去掉相同的前缀和后缀，
+     * 因此补丁的大小与变化量成正比，而不是与文档大小成正比。
+     *
+     * @param source 原始对象
+     * @param target 目标对象
+     * @return 补丁操作数组
+     */
+    public static JsonArray diff(JsonObject source, JsonObject target) {
+        Differ differ = new Differ();
+        differ.diffValue("", source.getJSONObject(), target.getJSONObject());
+        return new JsonArray(differ.operations);
+    }
+
+    /**
+     * 计算从 source 变换到 target 所需的补丁。
+     *
+     * @param source 原始数组
+     * @param target 目标数组
+     * @return 补丁操作数组
+     * @see #diff(JsonObject, JsonObject)
+     */
+    public static JsonArray diff(JsonArray source, JsonArray target) {
+        Differ differ = new Differ();
+        differ.diffValue("", source.getJSONArray(), target.getJSONArray());
+        return new JsonArray(differ.operations);
+    }
+
+    /**
+     * 将补丁原地应用到对象上。
+     * <p>补丁中的值会被复制后再写入，不会与补丁共享结构。任一操作失败时抛出 {@link JsonException}，
+     * 此时之前的操作已经生效，如需原子性请先在副本上应用。
+     *
+     * @param target 需要更新的对象
+     * @param patch 补丁操作数组
+     */
+    public static void apply(JsonObject target, JsonArray patch) {
+        applyTo(target.getJSONObject(), patch);
+    }
+
+    /**
+     * 将补丁原地应用到数组上。
+     *
+     * @param target 需要更新的数组
+     * @param patch 补丁操作数组
+     * @see #apply(JsonObject, JsonArray)
+     */
+    public static void apply(JsonArray target, JsonArray patch) {
+        applyTo(target.getJSONArray(), patch);
+    }
+
+    private static void applyTo(Object root, JsonArray patch) {
+        for (int i = 0; i < patch.size(); i++) {
+            if (!(patch.get(i) instanceof Map<?, ?> operation)) {
+                throw new JsonException("Patch operation at index " + i + " is not an object");
+            }
+            String op = stringMember(operation, "op");
+            String path = stringMember(operation, "path");
+            switch (op) {
+                case ADD -> add(root, path, JsonNodes.deepCopy(valueMember(operation)));
+                case REMOVE -> remove(root, path);
+                case REPLACE -> replace(root, path, JsonNodes.deepCopy(valueMember(operation)));
+                case MOVE -> {
+                    String from = stringMember(operation, "from");
+                    if (path.startsWith(from + "/")) {
+                        throw new JsonException("Cannot move " + from + " into its own child " + path);
+                    }
+                    if (!from.equals(path)) {
+                        add(root, path, remove(root, from));
+                    }
+                }
+                case COPY -> add(root, path, JsonNodes.deepCopy(resolve(root, stringMember(operation, "from"))));
+                case TEST -> {
+                    if (!JsonNodes.deepEquals(resolve(root, path), valueMember(operation))) {
+                        throw new JsonException("Test failed at " + path);
+                    }
+                }
+                default -> throw new JsonException("Unknown patch operation: " + op);
+            }
+        }
+    }
+
+    private static String stringMember(Map<?, ?> operation, String name) {
+        Object value = operation.get(name);
+        if (!(value instanceof String s)) {
+            throw new JsonException("Patch operation is missing '" + name + "': " + operation);
+        }
+        return s;
+    }
+
+    private static Object valueMember(Map<?, ?> operation) {
+        if (!operation.containsKey("value")) {
+            throw new JsonException("Patch operation is missing 'value': " + operation);
+        }
+        return operation.get("value");
+    }
+
+    private static Object resolve(Object root, String path) {
+        Object current = root;
+        for (String token : parse(path)) {
+            current = NodeRef.child(current, token, path);
+        }
+        return current;
+    }
+
+    private static void add(Object root, String path, Object value) {
+        NodeRef ref = NodeRef.parent(root, path);
+        if (ref == null) {
+            replaceRoot(root, value);
+        } else if (ref.isObject()) {
+            ref.object().put(ref.token, value);
+        } else {
+            List<Object> array = ref.array();
+            int index = "-".equals(ref.token) ? array.size() : NodeRef.index(ref.token, array.size() + 1, path);
+            array.add(index, value);
+        }
+    }
+
+    private static Object remove(Object root, String path) {
+        NodeRef ref = NodeRef.parent(root, path);
+        if (ref == null) {
+            throw new JsonException("Cannot remove the document root");
+        }
+        if (ref.isObject()) {
+            Map<String, Object> object = ref.object();
+            if (!object.containsKey(ref.token)) {
+                throw new JsonException("Path does not exist: " + path);
+            }
+            return object.remove(ref.token);
+        }
+        List<Object> array = ref.array();
+        return array.remove(NodeRef.index(ref.token, array.size(), path));
+    }
+
+    private static void replace(Object root, String path, Object value) {
+        NodeRef ref = NodeRef.parent(root, path);
+        if (ref == null) {
+            replaceRoot(root, value);
+        } else if (ref.isObject()) {
+            Map<String, Object> object = ref.object();
+            if (!object.containsKey(ref.token)) {
+                throw new JsonException("Path does not exist: " + path);
+            }
+            object.put(ref.token, value);
+        } else {
+            List<Object> array = ref.array();
+            array.set(NodeRef.index(ref.token, array.size(), path), value);
+        }
+    }
+
+    /**
+     * 根节点无法被原地替换为另一个实例，因此清空后填入新内容，且要求类型一致。
+     */
+    @SuppressWarnings("unchecked")
+    private static void replaceRoot(Object root, Object value) {
+        if (root instanceof Map<?, ?> object && value instanceof Map<?, ?> map) {
+            object.clear();
+            ((Map<String, Object>) object).putAll((Map<String, Object>) map);
+        } else if (root instanceof List<?> array && value instanceof List<?> list) {
+            array.clear();
+            ((List<Object>) array).addAll(list);
+        } else {
+            throw new JsonException("Cannot replace the document root with a value of a different type");
+        }
+    }
+
+    static List<String> parse(String path) {
+        List<String> tokens = new ArrayList<>();
+        if (path.isEmpty()) {
+            return tokens;
+        }
+        if (path.charAt(0) != '/') {
+            throw new JsonException("Invalid JSON pointer: " + path);
+        }
+        int start = 1;
+        while (true) {
+            int slash = path.indexOf('/', start);
+            if (slash < 0) {
+                tokens.add(JsonNodes.unescape(path.substring(start)));
+                return tokens;
+            }
+            tokens.add(JsonNodes.unescape(path.substring(start, slash)));
+            start = slash + 1;
+        }
+    }
+
+    /**
+     * 指向某个容器中一个成员的位置。
+     */
+    private static final class NodeRef {
+        final Object container;
+        final String token;
+
+        private NodeRef(Object container, String token) {
+            this.container = container;
+            this.token = token;
+        }
+
+        /**
+         * 定位路径的父容器，路径为文档根时返回 null。
+         */
+        static NodeRef parent(Object root, String path) {
+            List<String> tokens = parse(path);
+            if (tokens.isEmpty()) {
+                return null;
+            }
+            Object current = root;
+            for (int i = 0; i < tokens.size() - 1; i++) {
+                current = child(current, tokens.get(i), path);
+            }
+            if (!(current instanceof Map<?, ?>) && !(current instanceof List<?>)) {
+                throw new JsonException("Parent of " + path + " is not a container");
+            }
+            return new NodeRef(current, tokens.get(tokens.size() - 1));
+        }
+
+        boolean isObject() {
+            return container instanceof Map<?, ?>;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object() {
+            return (Map<String, Object>) container;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object> array() {
+            return (List<Object>) container;
+        }
+
+        static Object child(Object current, String token, String path) {
+            if (current instanceof Map<?, ?> map) {
+                if (!map.containsKey(token)) {
+                    throw new JsonException("Path does not exist: " + path);
+                }
+                return map.get(token);
+            }
+            if (current instanceof List<?> list) {
+                return list.get(index(token, list.size(), path));
+            }
+            throw new JsonException("Path does not exist: " + path);
+        }
+
+        static int index(String token, int bound, String path) {
+            if (token.isEmpty() || (token.length() > 1 && token.charAt(0) == '0')) {
+                throw new JsonException("Invalid array index in " + path);
+            }
+            int index;
+            try {
+                index = Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw new JsonException("Invalid array index in " + path, e);
+            }
+            if (index < 0 || index >= bound) {
+                throw new JsonException("Array index out of bounds in " + path);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 一次差异计算的状态。
+     */
+    private static final class Differ {
+        final JsonNodes.Hasher hasher = new JsonNodes.Hasher();
+        final JSONArray operations = new JSONArray();
+
+        void diffValue(String path, Object source, Object target) {
+            if (hasher.same(source, target)) {
+                return;
+            }
+            if (source instanceof Map<?, ?> s && target instanceof Map<?, ?> t) {
+                diffObject(path, s, t);
+            } else if (source instanceof List<?> s && target instanceof List<?> t) {
+                diffArray(path, s, t);
+            } else {
+                operations.add(operation(REPLACE, path, target));
+            }
+        }
+
+        void diffObject(String path, Map<?, ?> source, Map<?, ?> target) {
+            for (Object key : source.keySet()) {
+                if (!target.containsKey(key)) {
+                    operations.add(operation(REMOVE, path + "/" + JsonNodes.escape(String.valueOf(key)), null));
+                }
+            }
+            for (Map.Entry<?, ?> entry : target.entrySet()) {
+                String childPath = path + "/" + JsonNodes.escape(String.valueOf(entry.getKey()));
+                Object sourceValue = source.get(entry.getKey());
+                if (sourceValue == null && !source.containsKey(entry.getKey())) {
+                    operations.add(operation(ADD, childPath, entry.getValue()));
+                } else {
+                    diffValue(childPath, sourceValue, entry.getValue());
+                }
+            }
+        }
+
+        void diffArray(String path, List<?> source, List<?> target) {
+            int start = 0;
+            int sourceEnd = source.size();
+            int targetEnd = target.size();
+            while (start < sourceEnd && start < targetEnd && hasher.same(source.get(start), target.get(start))) {
+                start++;
+            }
+            while (sourceEnd > start && targetEnd > start
+                    && hasher.same(source.get(sourceEnd - 1), target.get(targetEnd - 1))) {
+                sourceEnd--;
+                targetEnd--;
+            }
+            int common = Math.min(sourceEnd, targetEnd) - start;
+            for (int i = 0; i < common; i++) {
+                diffValue(path + "/" + (start + i), source.get(start + i), target.get(start + i));
+            }
+            int position = start + common;
+            for (int i = sourceEnd - targetEnd; i > 0; i--) {
+                operations.add(operation(REMOVE, path + "/" + position, null));
+            }
+            for (int i = position; i < targetEnd; i++) {
+                operations.add(operation(ADD, path + "/" + i, target.get(i)));
+            }
+        }
+
+        static JSONObject operation(String op, String path, Object value) {
+            JSONObject operation = new JSONObject();
+            operation.put("op", op);
+            operation.put("path", path);
+            if (!REMOVE.equals(op)) {
+                operation.put("value", JsonNodes.deepCopy(value));
+            }
+            return operation;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.phosa.json.model;
+
+import java.util.Arrays;
+
+/**
+ * 遍历过程中当前节点的路径。
+ * <p>同一次遍历只使用一个 JsonPath 实例，进入和离开节点时原地压栈、出栈，因此遍历本身不会为路径分配对象。
+ * 实例只在回调期间有效，如需保存请调用 {@link #toString()} 或 {@link #toPointer()}。
+ */
+public final class JsonPath {
+    private String[] keys = new String[16];
+    private int[] indices = new int[16];
+    private int depth;
+
+    JsonPath() {
+
+    }
+
+    /**
+     * 获取路径深度，根节点为 0。
+     * @return 路径深度
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * 判断第 level 段是否为数组下标。
+     * @param level 段序号，从 0 开始
+     * @return 如果是数组下标则返回 true
+     */
+    public boolean isIndex(int level) {
+        checkLevel(level);
+        return keys[level] == null;
+    }
+
+    /**
+     * 获取第 level 段的键。
+     * @param level 段序号，从 0 开始
+     * @return 对象的键，该段为数组下标时返回 null
+     */
+    public String key(int level) {
+        checkLevel(level);
+        return keys[level];
+    }
+
+    /**
+     * 获取第 level 段的数组下标。
+     * @param level 段序号，从 0 开始
+     * @return 数组下标，该段为对象的键时返回 -1
+     */
+    public int index(int level) {
+        checkLevel(level);
+        return keys[level] == null ? indices[level] : -1;
+    }
+
+    /**
+     * 获取最后一段的键。
+     * @return 对象的键，根节点或最后一段为数组下标时返回 null
+     */
+    public String lastKey() {
+        return depth == 0 ? null : keys[depth - 1];
+    }
+
+    /**
+     * 获取最后一段的数组下标。
+     * @return 数组下标，根节点或最后一段为对象的键时返回 -1
+     */
+    public int lastIndex() {
+        return depth == 0 || keys[depth - 1] != null ? -1 : indices[depth - 1];
+    }
+
+    /**
+     * 判断路径是否与给定的键逐段相同，数组下标段可以用 "*" 匹配。
+     * @param segments 路径段
+     * @return 如果匹配则返回 true
+     */
+    public boolean matches(String... segments) {
+        if (segments.length != depth) {
+            return false;
+        }
+        for (int i = 0; i < depth; i++) {
+            String segment = segments[i];
+            if (keys[i] == null ? !"*".equals(segment) : !keys[i].equals(segment)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 转换为 RFC 6901 JSON Pointer，例如 {@code /a/b/0}。
+     * @return JSON Pointer 字符串
+     */
+    public String toPointer() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append('/');
+            if (keys[i] == null) {
+                sb.append(indices[i]);
+            } else {
+                sb.append(JsonNodes.escape(keys[i]));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 转换为点号分隔的路径，例如 {@code $.a.b[0]}。
+     * @return 路径字符串
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("$");
+        for (int i = 0; i < depth; i++) {
+            if (keys[i] == null) {
+                sb.append('[').append(indices[i]).append(']');
+            } else {
+                sb.append('.').append(keys[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    void pushKey(String key) {
+        ensureCapacity();
+        keys[depth] = key;
+        depth++;
+    }
+
+    void pushIndex(int index) {
+        ensureCapacity();
+        keys[depth] = null;
+        indices[depth] = index;
+        depth++;
+    }
+
+    void setIndex(int index) {
+        indices[depth - 1] = index;
+    }
+
+    void pop() {
+        keys[--depth] = null;
+    }
+
+    private void ensureCapacity() {
+        if (depth == keys.length) {
+            keys = Arrays.copyOf(keys, depth * 2);
+            indices = Arrays.copyOf(indices, depth * 2);
+        }
+    }
+
+    private void checkLevel(int level) {
+        if (level < 0 || level >= depth) {
+            throw new IndexOutOfBoundsException("Level: " + level + ", Depth: " + depth);
+        }
+    }
+}
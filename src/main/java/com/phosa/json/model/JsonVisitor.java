@@ -0,0 +1,148 @@
+package com.phosa.json.model;
+
+/**
+ * JSON 树的访问者，由 {@link JsonObject#accept(JsonVisitor)} 和 {@link JsonArray#accept(JsonVisitor)} 驱动。
+ * <p>遍历直接作用于底层的 fastjson2 容器，不会为嵌套节点创建 {@link JsonObject} 或 {@link JsonArray} 包装对象。
+ * 所有方法都有空的默认实现，只需覆盖关心的节点类型。
+ * <p>使用示例：
+ * <pre>{@code
+ *     long[] total = new long[1];
+ *     doc.accept(new JsonVisitor() {
+ *         @Override
+ *         public void visitNumber(JsonPath path, Number value) {
+ *             if ("price".equals(path.lastKey())) {
+ *                 total[0] += value.longValue();
+ *             }
+ *         }
+ *     });
+ * }</pre>
+ */
+public interface JsonVisitor {
+
+    /**
+     * 进入对象节点。
+     * @param path 当前路径
+     * @param size 键值对数量
+     * @return 返回 false 时跳过该对象的所有子节点，也不会调用 {@link #visitObjectEnd(JsonPath)}
+     */
+    default boolean visitObjectStart(JsonPath path, int size) {
+        return true;
+    }
+
+    /**
+     * 离开对象节点。
+     * @param path 当前路径
+     */
+    default void visitObjectEnd(JsonPath path) {
+
+    }
+
+    /**
+     * 进入数组节点。
+     * @param path 当前路径
+     * @param size 元素数量
+     * @return 返回 false 时跳过该数组的所有元素，也不会调用 {@link #visitArrayEnd(JsonPath)}
+     */
+    default boolean visitArrayStart(JsonPath path, int size) {
+        return true;
+    }
+
+    /**
+     * 离开数组节点。
+     * @param path 当前路径
+     */
+    default void visitArrayEnd(JsonPath path) {
+
+    }
+
+    /**
+     * 访问字符串节点。
+     * @param path 当前路径
+     * @param value 字符串值
+     */
+    default void visitString(JsonPath path, String value) {
+
+    }
+
+    /**
+     * 访问数值节点。
+     * @param path 当前路径
+     * @param value 数值
+     */
+    default void visitNumber(JsonPath path, Number value) {
+
+    }
+
+    /**
+     * 访问布尔节点。
+     * @param path 当前路径
+     * @param value 布尔值
+     */
+    default void visitBoolean(JsonPath path, boolean value) {
+
+    }
+
+    /**
+     * 访问 null 节点。
+     * @param path 当前路径
+     */
+    default void visitNull(JsonPath path) {
+
+    }
+
+    /**
+     * 访问其它类型的节点，例如直接放入的日期或自定义对象。
+     * @param path 当前路径
+     * @param value 节点值
+     */
+    default void visitOther(JsonPath path, Object value) {
+
+    }
+
+    /**
+     * 由只关心叶子节点的回调创建访问者。
+     * @param callback 叶子节点回调，参数为当前路径和节点值
+     * @return 访问者
+     */
+    static JsonVisitor ofLeaves(LeafCallback callback) {
+        return new JsonVisitor() {
+            @Override
+            public void visitString(JsonPath path, String value) {
+                callback.accept(path, value);
+            }
+
+            @Override
+            public void visitNumber(JsonPath path, Number value) {
+                callback.accept(path, value);
+            }
+
+            @Override
+            public void visitBoolean(JsonPath path, boolean value) {
+                callback.accept(path, value ? Boolean.TRUE : Boolean.FALSE);
+            }
+
+            @Override
+            public void visitNull(JsonPath path) {
+                callback.accept(path, null);
+            }
+
+            @Override
+            public void visitOther(JsonPath path, Object value) {
+                callback.accept(path, value);
+            }
+        };
+    }
+
+    /**
+     * 叶子节点回调。
+     */
+    @FunctionalInterface
+    interface LeafCallback {
+        /**
+         * 处理一个叶子节点。
+         * @param path 当前路径，只在回调期间有效
+         * @param value 节点值
+         */
+        void accept(JsonPath path, Object value);
+    }
+}
@@ -0,0 +1,68 @@
+package com.phosa.json.model;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * 在 fastjson2 原生树上深度优先遍历并驱动 {@link JsonVisitor}。
+ */
+final class JsonWalker {
+
+    private JsonWalker() {
+
+    }
+
+    static void walk(Object root, JsonVisitor visitor) {
+        walk(root, new JsonPath(), visitor);
+    }
+
+    private static void walk(Object node, JsonPath path, JsonVisitor visitor) {
+        if (node instanceof JsonObject jo) {
+            node = jo.getJSONObject();
+        } else if (node instanceof JsonArray ja) {
+            node = ja.getJSONArray();
+        }
+        if (node == null) {
+            visitor.visitNull(path);
+        } else if (node instanceof String s) {
+            visitor.visitString(path, s);
+        } else if (node instanceof Number n) {
+            visitor.visitNumber(path, n);
+        } else if (node instanceof Boolean b) {
+            visitor.visitBoolean(path, b);
+        } else if (node instanceof Map<?, ?> map) {
+            if (visitor.visitObjectStart(path, map.size())) {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    path.pushKey(String.valueOf(entry.getKey()));
+                    walk(entry.getValue(), path, visitor);
+                    path.pop();
+                }
+                visitor.visitObjectEnd(path);
+            }
+        } else if (node instanceof List<?> list) {
+            if (visitor.visitArrayStart(path, list.size())) {
+                if (!list.isEmpty()) {
+                    path.pushIndex(0);
+                    if (list instanceof RandomAccess) {
+                        for (int i = 0, size = list.size(); i < size; i++) {
+                            path.setIndex(i);
+                            walk(list.get(i), path, visitor);
+                        }
+                    } else {
+                        Iterator<?> iterator = list.iterator();
+                        for (int i = 0; iterator.hasNext(); i++) {
+                            path.setIndex(i);
+                            walk(iterator.next(), path, visitor);
+                        }
+                    }
+                    path.pop();
+                }
+                visitor.visitArrayEnd(path);
+            }
+        } else {
+            visitor.visitOther(path, node);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.phosa.json.schema;
+
+import com.alibaba.fastjson2.JSON;
+import com.phosa.json.exception.JsonException;
+import com.phosa.json.model.JsonArray;
+import com.phosa.json.model.JsonObject;
+
+/**
+ * 编译后的 JSON Schema。
+ * <p>Schema 只需编译一次，得到的实例不可变，可以被任意多个线程同时用于校验。
+ * <p>校验作用于 fastjson2 解析出的未绑定树（JSONObject、JSONArray 和标量），而不是 {@link com.alibaba.fastjson2.JSONReader} 的记号流：
+ * anyOf、oneOf、if、uniqueItems 等关键字需要反复访问同一个子树，按记号校验也必须先把子树缓存下来。
+ * 需要先校验再绑定时使用 {@link com.phosa.json.JsonUtil#parseStringToObject(String, Class, JsonSchema)}，字符串只解析一次。
+ * <p>使用示例：
+ * <pre>{@code
+ *     private static final JsonSchema ORDER_SCHEMA = JsonSchema.compile(schemaJson);
+ *
+ *     ValidationResult result = ORDER_SCHEMA.validate(payload, ValidationMode.COLLECT_ALL);
+ *     if (!result.isValid()) {
+ *         return badRequest(result.getErrors());
+ *     }
+ * }</pre>
+ */
+public final class JsonSchema {
+    private final Validator root;
+
+    private JsonSchema(Validator root) {
+        this.root = root;
+    }
+
+    /**
+     * 编译 Schema。
+     *
+     * @param schema Schema 对象
+     * @return 编译后的 Schema
+     */
+    public static JsonSchema compile(JsonObject schema) {
+        return new JsonSchema(SchemaCompiler.compileRoot(schema.getJSONObject()));
+    }
+
+    /**
+     * 编译 Schema。
+     *
+     * @param schema Schema 的 JSON 字符串
+     * @return 编译后的 Schema
+     */
+    public static JsonSchema compile(String schema) {
+        return new JsonSchema(SchemaCompiler.compileRoot(JSON.parse(schema)));
+    }
+
+    /**
+     * 以快速失败模式校验对象。
+     *
+     * @param jsonObject 需要校验的对象
+     * @return 如果通过校验则返回 true
+     */
+    public boolean isValid(JsonObject jsonObject) {
+        return validateNode(jsonObject.getJSONObject(), ValidationMode.FAIL_FAST).isValid();
+    }
+
+    /**
+     * 校验对象，收集所有错误。
+     *
+     * @param jsonObject 需要校验的对象
+     * @return 校验结果
+     */
+    public ValidationResult validate(JsonObject jsonObject) {
+        return validate(jsonObject, ValidationMode.COLLECT_ALL);
+    }
+
+    /**
+     * 按指定模式校验对象。
+     *
+     * @param jsonObject 需要校验的对象
+     * @param mode 校验模式
+     * @return 校验结果
+     */
+    public ValidationResult validate(JsonObject jsonObject, ValidationMode mode) {
+        return validateNode(jsonObject.getJSONObject(), mode);
+    }
+
+    /**
+     * 按指定模式校验数组。
+     *
+     * @param jsonArray 需要校验的数组
+     * @param mode 校验模式
+     * @return 校验结果
+     */
+    public ValidationResult validate(JsonArray jsonArray, ValidationMode mode) {
+        return validateNode(jsonArray.getJSONArray(), mode);
+    }
+
+    /**
+     * 按指定模式校验 JSON 字符串。字符串只会被解析为未绑定的 JSON 树，不会创建任何业务对象。
+     *
+     * @param json JSON 字符串
+     * @param mode 校验模式
+     * @return 校验结果
+     */
+    public ValidationResult validate(String json, ValidationMode mode) {
+        return validateNode(JSON.parse(json), mode);
+    }
+
+    /**
+     * 按指定模式校验 fastjson2 原生树中的任意节点。
+     *
+     * @param node 节点，可以是 JSONObject、JSONArray 或标量
+     * @param mode 校验模式
+     * @return 校验结果
+     */
+    public ValidationResult validateNode(Object node, ValidationMode mode) {
+        ValidationContext ctx = new ValidationContext(mode);
+        root.validate(node, ctx);
+        return new ValidationResult(ctx.errors());
+    }
+
+    /**
+     * 以快速失败模式校验节点，未通过时抛出 {@link JsonException}。
+     *
+     * @param node fastjson2 原生树中的节点
+     */
+    public void assertValid(Object node) {
+        ValidationResult result = validateNode(node, ValidationMode.FAIL_FAST);
+        if (!result.isValid()) {
+            throw new JsonException("JSON schema validation failed: " + result);
+        }
+    }
+}
@@ -0,0 +1,710 @@
+package com.phosa.json.schema;
+
+import com.phosa.json.exception.JsonException;
+import com.phosa.json.model.JsonNodes;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 将 JSON Schema 编译为校验器树。
+ * <p>正则表达式、枚举集合、属性表等在编译时一次性构建好，校验时只做查找和比较。
+ * 支持 draft-04 到 draft-07 中常用的关键字，以及指向当前文档内部的 {@code $ref}；未知关键字会被忽略。
+ */
+final class SchemaCompiler {
+    private static final int TYPE_NULL = 1;
+    private static final int TYPE_BOOLEAN = 1 << 1;
+    private static final int TYPE_OBJECT = 1 << 2;
+    private static final int TYPE_ARRAY = 1 << 3;
+    private static final int TYPE_NUMBER = 1 << 4;
+    private static final int TYPE_INTEGER = 1 << 5;
+    private static final int TYPE_STRING = 1 << 6;
+
+    private static final Map<String, Pattern> FORMATS = Map.of(
+            "date", Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$"),
+            "date-time", Pattern.compile("^\\d{4}-\\d{2}-\\d{2}[Tt ]\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?([Zz]|[+-]\\d{2}:\\d{2})$"),
+            "time", Pattern.compile("^\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?([Zz]|[+-]\\d{2}:\\d{2})?$"),
+            "email", Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$"),
+            "uuid", Pattern.compile("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$"),
+            "ipv4", Pattern.compile("^((25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)\\.){3}(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)$"),
+            "uri", Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*:[^\\s]*$")
+    );
+
+    private static final Validator ALWAYS_VALID = (node, ctx) -> true;
+
+    private final Object root;
+    private final IdentityHashMap<Object, Validator> compiled = new IdentityHashMap<>();
+    private final List<RefValidator> unresolved = new ArrayList<>();
+
+    private SchemaCompiler(Object root) {
+        this.root = root;
+    }
+
+    /**
+     * 编译 Schema 根节点。
+     */
+    static Validator compileRoot(Object schema) {
+        SchemaCompiler compiler = new SchemaCompiler(schema);
+        Validator validator = compiler.compile(schema);
+        while (!compiler.unresolved.isEmpty()) {
+            RefValidator ref = compiler.unresolved.remove(compiler.unresolved.size() - 1);
+            ref.target = compiler.compile(compiler.resolvePointer(ref.pointer));
+        }
+        return validator;
+    }
+
+    private Validator compile(Object schema) {
+        if (schema instanceof Boolean allowed) {
+            return allowed ? ALWAYS_VALID : (node, ctx) -> ctx.fail("false", "no value is allowed here");
+        }
+        if (!(schema instanceof Map<?, ?> map)) {
+            throw new JsonException("Invalid schema: expected an object or boolean but was " + schema);
+        }
+        Validator cached = compiled.get(schema);
+        if (cached != null) {
+            return cached;
+        }
+        Object ref = map.get("$ref");
+        if (ref instanceof String pointer) {
+            RefValidator refValidator = new RefValidator(pointer);
+            compiled.put(schema, refValidator);
+            unresolved.add(refValidator);
+            return refValidator;
+        }
+        SchemaValidator result = new SchemaValidator();
+        compiled.put(schema, result);
+
+        List<Validator> keywords = new ArrayList<>();
+        if (map.containsKey("type")) {
+            keywords.add(typeValidator(map.get("type")));
+        }
+        if (map.get("enum") instanceof List<?> values) {
+            keywords.add(enumValidator(values));
+        }
+        if (map.containsKey("const")) {
+            Object expected = map.get("const");
+            keywords.add((node, ctx) -> JsonNodes.deepEquals(node, expected)
+                    || ctx.fail("const", "value must be " + expected));
+        }
+        addObjectKeywords(map, keywords);
+        addArrayKeywords(map, keywords);
+        addStringKeywords(map, keywords);
+        addNumberKeywords(map, keywords);
+        addCombinators(map, keywords);
+
+        result.keywords = keywords.toArray(new Validator[0]);
+        return result;
+    }
+
+    private Object resolvePointer(String pointer) {
+        if (!pointer.startsWith("#")) {
+            throw new JsonException("Invalid schema: only local $ref is supported: " + pointer);
+        }
+        Object current = root;
+        String path = pointer.substring(1);
+        if (path.isEmpty()) {
+            return current;
+        }
+        for (String token : path.substring(1).split("/", -1)) {
+            token = token.replace("~1", "/").replace("~0", "~");
+            if (current instanceof Map<?, ?> map && map.containsKey(token)) {
+                current = map.get(token);
+            } else if (current instanceof List<?> list && token.matches("\\d+") && Integer.parseInt(token) < list.size()) {
+                current = list.get(Integer.parseInt(token));
+            } else {
+                throw new JsonException("Invalid schema: cannot resolve $ref " + pointer);
+            }
+        }
+        return current;
+    }
+
+    private static Validator typeValidator(Object type) {
+        int mask = 0;
+        if (type instanceof List<?> types) {
+            for (Object t : types) {
+                mask |= typeBit(String.valueOf(t));
+            }
+        } else {
+            mask = typeBit(String.valueOf(type));
+        }
+        int allowed = mask;
+        String expected = String.valueOf(type);
+        return (node, ctx) -> {
+            int actual = typeOf(node);
+            if ((actual & allowed) != 0) {
+                return true;
+            }
+            if ((allowed & TYPE_INTEGER) != 0 && actual == TYPE_NUMBER && isIntegral((Number) node)) {
+                return true;
+            }
+            return ctx.fail("type", "expected " + expected + " but was " + typeName(actual));
+        };
+    }
+
+    private static int typeBit(String name) {
+        return switch (name) {
+            case "null" -> TYPE_NULL;
+            case "boolean" -> TYPE_BOOLEAN;
+            case "object" -> TYPE_OBJECT;
+            case "array" -> TYPE_ARRAY;
+            case "number" -> TYPE_NUMBER | TYPE_INTEGER;
+            case "integer" -> TYPE_INTEGER;
+            case "string" -> TYPE_STRING;
+            default -> throw new JsonException("Invalid schema: unknown type " + name);
+        };
+    }
+
+    private static int typeOf(Object node) {
+        if (node == null) {
+            return TYPE_NULL;
+        } else if (node instanceof Boolean) {
+            return TYPE_BOOLEAN;
+        } else if (node instanceof Map<?, ?>) {
+            return TYPE_OBJECT;
+        } else if (node instanceof List<?>) {
+            return TYPE_ARRAY;
+        } else if (node instanceof Integer || node instanceof Long || node instanceof Short
+                || node instanceof Byte || node instanceof BigInteger) {
+            return TYPE_INTEGER;
+        } else if (node instanceof Number) {
+            return TYPE_NUMBER;
+        } else if (node instanceof CharSequence) {
+            return TYPE_STRING;
+        }
+        return 0;
+    }
+
+    private static String typeName(int type) {
+        return switch (type) {
+            case TYPE_NULL -> "null";
+            case TYPE_BOOLEAN -> "boolean";
+            case TYPE_OBJECT -> "object";
+            case TYPE_ARRAY -> "array";
+            case TYPE_INTEGER -> "integer";
+            case TYPE_NUMBER -> "number";
+            case TYPE_STRING -> "string";
+            default -> "unknown";
+        };
+    }
+
+    private static boolean isIntegral(Number number) {
+        if (number instanceof BigDecimal decimal) {
+            return decimal.signum() == 0 || decimal.stripTrailingZeros().scale() <= 0;
+        }
+        double d = number.doubleValue();
+        return !Double.isInfinite(d) && d == Math.rint(d);
+    }
+
+    /**
+     * 枚举值中的标量放入哈希集合，数值统一规范化后比较，容器值退化为逐个比较。
+     */
+    private static Validator enumValidator(List<?> values) {
+        Set<Object> scalars = new HashSet<>();
+        List<Object> containers = new ArrayList<>();
+        for (Object value : values) {
+            if (value instanceof Map<?, ?> || value instanceof List<?>) {
+                containers.add(value);
+            } else {
+                scalars.add(normalize(value));
+            }
+        }
+        String expected = values.toString();
+        return (node, ctx) -> {
+            if (node instanceof Map<?, ?> || node instanceof List<?>) {
+                for (Object candidate : containers) {
+                    if (JsonNodes.deepEquals(candidate, node)) {
+                        return true;
+                    }
+                }
+            } else if (scalars.contains(normalize(node))) {
+                return true;
+            }
+            return ctx.fail("enum", "value must be one of " + expected);
+        };
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger || value instanceof Double || value instanceof Float) {
+            BigDecimal decimal = toDecimal((Number) value);
+            if (decimal == null) {
+                return value;
+            }
+            decimal = decimal.stripTrailingZeros();
+            if (decimal.scale() <= 0 && decimal.toBigInteger().bitLength() < 64) {
+                return decimal.longValueExact();
+            }
+            return decimal;
+        }
+        return value;
+    }
+
+    private static BigDecimal toDecimal(Number number) {
+        if (number instanceof BigDecimal decimal) {
+            return decimal;
+        } else if (number instanceof BigInteger integer) {
+            return new BigDecimal(integer);
+        } else if (number instanceof Double || number instanceof Float) {
+            double d = number.doubleValue();
+            return Double.isNaN(d) || Double.isInfinite(d) ? null : BigDecimal.valueOf(d);
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+    private void addObjectKeywords(Map<?, ?> schema, List<Validator> keywords) {
+        Map<?, ?> properties = schema.get("properties") instanceof Map<?, ?> m ? m : Map.of();
+        Map<?, ?> patternProperties = schema.get("patternProperties") instanceof Map<?, ?> m ? m : Map.of();
+        Object additional = schema.get("additionalProperties");
+        if (!properties.isEmpty() || !patternProperties.isEmpty() || additional != null) {
+            Map<String, Validator> named = new HashMap<>();
+            for (Map.Entry<?, ?> entry : properties.entrySet()) {
+                named.put(String.valueOf(entry.getKey()), compile(entry.getValue()));
+            }
+            Pattern[] patterns = new Pattern[patternProperties.size()];
+            Validator[] patternValidators = new Validator[patterns.length];
+            int i = 0;
+            for (Map.Entry<?, ?> entry : patternProperties.entrySet()) {
+                patterns[i] = pattern(String.valueOf(entry.getKey()));
+                patternValidators[i++] = compile(entry.getValue());
+            }
+            keywords.add(new PropertiesValidator(named, patterns, patternValidators,
+                    additional == null ? null : compile(additional)));
+        }
+        if (schema.get("required") instanceof List<?> required && !required.isEmpty()) {
+            String[] names = required.stream().map(String::valueOf).toArray(String[]::new);
+            keywords.add((node, ctx) -> {
+                if (!(node instanceof Map<?, ?> map)) {
+                    return true;
+                }
+                boolean valid = true;
+                for (String name : names) {
+                    if (!map.containsKey(name)) {
+                        valid = ctx.fail("required", "missing required property '" + name + "'");
+                        if (ctx.failFast()) {
+                            return false;
+                        }
+                    }
+                }
+                return valid;
+            });
+        }
+        int minProperties = intKeyword(schema, "minProperties", -1);
+        int maxProperties = intKeyword(schema, "maxProperties", -1);
+        if (minProperties >= 0 || maxProperties >= 0) {
+            keywords.add((node, ctx) -> {
+                if (!(node instanceof Map<?, ?> map)) {
+                    return true;
+                }
+                if (minProperties >= 0 && map.size() < minProperties) {
+                    return ctx.fail("minProperties", "must have at least " + minProperties + " properties");
+                }
+                if (maxProperties >= 0 && map.size() > maxProperties) {
+                    return ctx.fail("maxProperties", "must have at most " + maxProperties + " properties");
+                }
+                return true;
+            });
+        }
+    }
+
+    private void addArrayKeywords(Map<?, ?> schema, List<Validator> keywords) {
+        Object items = schema.get("items");
+        if (items instanceof List<?> tuple) {
+            Validator[] positional = new Validator[tuple.size()];
+            for (int i = 0; i < positional.length; i++) {
+                positional[i] = compile(tuple.get(i));
+            }
+            Object additional = schema.get("additionalItems");
+            keywords.add(new ItemsValidator(positional, additional == null ? null : compile(additional)));
+        } else if (items != null) {
+            keywords.add(new ItemsValidator(new Validator[0], compile(items)));
+        }
+        if (schema.containsKey("contains")) {
+            Validator contains = compile(schema.get("contains"));
+            keywords.add((node, ctx) -> {
+                if (!(node instanceof List<?> list)) {
+                    return true;
+                }
+                ctx.beginProbe();
+                try {
+                    for (Object element : list) {
+                        if (contains.validate(element, ctx)) {
+                            return true;
+                        }
+                    }
+                } finally {
+                    ctx.endProbe();
+                }
+                return ctx.fail("contains", "no element matches the contains schema");
+            });
+        }
+        int minItems = intKeyword(schema, "minItems", -1);
+        int maxItems = intKeyword(schema, "maxItems", -1);
+        if (minItems >= 0 || maxItems >= 0) {
+            keywords.add((node, ctx) -> {
+                if (!(node instanceof List<?> list)) {
+                    return true;
+                }
+                if (minItems >= 0 && list.size() < minItems) {
+                    return ctx.fail("minItems", "must have at least " + minItems + " items");
+                }
+                if (maxItems >= 0 && list.size() > maxItems) {
+                    return ctx.fail("maxItems", "must have at most " + maxItems + " items");
+                }
+                return true;
+            });
+        }
+        if (Boolean.TRUE.equals(schema.get("uniqueItems"))) {
+            keywords.add((node, ctx) -> {
+                if (!(node instanceof List<?> list) || list.size() < 2) {
+                    return true;
+                }
+                Map<Integer, List<Object>> seen = new HashMap<>();
+                for (Object element : list) {
+                    List<Object> bucket = seen.computeIfAbsent(JsonNodes.hash(element), k -> new ArrayList<>(1));
+                    for (Object other : bucket) {
+                        if (JsonNodes.deepEquals(other, element)) {
+                            return ctx.fail("uniqueItems", "items must be unique, duplicate " + element);
+                        }
+                    }
+                    bucket.add(element);
+                }
+                return true;
+            });
+        }
+    }
+
+    private static void addStringKeywords(Map<?, ?> schema, List<Validator> keywords) {
+        int minLength = intKeyword(schema, "minLength", -1);
+        int maxLength = intKeyword(schema, "maxLength", -1);
+        if (minLength >= 0 || maxLength >= 0) {
+            keywords.add((node, ctx) -> {
+                if (!(node instanceof String s)) {
+                    return true;
+                }
+                // 长度按码点计算，码点数介于 char 数的一半和 char 数之间，多数情况下无需逐个统计
+                int chars = s.length();
+                if (minLength >= 0 && chars < minLength) {
+                    return ctx.fail("minLength", "must be at least " + minLength + " characters long");
+                }
+                if ((chars + 1) / 2 >= minLength && (maxLength < 0 || chars <= maxLength)) {
+                    return true;
+                }
+                int length = s.codePointCount(0, chars);
+                if (minLength >= 0 && length < minLength) {
+                    return ctx.fail("minLength", "must be at least " + minLength + " characters long");
+                }
+                if (maxLength >= 0 && length > maxLength) {
+                    return ctx.fail("maxLength", "must be at most " + maxLength + " characters long");
+                }
+                return true;
+            });
+        }
+        if (schema.get("pattern") instanceof String regex) {
+            Pattern pattern = pattern(regex);
+            keywords.add((node, ctx) -> !(node instanceof String s) || pattern.matcher(s).find()
+                    || ctx.fail("pattern", "must match pattern " + regex));
+        }
+        if (schema.get("format") instanceof String format && FORMATS.containsKey(format)) {
+            Pattern pattern = FORMATS.get(format);
+            keywords.add((node, ctx) -> !(node instanceof String s) || pattern.matcher(s).matches()
+                    || ctx.fail("format", "must be a valid " + format));
+        }
+    }
+
+    private static void addNumberKeywords(Map<?, ?> schema, List<Validator> keywords) {
+        BigDecimal minimum = decimalKeyword(schema, "minimum");
+        BigDecimal maximum = decimalKeyword(schema, "maximum");
+        BigDecimal exclusiveMinimum = decimalKeyword(schema, "exclusiveMinimum");
+        BigDecimal exclusiveMaximum = decimalKeyword(schema, "exclusiveMaximum");
+        // draft-04 中 exclusiveMinimum/exclusiveMaximum 是修饰 minimum/maximum 的布尔值
+        if (Boolean.TRUE.equals(schema.get("exclusiveMinimum"))) {
+            exclusiveMinimum = minimum;
+            minimum = null;
+        }
+        if (Boolean.TRUE.equals(schema.get("exclusiveMaximum"))) {
+            exclusiveMaximum = maximum;
+            maximum = null;
+        }
+        if (minimum != null) {
+            Bound bound = Bound.of(minimum);
+            keywords.add((node, ctx) -> !(node instanceof Number n) || bound.compare(n) >= 0
+                    || ctx.fail("minimum", "must be >= " + bound));
+        }
+        if (maximum != null) {
+            Bound bound = Bound.of(maximum);
+            keywords.add((node, ctx) -> !(node instanceof Number n) || bound.compare(n) <= 0
+                    || ctx.fail("maximum", "must be <= " + bound));
+        }
+        if (exclusiveMinimum != null) {
+            Bound bound = Bound.of(exclusiveMinimum);
+            keywords.add((node, ctx) -> !(node instanceof Number n) || bound.compare(n) > 0
+                    || ctx.fail("exclusiveMinimum", "must be > " + bound));
+        }
+        if (exclusiveMaximum != null) {
+            Bound bound = Bound.of(exclusiveMaximum);
+            keywords.add((node, ctx) -> !(node instanceof Number n) || bound.compare(n) < 0
+                    || ctx.fail("exclusiveMaximum", "must be < " + bound));
+        }
+        BigDecimal multipleOf = decimalKeyword(schema, "multipleOf");
+        if (multipleOf != null) {
+            if (multipleOf.signum() <= 0) {
+                throw new JsonException("Invalid schema: multipleOf must be greater than 0");
+            }
+            keywords.add((node, ctx) -> {
+                if (!(node instanceof Number n)) {
+                    return true;
+                }
+                BigDecimal value = toDecimal(n);
+                return value == null || value.remainder(multipleOf).signum() == 0
+                        || ctx.fail("multipleOf", "must be a multiple of " + multipleOf);
+            });
+        }
+    }
+
+    private void addCombinators(Map<?, ?> schema, List<Validator> keywords) {
+        if (schema.get("allOf") instanceof List<?> list) {
+            Validator[] all = compileAll(list);
+            keywords.add((node, ctx) -> {
+                boolean valid = true;
+                for (Validator validator : all) {
+                    if (!validator.validate(node, ctx)) {
+                        valid = false;
+                        if (ctx.failFast()) {
+                            return false;
+                        }
+                    }
+                }
+                return valid;
+            });
+        }
+        if (schema.get("anyOf") instanceof List<?> list) {
+            Validator[] any = compileAll(list);
+            keywords.add((node, ctx) -> countMatches(any, node, ctx, 1) >= 1
+                    || ctx.fail("anyOf", "must match at least one schema in anyOf"));
+        }
+        if (schema.get("oneOf") instanceof List<?> list) {
+            Validator[] one = compileAll(list);
+            keywords.add((node, ctx) -> countMatches(one, node, ctx, 2) == 1
+                    || ctx.fail("oneOf", "must match exactly one schema in oneOf"));
+        }
+        if (schema.containsKey("not")) {
+            Validator not = compile(schema.get("not"));
+            keywords.add((node, ctx) -> countMatches(new Validator[]{not}, node, ctx, 1) == 0
+                    || ctx.fail("not", "must not match the schema in not"));
+        }
+        if (schema.containsKey("if")) {
+            Validator condition = compile(schema.get("if"));
+            Validator then = schema.containsKey("then") ? compile(schema.get("then")) : ALWAYS_VALID;
+            Validator otherwise = schema.containsKey("else") ? compile(schema.get("else")) : ALWAYS_VALID;
+            keywords.add((node, ctx) -> countMatches(new Validator[]{condition}, node, ctx, 1) == 1
+                    ? then.validate(node, ctx) : otherwise.validate(node, ctx));
+        }
+    }
+
+    /**
+     * 以试探模式统计匹配的子 Schema 数量，达到 limit 后提前结束。
+     */
+    private static int countMatches(Validator[] validators, Object node, ValidationContext ctx, int limit) {
+        int matches = 0;
+        ctx.beginProbe();
+        try {
+            for (Validator validator : validators) {
+                if (validator.validate(node, ctx) && ++matches >= limit) {
+                    break;
+                }
+            }
+        } finally {
+            ctx.endProbe();
+        }
+        return matches;
+    }
+
+    private Validator[] compileAll(List<?> schemas) {
+        Validator[] validators = new Validator[schemas.size()];
+        for (int i = 0; i < validators.length; i++) {
+            validators[i] = compile(schemas.get(i));
+        }
+        return validators;
+    }
+
+    private static Pattern pattern(String regex) {
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new JsonException("Invalid schema: bad pattern " + regex, e);
+        }
+    }
+
+    private static int intKeyword(Map<?, ?> schema, String name, int defaultValue) {
+        Object value = schema.get(name);
+        return value instanceof Number n ? n.intValue() : defaultValue;
+    }
+
+    private static BigDecimal decimalKeyword(Map<?, ?> schema, String name) {
+        Object value = schema.get(name);
+        return value instanceof Number n ? toDecimal(n) : null;
+    }
+
+    /**
+     * minimum、maximum 等关键字的边界。整数节点与 long 范围内的整数边界直接按 long 比较，
+     * 其余组合都转为 BigDecimal 精确比较，不经过 double。
+     */
+    private record Bound(BigDecimal decimal, boolean integral, long longValue) {
+        static Bound of(BigDecimal decimal) {
+            BigDecimal stripped = decimal.stripTrailingZeros();
+            if (stripped.scale() <= 0 && stripped.toBigInteger().bitLength() < 64) {
+                return new Bound(decimal, true, stripped.longValueExact());
+            }
+            return new Bound(decimal, false, 0);
+        }
+
+        /**
+         * 比较节点的值与边界，返回值的符号与 {@link Comparable#compareTo} 相同。
+         */
+        int compare(Number n) {
+            if (integral && (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte)) {
+                return Long.compare(n.longValue(), longValue);
+            }
+            BigDecimal value = toDecimal(n);
+            // NaN 和无穷大没有对应的 BigDecimal
+            return value == null ? Double.compare(n.doubleValue(), decimal.doubleValue()) : value.compareTo(decimal);
+        }
+
+        @Override
+        public String toString() {
+            return decimal.toString();
+        }
+    }
+
+    /**
+     * 一个 Schema 对象中所有关键字的组合。
+     */
+    private static final class SchemaValidator implements Validator {
+        Validator[] keywords;
+
+        @Override
+        public boolean validate(Object node, ValidationContext ctx) {
+            boolean valid = true;
+            for (Validator keyword : keywords) {
+                if (!keyword.validate(node, ctx)) {
+                    valid = false;
+                    if (ctx.failFast()) {
+                        return false;
+                    }
+                }
+            }
+            return valid;
+        }
+    }
+
+    /**
+     * 指向文档内其它 Schema 的引用，编译结束前统一解析，支持递归结构。
+     */
+    private static final class RefValidator implements Validator {
+        final String pointer;
+        Validator target;
+
+        RefValidator(String pointer) {
+            this.pointer = pointer;
+        }
+
+        @Override
+        public boolean validate(Object node, ValidationContext ctx) {
+            return target.validate(node, ctx);
+        }
+    }
+
+    /**
+     * properties、patternProperties 和 additionalProperties 的组合。
+     */
+    private static final class PropertiesValidator implements Validator {
+        final Map<String, Validator> named;
+        final Pattern[] patterns;
+        final Validator[] patternValidators;
+        final Validator additional;
+
+        PropertiesValidator(Map<String, Validator> named, Pattern[] patterns, Validator[] patternValidators, Validator additional) {
+            this.named = named;
+            this.patterns = patterns;
+            this.patternValidators = patternValidators;
+            this.additional = additional;
+        }
+
+        @Override
+        public boolean validate(Object node, ValidationContext ctx) {
+            if (!(node instanceof Map<?, ?> map)) {
+                return true;
+            }
+            boolean valid = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                ctx.pushKey(key);
+                try {
+                    boolean matched = false;
+                    Validator validator = named.get(key);
+                    if (validator != null) {
+                        matched = true;
+                        valid &= validator.validate(entry.getValue(), ctx);
+                    }
+                    for (int i = 0; i < patterns.length && (valid || !ctx.failFast()); i++) {
+                        if (patterns[i].matcher(key).find()) {
+                            matched = true;
+                            valid &= patternValidators[i].validate(entry.getValue(), ctx);
+                        }
+                    }
+                    if (!matched && additional != null) {
+                        valid &= additional.validate(entry.getValue(), ctx);
+                    }
+                } finally {
+                    ctx.pop();
+                }
+                if (!valid && ctx.failFast()) {
+                    return false;
+                }
+            }
+            return valid;
+        }
+    }
+
+    /**
+     * items 和 additionalItems 的组合，positional 为空时表示所有元素使用同一个 Schema。
+     */
+    private static final class ItemsValidator implements Validator {
+        final Validator[] positional;
+        final Validator rest;
+
+        ItemsValidator(Validator[] positional, Validator rest) {
+            this.positional = positional;
+            this.rest = rest;
+        }
+
+        @Override
+        public boolean validate(Object node, ValidationContext ctx) {
+            if (!(node instanceof List<?> list)) {
+                return true;
+            }
+            boolean valid = true;
+            for (int i = 0, size = list.size(); i < size; i++) {
+                Validator validator = i < positional.length ? positional[i] : rest;
+                if (validator == null) {
+                    break;
+                }
+                ctx.pushIndex(i);
+                try {
+                    valid &= validator.validate(list.get(i), ctx);
+                } finally {
+                    ctx.pop();
+                }
+                if (!valid && ctx.failFast()) {
+                    return false;
+                }
+            }
+            return valid;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.phosa.json.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一次校验的状态，包括当前路径和已收集的错误。每次校验创建一个实例，不在线程之间共享。
+ * <p>anyOf、oneOf、not 等关键字需要试探性地校验子 Schema，此时通过 {@link #beginProbe()} 关闭错误收集并切换为快速失败。
+ */
+final class ValidationContext {
+    private final boolean failFast;
+    private final List<ValidationError> errors = new ArrayList<>();
+    private int probeDepth;
+    private String[] keys = new String[16];
+    private int[] indices = new int[16];
+    private int depth;
+
+    ValidationContext(ValidationMode mode) {
+        this.failFast = mode == ValidationMode.FAIL_FAST;
+    }
+
+    /**
+     * 当前是否应当在第一个错误处停止。
+     */
+    boolean failFast() {
+        return failFast || probeDepth > 0;
+    }
+
+    /**
+     * 记录一条错误，始终返回 false 以便校验器直接 {@code return ctx.fail(...)}。
+     */
+    boolean fail(String keyword, String message) {
+        if (probeDepth == 0) {
+            errors.add(new ValidationError(pointer(), keyword, message));
+        }
+        return false;
+    }
+
+    void beginProbe() {
+        probeDepth++;
+    }
+
+    void endProbe() {
+        probeDepth--;
+    }
+
+    void pushKey(String key) {
+        ensureCapacity();
+        keys[depth++] = key;
+    }
+
+    void pushIndex(int index) {
+        ensureCapacity();
+        keys[depth] = null;
+        indices[depth++] = index;
+    }
+
+    void pop() {
+        keys[--depth] = null;
+    }
+
+    List<ValidationError> errors() {
+        return errors;
+    }
+
+    private String pointer() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append('/');
+            if (keys[i] == null) {
+                sb.append(indices[i]);
+            } else {
+                sb.append(keys[i].replace("~", "~0").replace("/", "~1"));
+            }
+        }
+        return sb.toString();
+    }
+
+    private void ensureCapacity() {
+        if (depth == keys.length) {
+            keys = Arrays.copyOf(keys, depth * 2);
+            indices = Arrays.copyOf(indices, depth * 2);
+        }
+    }
+}
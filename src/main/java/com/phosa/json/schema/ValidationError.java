@@ -0,0 +1,33 @@
+package com.phosa.json.schema;
+
+import lombok.Getter;
+
+/**
+ * 一条校验错误。
+ */
+@Getter
+public class ValidationError {
+    /**
+     * 出错节点的 JSON Pointer，例如 {@code /items/0/id}，根节点为空字符串。
+     */
+    private final String path;
+    /**
+     * 未通过的 Schema 关键字，例如 {@code required}、{@code maxLength}。
+     */
+    private final String keyword;
+    /**
+     * 错误描述。
+     */
+    private final String message;
+
+    public ValidationError(String path, String keyword, String message) {
+        this.path = path;
+        this.keyword = keyword;
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return (path.isEmpty() ? "/" : path) + ": " + message + " (" + keyword + ")";
+    }
+}
@@ -0,0 +1,15 @@
+package com.phosa.json.schema;
+
+/**
+ * 校验模式。
+ */
+public enum ValidationMode {
+    /**
+     * 遇到第一个错误立即停止，适合只需要判断是否合法的入口校验。
+     */
+    FAIL_FAST,
+    /**
+     * 收集所有错误，适合需要把完整错误信息返回给调用方的场景。
+     */
+    COLLECT_ALL
+}
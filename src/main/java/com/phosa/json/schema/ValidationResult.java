@@ -0,0 +1,36 @@
+package com.phosa.json.schema;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 校验结果。
+ */
+public class ValidationResult {
+    private final List<ValidationError> errors;
+
+    ValidationResult(List<ValidationError> errors) {
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * 判断是否通过校验。
+     * @return 没有任何错误时返回 true
+     */
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * 获取所有错误，{@link ValidationMode#FAIL_FAST} 模式下最多只有一条。
+     * @return 只读的错误列表
+     */
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "valid" : errors.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.phosa.json.schema;
+
+/**
+ * 编译后的校验器。实现必须是不可变的，以便同一个校验器树可以被多个线程同时使用。
+ */
+@FunctionalInterface
+interface Validator {
+    /**
+     * 校验一个节点。
+     * @param node fastjson2 原生树中的节点
+     * @param ctx 本次校验的状态
+     * @return 节点是否通过校验
+     */
+    boolean validate(Object node, ValidationContext ctx);
+}
@@ -0,0 +1,66 @@
+package com.phosa.thread;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 根据任务耗时自动调整线程数的线程池。
+ * <p>线程数即并发上限，由 {@link LimitAlgorithm} 根据每个任务的耗时、当时的并发数和是否失败计算，
+ * 并限制在算法的上下界之内。超过上限的任务在队列中等待，下游变慢时上限随之收缩，从而避免雪崩；
+ * 下游恢复后上限逐步回升。
+ */
+public class AdaptiveThreadPoolExecutor extends InstrumentedThreadPoolExecutor {
+    private final LimitAlgorithm algorithm;
+    private volatile int appliedLimit;
+
+    /**
+     * 创建自适应线程池。
+     * @param algorithm 并发上限算法
+     * @param workQueue 等待队列
+     * @param threadFactory 线程工厂
+     * @param handler 拒绝策略
+     */
+    public AdaptiveThreadPoolExecutor(LimitAlgorithm algorithm, BlockingQueue<Runnable> workQueue,
+                                      ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        super(algorithm.getLimit(), algorithm.getLimit(), 0L, TimeUnit.MILLISECONDS, workQueue, threadFactory, handler);
+        this.algorithm = algorithm;
+        this.appliedLimit = algorithm.getLimit();
+    }
+
+    /**
+     * 获取当前的并发上限，即线程数。
+     * @return 并发上限
+     */
+    public int getLimit() {
+        return appliedLimit;
+    }
+
+    @Override
+    protected void afterTask(long runNanos, boolean success) {
+        int limit = algorithm.onSample(runNanos, (int) activeTaskCount(), !success);
+        if (limit != appliedLimit) {
+            applyLimit();
+        }
+    }
+
+    /**
+     * 多个线程可能同时得到新的上限，这里统一读取算法的最新值。调整线程数时需保证任一时刻核心线程数不超过最大线程数，
+     * 扩容时先调大最大线程数，缩容时先调小核心线程数。
+     */
+    private synchronized void applyLimit() {
+        int limit = algorithm.getLimit();
+        if (limit == appliedLimit || isShutdown()) {
+            return;
+        }
+        if (limit > getMaximumPoolSize()) {
+            setMaximumPoolSize(limit);
+            setCorePoolSize(limit);
+        } else {
+            setCorePoolSize(limit);
+            setMaximumPoolSize(limit);
+        }
+        appliedLimit = limit;
+    }
+}
@@ -0,0 +1,62 @@
+package com.phosa.thread;
+
+/**
+ * 加性增、乘性减（AIMD）的并发上限算法。
+ * <p>与 TCP 拥塞窗口相同，并发数接近上限且耗时正常时每个样本增加 {@code 1 / limit}，即每完成一轮任务上限加 1；
+ * 耗时超过阈值或任务失败时上限乘以回退系数。
+ * 并发数不到上限的一半时说明负载不足，不再继续增加。过载时同一批任务往往会相继超时，
+ * 因此在一个耗时阈值内最多回退一次，避免上限被一次拥塞压到下限。
+ */
+public class AimdLimit implements LimitAlgorithm {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long timeoutNanos;
+    private volatile int limit;
+    private double estimatedLimit;
+    private long lastBackoff;
+
+    /**
+     * 创建 AIMD 算法。
+     * @param initialLimit 初始上限
+     * @param minLimit 并发下限
+     * @param maxLimit 并发上限
+     * @param backoffRatio 过载时的回退系数，取值 0.5 到 1
+     * @param timeoutNanos 视为过载的耗时阈值，单位纳秒
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long timeoutNanos) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit bounds " + minLimit + "/" + maxLimit);
+        }
+        if (backoffRatio < 0.5 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be in [0.5, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.timeoutNanos = timeoutNanos;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.lastBackoff = System.nanoTime() - timeoutNanos;
+    }
+
+    @Override
+    public synchronized int onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped || rttNanos > timeoutNanos) {
+            long now = System.nanoTime();
+            if (now - lastBackoff >= timeoutNanos) {
+                estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+                lastBackoff = now;
+            }
+        } else if (inFlight * 2 >= estimatedLimit) {
+            estimatedLimit = Math.min(maxLimit, estimatedLimit + 1.0 / estimatedLimit);
+        }
+        limit = (int) estimatedLimit;
+        return limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+}
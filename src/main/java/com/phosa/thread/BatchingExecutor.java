@@ -0,0 +1,303 @@
+package com.phosa.thread;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 把零散提交的元素合并成批次交给消费者处理，用于摊薄单次数据库写入、单条通知等操作的固定开销。
+ * <p>元素进入无锁的多生产者单消费者队列，由一个专用线程收集：凑满 maxBatchSize 个立即交付，
+ * 否则自第一个元素到达起最多等待 maxDelay。队列中和处理中的元素总数不超过 capacity，
+ * 超出时 {@link #submit} 阻塞、{@link #offer} 返回 false，从而把下游的处理速度反压给生产者。
+ * <p>使用示例：
+ * <pre>{@code
+ *     BatchingExecutor<Row> writer = BatchingExecutor.<Row>newBuilder(rows -> dao.insertAll(rows))
+ *             .maxBatchSize(500)
+ *             .maxDelay(20, TimeUnit.MILLISECONDS)
+ *             .capacity(10_000)
+ *             .build();
+ *     writer.submit(row);
+ *     // 关闭时处理完剩余的元素
+ *     writer.close();
+ * }</pre>
+ *
+ * @param <T> 元素类型
+ */
+@Slf4j
+public class BatchingExecutor<T> implements AutoCloseable {
+    private final Consumer<List<T>> consumer;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Executor executor;
+    private final MpscQueue<T> queue = new MpscQueue<>();
+    private final int capacity;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger producers = new AtomicInteger();
+    private final Thread flusher;
+    private volatile boolean closed;
+    /**
+     * 收集线程挂起时，queued 达到该值才需要唤醒它，0 表示未挂起。
+     */
+    private volatile int wakeThreshold;
+
+    private BatchingExecutor(Builder<T> builder) {
+        this.consumer = builder.consumer;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxDelayNanos = builder.maxDelayNanos;
+        this.executor = builder.executor;
+        this.capacity = builder.capacity;
+        this.permits = new Semaphore(builder.capacity);
+        this.flusher = new Thread(this::run, builder.name);
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 创建一个新的 Builder。
+     * @param consumer 批次的消费者，每次收到的列表归消费者所有
+     * @param <T> 元素类型
+     * @return Builder 对象
+     */
+    public static <T> Builder<T> newBuilder(Consumer<List<T>> consumer) {
+        return new Builder<>(consumer);
+    }
+
+    /**
+     * 提交元素，容量已满时阻塞直到有空位。
+     * @param item 元素
+     * @throws InterruptedException 等待时被中断
+     * @throws RejectedExecutionException 已关闭
+     */
+    public void submit(T item) throws InterruptedException {
+        permits.acquire();
+        enqueue(item);
+    }
+
+    /**
+     * 尝试提交元素，容量已满时立即返回。
+     * @param item 元素
+     * @return 提交成功时返回 true
+     * @throws RejectedExecutionException 已关闭
+     */
+    public boolean offer(T item) {
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+        enqueue(item);
+        return true;
+    }
+
+    /**
+     * 尝试提交元素，容量已满时最多等待 timeout。
+     * @param item 元素
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @return 提交成功时返回 true
+     * @throws InterruptedException 等待时被中断
+     * @throws RejectedExecutionException 已关闭
+     */
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!permits.tryAcquire(timeout, unit)) {
+            return false;
+        }
+        enqueue(item);
+        return true;
+    }
+
+    /**
+     * 获取已提交但尚未处理完的元素数。
+     * @return 元素数
+     */
+    public int getPendingCount() {
+        return queued.get();
+    }
+
+    /**
+     * 停止接受新元素，等待已提交的元素全部处理完后返回，包括已交给线程池、仍在执行的批次。
+     * <p>不要在运行于线程池中的消费者里调用，否则会等待自身所在的批次而无法返回；
+     * 在收集线程中调用时只停止接受新元素，不等待。
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        if (Thread.currentThread() == flusher) {
+            return;
+        }
+        try {
+            flusher.join();
+            // 每个批次处理完才归还许可，拿回全部许可说明线程池中的批次也已结束
+            permits.acquire(capacity);
+            permits.release(capacity);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(T item) {
+        producers.incrementAndGet();
+        try {
+            if (closed) {
+                permits.release();
+                throw new RejectedExecutionException("Batching executor has been closed");
+            }
+            queue.offer(item);
+            int count = queued.incrementAndGet();
+            int threshold = wakeThreshold;
+            if (threshold > 0 && count >= threshold) {
+                LockSupport.unpark(flusher);
+            }
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    private void run() {
+        // maxBatchSize 可能很大，批次列表按需扩容，不预先分配
+        int initialBatchCapacity = Math.min(maxBatchSize, 1024);
+        List<T> batch = new ArrayList<>(initialBatchCapacity);
+        long deadline = 0;
+        while (true) {
+            T item;
+            while (batch.size() < maxBatchSize && (item = queue.poll()) != null) {
+                if (batch.isEmpty()) {
+                    deadline = System.nanoTime() + maxDelayNanos;
+                }
+                batch.add(item);
+            }
+            if (batch.size() >= maxBatchSize || (!batch.isEmpty() && (closed || deadline - System.nanoTime() <= 0))) {
+                dispatch(batch);
+                batch = new ArrayList<>(initialBatchCapacity);
+                continue;
+            }
+            if (batch.isEmpty() && closed && producers.get() == 0 && queue.isEmpty()) {
+                return;
+            }
+            // 先公布唤醒条件再检查队列，与生产者“先入队再检查条件”配合，不会错过唤醒
+            // 批次为空时有新元素就唤醒；批次未满时只在凑够一批后提前唤醒，否则等到截止时间
+            wakeThreshold = batch.isEmpty() ? 1 : queued.get() + maxBatchSize - batch.size();
+            if (queue.isEmpty() && !closed) {
+                if (batch.isEmpty()) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, deadline - System.nanoTime());
+                }
+            } else if (closed && queue.isEmpty()) {
+                // 等待正在入队的生产者完成
+                Thread.onSpinWait();
+            }
+            wakeThreshold = 0;
+        }
+    }
+
+    private void dispatch(List<T> batch) {
+        int size = batch.size();
+        Runnable task = () -> {
+            try {
+                consumer.accept(batch);
+            } catch (RuntimeException e) {
+                log.warn("Batch consumer failed for {} items", size, e);
+            } finally {
+                queued.addAndGet(-size);
+                permits.release(size);
+            }
+        };
+        if (executor == null) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 线程池饱和时在收集线程中处理，同样起到反压作用
+            task.run();
+        }
+    }
+
+    /**
+     * BatchingExecutor 的 Builder 类。
+     * @param <T> 元素类型
+     */
+    public static class Builder<T> {
+        private final Consumer<List<T>> consumer;
+        private int maxBatchSize = 100;
+        private long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        private int capacity = 10_000;
+        private Executor executor;
+        private String name = "ThreadUtil-batch";
+
+        private Builder(Consumer<List<T>> consumer) {
+            this.consumer = consumer;
+        }
+
+        /**
+         * 设置每批的最大元素数，默认为 100。
+         * @param maxBatchSize 最大元素数
+         * @return 当前Builder对象
+         */
+        public Builder<T> maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * 设置第一个元素到达后最多等待多久交付，默认为 10 毫秒。
+         * @param maxDelay 最长等待时间
+         * @param unit 时间单位
+         * @return 当前Builder对象
+         */
+        public Builder<T> maxDelay(long maxDelay, TimeUnit unit) {
+            this.maxDelayNanos = unit.toNanos(maxDelay);
+            return this;
+        }
+
+        /**
+         * 设置队列中和处理中的元素总数上限，默认为 10000。
+         * @param capacity 容量
+         * @return 当前Builder对象
+         */
+        public Builder<T> capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * 设置执行消费者的线程池。默认在收集线程中依次处理，批次严格按顺序交付；
+         * 指定线程池后多个批次可以并行处理，但不再保证顺序。
+         * @param executor 线程池
+         * @return 当前Builder对象
+         */
+        public Builder<T> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 设置收集线程的名称。
+         * @param name 线程名
+         * @return 当前Builder对象
+         */
+        public Builder<T> name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * 创建并启动 BatchingExecutor。
+         * @return BatchingExecutor 对象
+         */
+        public BatchingExecutor<T> build() {
+            if (maxBatchSize <= 0 || capacity < maxBatchSize || maxDelayNanos < 0) {
+                throw new IllegalArgumentException("Invalid batching configuration: maxBatchSize=" + maxBatchSize
+                        + ", capacity=" + capacity + ", maxDelayNanos=" + maxDelayNanos);
+            }
+            return new BatchingExecutor<>(this);
+        }
+    }
+}
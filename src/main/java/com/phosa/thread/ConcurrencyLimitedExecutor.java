@@ -0,0 +1,128 @@
+package com.phosa.thread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用信号量限制同时运行任务数的线程池包装。
+ * <p>许可在任务内部获取，提交线程不会被阻塞；配合虚拟线程使用时，等待许可的只是廉价的虚拟线程，
+ * 而下游服务（数据库、HTTP 接口）同时承受的请求数不会超过上限。
+ */
+public class ConcurrencyLimitedExecutor extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    /**
+     * 创建限流线程池。
+     * @param delegate 实际执行任务的线程池
+     * @param maxConcurrency 同时运行的最大任务数
+     */
+    public ConcurrencyLimitedExecutor(ExecutorService delegate, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * 获取同时运行的最大任务数。
+     * @return 最大任务数
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 获取正在运行的任务数。
+     * @return 任务数
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 获取正在等待许可的任务数（估计值）。
+     * @return 任务数
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(new PermittedTask(command));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = new ArrayList<>();
+        for (Runnable task : delegate.shutdownNow()) {
+            tasks.add(task instanceof PermittedTask permitted ? permitted.command : task);
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 先获取许可再执行原任务的包装，{@link #shutdownNow()} 通过它还原调用方提交的任务。
+     */
+    private final class PermittedTask implements Runnable {
+        private final Runnable command;
+
+        PermittedTask(Runnable command) {
+            this.command = command;
+        }
+
+        /**
+         * 等待许可时被中断（通常是 shutdownNow）时不执行任务，否则会绕过并发上限：
+         * {@link RunnableFuture} 直接取消，使等待结果的调用方得到 CancellationException；
+         * 其余任务保留中断状态后抛出 {@link RejectedExecutionException}，由线程池的异常处理记录下来，不会静默丢失。
+         */
+        @Override
+        public void run() {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (command instanceof RunnableFuture<?> future) {
+                    future.cancel(false);
+                    return;
+                }
+                throw new RejectedExecutionException("Interrupted while waiting for a permit, task not run: " + command, e);
+            }
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.phosa.thread;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * 五段式 cron 表达式：{@code 分 时 日 月 周}。
+ * <p>每段支持 {@code *}、{@code ?}、数值、范围 {@code a-b}、步长 {@code *}{@code /n} 或 {@code a-b/n} 以及逗号分隔的列表；
+ * 月份和星期可以使用英文缩写（{@code JAN}、{@code MON}），星期的 0 和 7 都表示周日。
+ * 与传统 cron 一致，日和周都不是 {@code *} 时，满足其中之一即可触发。
+ * <p>使用示例：
+ * <pre>{@code
+ *     CronExpression.parse("0 3 * * *");        // 每天 03:00
+ *     CronExpression.parse("0/15 9-18 * * MON-FRI");  // 工作日 9 点到 18 点每 15 分钟
+ * }</pre>
+ */
+public final class CronExpression {
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private final String expression;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        this.minutes = parseField(fields[0], 0, 59, null, 0);
+        this.hours = parseField(fields[1], 0, 23, null, 0);
+        this.daysOfMonth = parseField(fields[2], 1, 31, null, 0);
+        this.months = parseField(fields[3], 1, 12, MONTHS, 1);
+        long dow = parseField(fields[4], 0, 7, DAYS, 0);
+        // 7 与 0 都表示周日
+        this.daysOfWeek = (dow | (dow >>> 7)) & 0x7F;
+        this.anyDayOfMonth = isAny(fields[2]);
+        this.anyDayOfWeek = isAny(fields[4]);
+    }
+
+    /**
+     * 解析 cron 表达式。
+     * @param expression 表达式，例如 {@code 0 3 * * *}
+     * @return cron 表达式
+     * @throws IllegalArgumentException 表达式格式错误
+     */
+    public static CronExpression parse(String expression) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Cron expression must have 5 fields: " + expression);
+        }
+        return new CronExpression(expression, fields);
+    }
+
+    /**
+     * 计算给定时间之后的下一次触发时间，精度为分钟。
+     * @param after 起始时间，不包含在内
+     * @return 下一次触发时间
+     * @throws IllegalStateException 五年内都不会触发，例如 {@code 0 0 30 2 *}
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        ZonedDateTime limit = time.plusYears(5);
+        while (time.isBefore(limit)) {
+            if (!matches(months, time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time.toLocalDate())) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!matches(hours, time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!matches(minutes, time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        throw new IllegalStateException("Cron expression never fires: " + expression);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private boolean matchesDay(LocalDate date) {
+        boolean dayOfMonth = matches(daysOfMonth, date.getDayOfMonth());
+        boolean dayOfWeek = matches(daysOfWeek, date.getDayOfWeek().getValue() % 7);
+        if (anyDayOfMonth || anyDayOfWeek) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private static boolean matches(long mask, int value) {
+        return (mask & (1L << value)) != 0;
+    }
+
+    private static boolean isAny(String field) {
+        return "*".equals(field) || "?".equals(field);
+    }
+
+    private static long parseField(String field, int min, int max, String[] names, int nameOffset) {
+        long mask = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            String range = part;
+            if (slash >= 0) {
+                step = parseValue(part.substring(slash + 1), 1, Integer.MAX_VALUE, null, 0, field);
+                range = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (isAny(range)) {
+                from = min;
+                to = max;
+            } else {
+                int dash = range.indexOf('-');
+                if (dash >= 0) {
+                    from = parseValue(range.substring(0, dash), min, max, names, nameOffset, field);
+                    to = parseValue(range.substring(dash + 1), min, max, names, nameOffset, field);
+                } else {
+                    from = parseValue(range, min, max, names, nameOffset, field);
+                    to = slash >= 0 ? max : from;
+                }
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("Invalid cron range: " + field);
+            }
+            for (int value = from; value <= to; value += step) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int parseValue(String text, int min, int max, String[] names, int nameOffset, String field) {
+        if (names != null) {
+            String upper = text.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(upper)) {
+                    return i + nameOffset;
+                }
+            }
+        }
+        int value;
+        try {
+            value = Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cron field: " + field, e);
+        }
+        if (value < min || value > max) {
+            throw new IllegalArgumentException("Cron value " + value + " out of range [" + min + ", " + max + "]: " + field);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,78 @@
+package com.phosa.thread;
+
+import lombok.Getter;
+
+/**
+ * 线程池运行指标的快照，由 {@link InstrumentedThreadPoolExecutor#metrics()} 生成。
+ */
+@Getter
+public class ExecutorMetrics {
+    /**
+     * 当前线程数。
+     */
+    private final int poolSize;
+    /**
+     * 正在执行任务的线程数。
+     */
+    private final long activeCount;
+    /**
+     * 等待队列中的任务数。
+     */
+    private final int queueDepth;
+    /**
+     * 等待队列的剩余容量。
+     */
+    private final int queueRemainingCapacity;
+    /**
+     * 已提交的任务数，包括被拒绝的任务。
+     */
+    private final long submittedCount;
+    /**
+     * 已执行完毕的任务数，包括抛出异常的任务。
+     */
+    private final long completedCount;
+    /**
+     * 抛出异常的任务数。
+     */
+    private final long failedCount;
+    /**
+     * 触发拒绝策略的次数。
+     */
+    private final long rejectedCount;
+    /**
+     * 线程池累计创建的线程数，远大于最大线程数时说明线程在频繁回收和重建。
+     */
+    private final long threadsCreated;
+    /**
+     * 任务从提交到开始执行的等待时间。
+     */
+    private final LatencyHistogram.Snapshot queueTime;
+    /**
+     * 任务的执行时间。
+     */
+    private final LatencyHistogram.Snapshot runTime;
+
+    ExecutorMetrics(int poolSize, long activeCount, int queueDepth, int queueRemainingCapacity, long submittedCount,
+                    long completedCount, long failedCount, long rejectedCount, long threadsCreated,
+                    LatencyHistogram.Snapshot queueTime, LatencyHistogram.Snapshot runTime) {
+        this.poolSize = poolSize;
+        this.activeCount = activeCount;
+        this.queueDepth = queueDepth;
+        this.queueRemainingCapacity = queueRemainingCapacity;
+        this.submittedCount = submittedCount;
+        this.completedCount = completedCount;
+        this.failedCount = failedCount;
+        this.rejectedCount = rejectedCount;
+        this.threadsCreated = threadsCreated;
+        this.queueTime = queueTime;
+        this.runTime = runTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorMetrics{poolSize=" + poolSize + ", active=" + activeCount + ", queueDepth=" + queueDepth
+                + ", submitted=" + submittedCount + ", completed=" + completedCount + ", failed=" + failedCount
+                + ", rejected=" + rejectedCount + ", threadsCreated=" + threadsCreated
+                + ", queueTime={" + queueTime + "}, runTime={" + runTime + "}}";
+    }
+}
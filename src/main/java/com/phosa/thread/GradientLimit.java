@@ -0,0 +1,90 @@
+package com.phosa.thread;
+
+/**
+ * 基于耗时梯度的并发上限算法，思路与 TCP Vegas 相同。
+ * <p>每 windowSize 个样本计算一次短期平均耗时。基线是无排队时的耗时：短期耗时更低时基线立即下调，
+ * 更高时基线只以很小的权重缓慢上移，这样持续排队不会把基线一起抬高，而下游本身变慢时基线最终也能跟上。
+ * 梯度 {@code tolerance * 基线耗时 / 短期耗时} 截断到 [0.5, 1]：排队导致耗时上升时梯度小于 1，上限按比例收缩；
+ * 耗时平稳时梯度为 1，上限每个窗口增加约 {@code sqrt(limit)}，持续探测更高的并发。
+ * 新值与旧值按 smoothing 加权平均，避免抖动。
+ */
+public class GradientLimit implements LimitAlgorithm {
+    private static final double BASELINE_ALPHA = 0.002;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final double smoothing;
+    private final double tolerance;
+    private volatile int limit;
+    private double estimatedLimit;
+    private double baselineRtt;
+    private long windowSum;
+    private int windowCount;
+    private int windowInFlight;
+    private boolean windowDropped;
+
+    /**
+     * 创建梯度算法。
+     * @param initialLimit 初始上限
+     * @param minLimit 并发下限
+     * @param maxLimit 并发上限
+     * @param windowSize 每次调整所需的样本数
+     * @param smoothing 新值的权重，取值 0 到 1
+     * @param tolerance 允许短期耗时超过基线的倍数，超过后才开始收缩，通常为 1.5 到 2
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, int windowSize, double smoothing, double tolerance) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit bounds " + minLimit + "/" + maxLimit);
+        }
+        if (windowSize <= 0 || smoothing <= 0 || smoothing > 1 || tolerance < 1) {
+            throw new IllegalArgumentException("Invalid gradient parameters");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = windowSize;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public synchronized int onSample(long rttNanos, int inFlight, boolean dropped) {
+        windowSum += Math.max(1, rttNanos);
+        windowCount++;
+        windowInFlight = Math.max(windowInFlight, inFlight);
+        windowDropped |= dropped;
+        if (windowCount < windowSize) {
+            return limit;
+        }
+        double shortRtt = (double) windowSum / windowCount;
+        int maxInFlight = windowInFlight;
+        boolean drop = windowDropped;
+        windowSum = 0;
+        windowCount = 0;
+        windowInFlight = 0;
+        windowDropped = false;
+
+        if (baselineRtt == 0 || shortRtt < baselineRtt) {
+            baselineRtt = shortRtt;
+        } else {
+            baselineRtt += (shortRtt - baselineRtt) * BASELINE_ALPHA;
+        }
+        // 并发数远未达到上限时，耗时不能反映上限是否合适
+        if (!drop && maxInFlight < estimatedLimit / 2) {
+            return limit;
+        }
+        double gradient = drop ? 0.5 : Math.max(0.5, Math.min(1.0, tolerance * baselineRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+        return limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+}
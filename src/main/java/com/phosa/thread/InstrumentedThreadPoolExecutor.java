@@ -0,0 +1,324 @@
+package com.phosa.thread;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带运行指标的线程池。
+ * <p>每个任务在提交时包装为 {@link TimedTask}，记录排队时间和执行时间；计数器均为 {@link LongAdder}，
+ * 高并发提交时各线程写入不同的分段，不会因为统计而互相竞争。指标可以通过 {@link #metrics()} 获取快照，
+ * 也可以通过 {@link #registerMBean(String)} 注册到 JMX。
+ */
+@Slf4j
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+    private static final String OBJECT_NAME_PREFIX = "com.phosa:type=ThreadPool,name=";
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder active = new LongAdder();
+    private final LatencyHistogram queueTime = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private volatile ObjectName objectName;
+
+    /**
+     * 创建带运行指标的线程池，参数与 {@link ThreadPoolExecutor} 相同。
+     * @param corePoolSize 核心线程数
+     * @param maximumPoolSize 最大线程数
+     * @param keepAliveTime 空闲线程的存活时间
+     * @param unit 时间单位
+     * @param workQueue 等待队列
+     * @param threadFactory 线程工厂
+     * @param handler 拒绝策略
+     */
+    public InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                          BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                          RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue,
+                new CountingThreadFactory(threadFactory, new LongAdder()),
+                new CountingHandler(handler, new LongAdder()));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(command instanceof TimedTask ? command : newTask(command));
+    }
+
+    /**
+     * 将提交的任务包装为计时任务，子类可以返回携带额外信息的子类型。
+     * @param command 任务
+     * @return 计时任务
+     */
+    protected TimedTask newTask(Runnable command) {
+        return new TimedTask(this, command);
+    }
+
+    /**
+     * 立即关闭线程池，返回的是提交时的原始任务而不是包装后的计时任务。
+     * @return 尚未执行的任务
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = super.shutdownNow();
+        List<Runnable> tasks = new ArrayList<>(pending.size());
+        for (Runnable runnable : pending) {
+            tasks.add(runnable instanceof TimedTask timed ? timed.task : runnable);
+        }
+        return tasks;
+    }
+
+    @Override
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        super.setThreadFactory(new CountingThreadFactory(threadFactory, countingThreadFactory().created));
+    }
+
+    @Override
+    public RejectedExecutionHandler getRejectedExecutionHandler() {
+        return ((CountingHandler) super.getRejectedExecutionHandler()).delegate;
+    }
+
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler(new CountingHandler(handler, countingHandler().rejected));
+    }
+
+    /**
+     * 任务执行结束后、计入完成数之前调用，此时 {@link #activeTaskCount()} 仍包含该任务。子类可以据此调整线程池。
+     * @param runNanos 执行时间，单位纳秒
+     * @param success 任务是否正常结束
+     */
+    protected void afterTask(long runNanos, boolean success) {
+
+    }
+
+    /**
+     * 获取正在执行的任务数。
+     * @return 任务数
+     */
+    protected long activeTaskCount() {
+        return active.sum();
+    }
+
+    /**
+     * 获取当前运行指标的快照。
+     * @return 指标快照
+     */
+    public ExecutorMetrics metrics() {
+        BlockingQueue<Runnable> queue = getQueue();
+        return new ExecutorMetrics(getPoolSize(), active.sum(), queue.size(), queue.remainingCapacity(),
+                submitted.sum(), completed.sum(), failed.sum(), countingHandler().rejected.sum(),
+                countingThreadFactory().created.sum(), queueTime.snapshot(), runTime.snapshot());
+    }
+
+    /**
+     * 将指标注册到平台 MBeanServer，对象名为 {@code com.phosa:type=ThreadPool,name=name}。
+     * 同名的已有 MBean 会被替换。注册失败只记录日志，不影响线程池使用。
+     * @param name 线程池名称
+     */
+    public void registerMBean(String name) {
+        unregisterMBean();
+        try {
+            ObjectName target = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(target)) {
+                server.unregisterMBean(target);
+            }
+            server.registerMBean(new StandardMBean(new MXBeanAdapter(), ThreadPoolMXBean.class, true), target);
+            objectName = target;
+        } catch (JMException e) {
+            log.warn("Failed to register thread pool MBean {}", name, e);
+        }
+    }
+
+    /**
+     * 从平台 MBeanServer 注销本线程池的指标。
+     */
+    public void unregisterMBean() {
+        ObjectName target = objectName;
+        if (target == null) {
+            return;
+        }
+        objectName = null;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(target);
+        } catch (InstanceNotFoundException ignored) {
+            // 已被同名的新线程池替换
+        } catch (JMException e) {
+            log.warn("Failed to unregister thread pool MBean {}", target, e);
+        }
+    }
+
+    private CountingThreadFactory countingThreadFactory() {
+        return (CountingThreadFactory) super.getThreadFactory();
+    }
+
+    private CountingHandler countingHandler() {
+        return (CountingHandler) super.getRejectedExecutionHandler();
+    }
+
+    /**
+     * 记录提交时间的任务包装。
+     */
+    protected static class TimedTask implements Runnable {
+        private final InstrumentedThreadPoolExecutor owner;
+        final Runnable task;
+        private final long submittedAt;
+
+        /**
+         * 包装任务并记录提交时间。
+         * @param owner 所属线程池
+         * @param task 原始任务
+         */
+        protected TimedTask(InstrumentedThreadPoolExecutor owner, Runnable task) {
+            this.owner = owner;
+            this.task = task;
+            this.submittedAt = System.nanoTime();
+            owner.submitted.increment();
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            owner.queueTime.record(start - submittedAt);
+            owner.active.increment();
+            boolean success = false;
+            try {
+                task.run();
+                success = true;
+            } finally {
+                long runNanos = System.nanoTime() - start;
+                owner.afterTask(runNanos, success);
+                owner.active.decrement();
+                owner.runTime.record(runNanos);
+                owner.completed.increment();
+                if (!success) {
+                    owner.failed.increment();
+                }
+            }
+        }
+    }
+
+    private static final class CountingThreadFactory implements ThreadFactory {
+        final ThreadFactory delegate;
+        final LongAdder created;
+
+        CountingThreadFactory(ThreadFactory delegate, LongAdder created) {
+            this.delegate = delegate;
+            this.created = created;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = delegate.newThread(r);
+            if (thread != null) {
+                created.increment();
+            }
+            return thread;
+        }
+    }
+
+    private static final class CountingHandler implements RejectedExecutionHandler {
+        final RejectedExecutionHandler delegate;
+        final LongAdder rejected;
+
+        CountingHandler(RejectedExecutionHandler delegate, LongAdder rejected) {
+            this.delegate = delegate;
+            this.rejected = rejected;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            rejected.increment();
+            delegate.rejectedExecution(r, executor);
+        }
+    }
+
+    private final class MXBeanAdapter implements ThreadPoolMXBean {
+
+        @Override
+        public int getPoolSize() {
+            return InstrumentedThreadPoolExecutor.this.getPoolSize();
+        }
+
+        @Override
+        public int getCorePoolSize() {
+            return InstrumentedThreadPoolExecutor.this.getCorePoolSize();
+        }
+
+        @Override
+        public int getMaximumPoolSize() {
+            return InstrumentedThreadPoolExecutor.this.getMaximumPoolSize();
+        }
+
+        @Override
+        public long getActiveCount() {
+            return active.sum();
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return getQueue().size();
+        }
+
+        @Override
+        public long getSubmittedCount() {
+            return submitted.sum();
+        }
+
+        @Override
+        public long getCompletedCount() {
+            return completed.sum();
+        }
+
+        @Override
+        public long getFailedCount() {
+            return failed.sum();
+        }
+
+        @Override
+        public long getRejectedCount() {
+            return countingHandler().rejected.sum();
+        }
+
+        @Override
+        public long getThreadsCreated() {
+            return countingThreadFactory().created.sum();
+        }
+
+        @Override
+        public double getQueueTimeMean() {
+            return queueTime.snapshot().getMean();
+        }
+
+        @Override
+        public long getQueueTimeP99() {
+            return queueTime.snapshot().percentile(0.99);
+        }
+
+        @Override
+        public long getQueueTimeMax() {
+            return queueTime.snapshot().getMax();
+        }
+
+        @Override
+        public double getRunTimeMean() {
+            return runTime.snapshot().getMean();
+        }
+
+        @Override
+        public long getRunTimeP99() {
+            return runTime.snapshot().percentile(0.99);
+        }
+
+        @Override
+        public long getRunTimeMax() {
+            return runTime.snapshot().getMax();
+        }
+    }
+}
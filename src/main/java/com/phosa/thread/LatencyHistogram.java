@@ -0,0 +1,116 @@
+package com.phosa.thread;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 以 2 的幂为桶边界的延迟直方图，精度为微秒。
+ * <p>每个桶是一个 {@link LongAdder}，多线程同时记录时各自写入不同的分段，不会在同一个缓存行上竞争，
+ * 记录一次只需要几次无锁的累加。分位数按桶的上界估算，误差不超过一倍。
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次耗时。
+     * @param nanos 耗时，单位纳秒
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros))].increment();
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    /**
+     * 获取当前数据的快照。记录与快照并发进行时，快照中的各项之间可能有少量偏差。
+     * @return 快照
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        return new Snapshot(counts, count, sum.sum(), max.get());
+    }
+
+    /**
+     * 直方图快照，所有时间的单位均为微秒。
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * 获取记录次数。
+         * @return 次数
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * 获取平均耗时。
+         * @return 平均耗时，没有记录时为 0
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * 获取最大耗时。
+         * @return 最大耗时
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * 估算分位数。
+         * @param quantile 分位，取值 0 到 1，例如 0.99
+         * @return 耗时的估计值，不超过最大耗时
+         */
+        public long percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return Math.min(max, i == 0 ? 0 : (1L << i) - 1);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", mean=" + Math.round(getMean()) + "us, p50=" + percentile(0.5)
+                    + "us, p99=" + percentile(0.99) + "us, max=" + max + "us";
+        }
+    }
+}
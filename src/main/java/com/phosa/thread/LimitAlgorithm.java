@@ -0,0 +1,47 @@
+package com.phosa.thread;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并发上限的自适应算法，根据每个任务的耗时和当时的并发数计算新的上限。
+ * <p>实现需要是线程安全的，{@link AdaptiveThreadPoolExecutor} 会在多个工作线程中同时调用 {@link #onSample}。
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * 记录一次任务执行。
+     * @param rttNanos 任务耗时，单位纳秒
+     * @param inFlight 任务结束时正在执行的任务数，包括该任务
+     * @param dropped 任务是否失败，失败视为过载信号
+     * @return 新的并发上限
+     */
+    int onSample(long rttNanos, int inFlight, boolean dropped);
+
+    /**
+     * 获取当前的并发上限。
+     * @return 并发上限
+     */
+    int getLimit();
+
+    /**
+     * 加性增、乘性减算法：未过载时每完成一轮任务加 1，耗时超过阈值或任务失败时乘以 0.9。
+     * @param minLimit 并发下限
+     * @param maxLimit 并发上限
+     * @param timeout 视为过载的耗时阈值
+     * @param unit 时间单位
+     * @return 算法实例，初始值为 minLimit
+     */
+    static LimitAlgorithm aimd(int minLimit, int maxLimit, long timeout, TimeUnit unit) {
+        return new AimdLimit(minLimit, minLimit, maxLimit, 0.9, unit.toNanos(timeout));
+    }
+
+    /**
+     * 梯度算法（类似 TCP Vegas）：比较短期平均耗时与无排队时的基线耗时，耗时上升时按比例收缩，稳定时缓慢探测更高的并发。
+     * @param minLimit 并发下限
+     * @param maxLimit 并发上限
+     * @return 算法实例，初始值为 minLimit
+     */
+    static LimitAlgorithm gradient(int minLimit, int maxLimit) {
+        return new GradientLimit(minLimit, minLimit, maxLimit, 20, 0.2, 1.5);
+    }
+}
@@ -0,0 +1,55 @@
+package com.phosa.thread;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 无锁的多生产者、单消费者链表队列（Vyukov 算法）。
+ * <p>入队只需要一次 {@code getAndSet}，生产者之间不会因为 CAS 失败而重试；出队只能由唯一的消费者线程调用。
+ * 生产者交换尾指针后、链接 next 之前，消费者可能暂时看不到这个元素，调用方需要容忍这种短暂的“假空”。
+ */
+final class MpscQueue<E> {
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head;
+
+    MpscQueue() {
+        Node<E> stub = new Node<>(null);
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+    void offer(E value) {
+        Node<E> node = new Node<>(value);
+        Node<E> previous = tail.getAndSet(node);
+        previous.next = node;
+    }
+
+    /**
+     * 仅消费者线程调用。
+     */
+    E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    }
+
+    /**
+     * 仅消费者线程调用。
+     */
+    boolean isEmpty() {
+        return head.next == null && tail.get() == head;
+    }
+
+    private static final class Node<E> {
+        E value;
+        volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+}
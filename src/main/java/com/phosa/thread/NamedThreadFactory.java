@@ -0,0 +1,46 @@
+package com.phosa.thread;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按名称前缀为线程编号的线程工厂，便于在线程转储和日志中区分不同的线程池。
+ */
+public class NamedThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final boolean daemon;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /**
+     * 创建非守护线程的线程工厂。
+     * @param prefix 线程名前缀，线程名为 {@code prefix-序号}
+     */
+    public NamedThreadFactory(String prefix) {
+        this(prefix, false);
+    }
+
+    /**
+     * 创建线程工厂。
+     * @param prefix 线程名前缀，线程名为 {@code prefix-序号}
+     * @param daemon 是否为守护线程
+     */
+    public NamedThreadFactory(String prefix, boolean daemon) {
+        this.prefix = prefix;
+        this.daemon = daemon;
+    }
+
+    /**
+     * 生成下一个线程名，供无法直接使用本工厂创建线程的场景（例如 ForkJoinPool）使用。
+     * @return 线程名
+     */
+    public String nextName() {
+        return prefix + "-" + sequence.incrementAndGet();
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, nextName());
+        thread.setDaemon(daemon);
+        return thread;
+    }
+}
@@ -0,0 +1,409 @@
+package com.phosa.thread;
+
+import java.io.Serializable;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 支持优先级的固定大小线程池。
+ * <p>数值越大的任务越先执行，优先级相同的任务按提交顺序执行。等待队列有容量上限，
+ * 队列满时交给拒绝策略处理，避免低优先级任务无限堆积。运行指标见 {@link InstrumentedThreadPoolExecutor}。
+ */
+public class PriorityThreadPoolExecutor extends InstrumentedThreadPoolExecutor {
+    /**
+     * 未指定优先级时使用的默认优先级。
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 创建优先级线程池。
+     * @param poolSize 线程数
+     * @param queueCapacity 等待队列容量
+     * @param threadFactory 线程工厂
+     * @param handler 拒绝策略
+     */
+    public PriorityThreadPoolExecutor(int poolSize, int queueCapacity, ThreadFactory threadFactory,
+                                      RejectedExecutionHandler handler) {
+        super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new BoundedPriorityQueue(queueCapacity), threadFactory, handler);
+    }
+
+    /**
+     * 未指定优先级提交的任务使用默认优先级。
+     * @param command 任务
+     * @return 带优先级的计时任务
+     */
+    @Override
+    protected TimedTask newTask(Runnable command) {
+        return new PriorityTask(this, command, DEFAULT_PRIORITY, sequence.getAndIncrement());
+    }
+
+    /**
+     * 以指定优先级执行任务。
+     * @param command 任务
+     * @param priority 优先级，数值越大越先执行
+     */
+    public void execute(Runnable command, int priority) {
+        super.execute(new PriorityTask(this, command, priority, sequence.getAndIncrement()));
+    }
+
+    /**
+     * 以指定优先级提交有返回值的任务。
+     * @param task 任务
+     * @param priority 优先级，数值越大越先执行
+     * @param <T> 返回值类型
+     * @return 任务的 Future
+     */
+    public <T> Future<T> submit(Callable<T> task, int priority) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future, priority);
+        return future;
+    }
+
+    /**
+     * 带优先级和提交序号的任务。
+     */
+    static final class PriorityTask extends TimedTask implements Comparable<PriorityTask> {
+        final int priority;
+        final long sequence;
+
+        PriorityTask(PriorityThreadPoolExecutor owner, Runnable task, int priority, long sequence) {
+            super(owner, task);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(PriorityTask other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * 有容量上限的优先级队列。
+     * <p>{@link PriorityBlockingQueue} 本身是无界的，因此这里用一把 {@link ReentrantLock} 保护底层的
+     * {@link PriorityQueue}，以 notEmpty / notFull 两个条件分别唤醒等待取出和等待放入的线程，
+     * 与 {@link ArrayBlockingQueue} 的做法一致。
+     */
+    static final class BoundedPriorityQueue extends AbstractQueue<Runnable>
+            implements BlockingQueue<Runnable>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final PriorityQueue<Runnable> queue;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+
+        BoundedPriorityQueue(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive");
+            }
+            this.capacity = capacity;
+            this.queue = new PriorityQueue<>(Math.min(capacity, 64));
+        }
+
+        @Override
+        public boolean offer(Runnable runnable) {
+            Objects.requireNonNull(runnable);
+            lock.lock();
+            try {
+                if (queue.size() >= capacity) {
+                    return false;
+                }
+                enqueue(runnable);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 等待队列出现空位，超时返回 false。
+         */
+        @Override
+        public boolean offer(Runnable runnable, long timeout, TimeUnit unit) throws InterruptedException {
+            Objects.requireNonNull(runnable);
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (queue.size() >= capacity) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = notFull.awaitNanos(nanos);
+                }
+                enqueue(runnable);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void put(Runnable runnable) throws InterruptedException {
+            Objects.requireNonNull(runnable);
+            lock.lockInterruptibly();
+            try {
+                while (queue.size() >= capacity) {
+                    notFull.await();
+                }
+                enqueue(runnable);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll() {
+            lock.lock();
+            try {
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (queue.isEmpty()) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (queue.isEmpty()) {
+                    notEmpty.await();
+                }
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable peek() {
+            lock.lock();
+            try {
+                return queue.peek();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int remainingCapacity() {
+            lock.lock();
+            try {
+                return capacity - queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            lock.lock();
+            try {
+                boolean removed = queue.remove(o);
+                if (removed) {
+                    notFull.signal();
+                }
+                return removed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            lock.lock();
+            try {
+                return queue.contains(o);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void clear() {
+            lock.lock();
+            try {
+                queue.clear();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Object[] toArray() {
+            lock.lock();
+            try {
+                return queue.toArray();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public <T> T[] toArray(T[] a) {
+            lock.lock();
+            try {
+                return queue.toArray(a);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c) {
+            return drainTo(c, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c, int maxElements) {
+            Objects.requireNonNull(c);
+            if (c == this) {
+                throw new IllegalArgumentException();
+            }
+            lock.lock();
+            try {
+                int n = 0;
+                while (n < maxElements && !queue.isEmpty()) {
+                    c.add(queue.poll());
+                    n++;
+                }
+                if (n > 0) {
+                    notFull.signalAll();
+                }
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 返回快照上的迭代器，{@link Iterator#remove()} 会从队列中移除对应任务。
+         */
+        @Override
+        public Iterator<Runnable> iterator() {
+            Object[] snapshot = toArray();
+            return new Iterator<>() {
+                private int cursor;
+                private Runnable last;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < snapshot.length;
+                }
+
+                @Override
+                public Runnable next() {
+                    if (cursor >= snapshot.length) {
+                        throw new NoSuchElementException();
+                    }
+                    last = (Runnable) snapshot[cursor++];
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    removeIdentical(last);
+                    last = null;
+                }
+            };
+        }
+
+        /**
+         * 当优先级最低的排队任务比 {@code incoming} 更晚执行时移除并返回它，否则不做改动并返回 null。
+         * 比较和移除在同一把锁内完成，不会误删其他线程刚放入的更高优先级任务。
+         */
+        Runnable removeLowerThan(PriorityTask incoming) {
+            lock.lock();
+            try {
+                PriorityTask lowest = null;
+                for (Runnable runnable : queue) {
+                    PriorityTask task = (PriorityTask) runnable;
+                    if (lowest == null || task.compareTo(lowest) > 0) {
+                        lowest = task;
+                    }
+                }
+                if (lowest == null || lowest.compareTo(incoming) <= 0) {
+                    return null;
+                }
+                queue.remove(lowest);
+                notFull.signal();
+                return lowest;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void removeIdentical(Runnable runnable) {
+            lock.lock();
+            try {
+                for (Iterator<Runnable> it = queue.iterator(); it.hasNext(); ) {
+                    if (it.next() == runnable) {
+                        it.remove();
+                        notFull.signal();
+                        return;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void enqueue(Runnable runnable) {
+            queue.offer(runnable);
+            notEmpty.signal();
+        }
+
+        private Runnable dequeue() {
+            Runnable runnable = queue.poll();
+            if (runnable != null) {
+                notFull.signal();
+            }
+            return runnable;
+        }
+    }
+}
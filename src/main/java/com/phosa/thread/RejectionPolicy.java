@@ -0,0 +1,84 @@
+package com.phosa.thread;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池的拒绝策略。
+ * <p>当线程数达到上限且队列已满时，由拒绝策略决定新任务的去向。
+ */
+public final class RejectionPolicy {
+
+    private RejectionPolicy() {
+
+    }
+
+    /**
+     * 直接拒绝，抛出 {@link RejectedExecutionException}。
+     * @return 拒绝策略
+     */
+    public static RejectedExecutionHandler abort() {
+        return new ThreadPoolExecutor.AbortPolicy();
+    }
+
+    /**
+     * 由提交任务的线程自己执行，天然形成背压，提交速度会被拉低到执行速度。
+     * @return 拒绝策略
+     */
+    public static RejectedExecutionHandler callerRuns() {
+        return new ThreadPoolExecutor.CallerRunsPolicy();
+    }
+
+    /**
+     * 丢弃队列中最早的任务，然后重新提交新任务。
+     * <p>对于优先级线程池，只有新任务比队列中优先级最低的任务更靠前时才会挤掉后者，
+     * 否则丢弃的是新任务本身，避免低优先级任务挤掉已排队的高优先级任务。
+     * @return 拒绝策略
+     */
+    public static RejectedExecutionHandler dropOldest() {
+        return (r, executor) -> {
+            if (executor.isShutdown()) {
+                return;
+            }
+            BlockingQueue<Runnable> queue = executor.getQueue();
+            if (queue instanceof PriorityThreadPoolExecutor.BoundedPriorityQueue priorityQueue
+                    && r instanceof PriorityThreadPoolExecutor.PriorityTask incoming) {
+                if (priorityQueue.removeLowerThan(incoming) == null) {
+                    return;
+                }
+            } else {
+                queue.poll();
+            }
+            executor.execute(r);
+        };
+    }
+
+    /**
+     * 阻塞提交线程，直到队列有空位或超时，超时后抛出 {@link RejectedExecutionException}。
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @return 拒绝策略
+     */
+    public static RejectedExecutionHandler block(long timeout, TimeUnit unit) {
+        long timeoutNanos = unit.toNanos(timeout);
+        return (r, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            try {
+                if (!executor.getQueue().offer(r, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new RejectedExecutionException("Interrupted while waiting for queue space");
+                    }
+                    throw new RejectedExecutionException("Timed out waiting for queue space after " + timeout + " " + unit);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+            }
+        };
+    }
+}
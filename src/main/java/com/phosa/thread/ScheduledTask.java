@@ -0,0 +1,154 @@
+package com.phosa.thread;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 由 {@link TimingWheelScheduler} 调度的任务句柄。
+ * <p>周期任务在每次触发后重新放入时间轮，句柄在整个生命周期内保持不变，调用 {@link #cancel()} 即可停止后续执行。
+ */
+@Slf4j
+public final class ScheduledTask {
+    enum Kind {
+        ONCE, FIXED_RATE, FIXED_DELAY, CRON
+    }
+
+    private final TimingWheelScheduler scheduler;
+    private final Runnable command;
+    private final Kind kind;
+    private final long periodNanos;
+    private final long jitterNanos;
+    private final CronExpression cron;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    volatile TimingWheelScheduler.Timeout current;
+    /**
+     * 固定频率任务下一次的计划触发时间（不含抖动），以调度器的时钟为准，只由时间轮线程读写。
+     */
+    private long nextRun;
+
+    ScheduledTask(TimingWheelScheduler scheduler, Runnable command, Kind kind, long periodNanos, long jitterNanos,
+                  CronExpression cron) {
+        this.scheduler = scheduler;
+        this.command = command;
+        this.kind = kind;
+        this.periodNanos = periodNanos;
+        this.jitterNanos = jitterNanos;
+        this.cron = cron;
+    }
+
+    /**
+     * 取消任务。已经开始的本次执行不会被中断，但不会再有后续执行。
+     * @return 本次调用取消了任务时返回 true，任务已经结束或已被取消时返回 false
+     */
+    public boolean cancel() {
+        if (cancelled || done) {
+            return false;
+        }
+        cancelled = true;
+        TimingWheelScheduler.Timeout timeout = current;
+        if (timeout != null) {
+            scheduler.cancel(timeout);
+        }
+        return true;
+    }
+
+    /**
+     * 判断任务是否已被取消。一次性任务被执行器拒绝时也视为已取消。
+     * @return 已取消时返回 true
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 判断任务是否已经结束，即一次性任务已执行完毕，或任务已被取消。
+     * @return 已结束时返回 true
+     */
+    public boolean isDone() {
+        return done || cancelled;
+    }
+
+    void start(long initialDelayNanos) {
+        nextRun = scheduler.now() + initialDelayNanos;
+        scheduler.enqueue(this, initialDelayNanos + jitter());
+    }
+
+    void startCron() {
+        scheduleNextCron();
+    }
+
+    /**
+     * 时间轮线程在到期时调用。固定频率和 cron 任务在这里立即安排下一次触发，固定延迟任务在执行结束后再安排。
+     */
+    void fire() {
+        if (cancelled) {
+            return;
+        }
+        switch (kind) {
+            case FIXED_RATE -> {
+                nextRun += periodNanos;
+                scheduler.enqueue(this, Math.max(0, nextRun - scheduler.now()) + jitter());
+            }
+            case CRON -> scheduleNextCron();
+            default -> {
+            }
+        }
+        if (!scheduler.dispatch(this::runOnce)) {
+            rejected();
+        }
+    }
+
+    /**
+     * 本次执行被执行器拒绝。固定频率和 cron 任务已经安排了下一次触发；固定延迟任务原本在执行结束后才安排，
+     * 这里需要补上，否则一次拒绝就会让任务永远停止；一次性任务不会再执行，视为已取消。
+     */
+    private void rejected() {
+        switch (kind) {
+            case ONCE -> {
+                cancelled = true;
+                done = true;
+            }
+            case FIXED_DELAY -> scheduler.enqueue(this, periodNanos + jitter());
+            default -> {
+            }
+        }
+    }
+
+    private void runOnce() {
+        if (cancelled) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Skipping scheduled task {} because the previous run has not finished", command);
+            return;
+        }
+        try {
+            command.run();
+        } catch (RuntimeException e) {
+            log.warn("Scheduled task {} failed", command, e);
+        } finally {
+            running.set(false);
+            if (kind == Kind.ONCE) {
+                done = true;
+            } else if (kind == Kind.FIXED_DELAY) {
+                scheduler.enqueue(this, periodNanos + jitter());
+            }
+        }
+    }
+
+    private void scheduleNextCron() {
+        ZonedDateTime now = ZonedDateTime.now(scheduler.zone());
+        long delayNanos = Duration.between(now, cron.next(now)).toNanos();
+        scheduler.enqueue(this, Math.max(0, delayNanos) + jitter());
+    }
+
+    private long jitter() {
+        return jitterNanos <= 0 ? 0 : ThreadLocalRandom.current().nextLong(jitterNanos + 1);
+    }
+}
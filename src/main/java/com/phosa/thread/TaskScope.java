@@ -0,0 +1,237 @@
+package com.phosa.thread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 结构化并发的任务作用域。
+ * <p>在作用域内 fork 的子任务共享同一个生命周期：任一子任务失败时取消其余子任务，
+ * {@link #join(long, TimeUnit)} 等待全部完成或超时，{@link #close()} 取消尚未完成的子任务并等待它们真正退出，
+ * 因此离开 try 块后不会有子任务在后台继续运行。
+ * <p>使用示例：
+ * <pre>{@code
+ *     try (TaskScope scope = ThreadUtil.newScope()) {
+ *         TaskScope.Subtask<User> user = scope.fork(() -> loadUser(id));
+ *         TaskScope.Subtask<List<Order>> orders = scope.fork(() -> loadOrders(id));
+ *         scope.join(2, TimeUnit.SECONDS);
+ *         return new Profile(user.result(), orders.result());
+ *     }
+ * }</pre>
+ * 作用域只应由创建它的线程使用。
+ */
+public class TaskScope implements AutoCloseable {
+    private final Executor executor;
+    private final List<Subtask<?>> subtasks = new ArrayList<>();
+    private final Object lock = new Object();
+    private int unfinished;
+    private Throwable failure;
+    private boolean closed;
+
+    /**
+     * 创建任务作用域。
+     * @param executor 执行子任务的线程池
+     */
+    public TaskScope(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 在作用域内启动子任务。
+     * @param task 子任务
+     * @param <T> 返回值类型
+     * @return 子任务句柄
+     */
+    public <T> Subtask<T> fork(Callable<T> task) {
+        Subtask<T> subtask = new Subtask<>(this, task);
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Task scope is closed");
+            }
+            subtasks.add(subtask);
+            unfinished++;
+            if (failure != null) {
+                subtask.cancel(true);
+                return subtask;
+            }
+        }
+        try {
+            executor.execute(subtask);
+        } catch (RejectedExecutionException e) {
+            subtask.phase.set(Subtask.FINISHED);
+            subtask.cancel(false);
+            throw e;
+        }
+        return subtask;
+    }
+
+    /**
+     * 等待所有子任务完成，不限时。
+     * @throws InterruptedException 等待时被中断
+     * @throws ExecutionException 任一子任务失败，cause 为第一个失败的原因
+     */
+    public void join() throws InterruptedException, ExecutionException {
+        try {
+            join(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 等待所有子任务完成。失败或超时时会取消其余子任务。
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @throws InterruptedException 等待时被中断
+     * @throws ExecutionException 任一子任务失败，cause 为第一个失败的原因
+     * @throws TimeoutException 超时
+     */
+    public void join(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Throwable cause;
+        synchronized (lock) {
+            while (failure == null && unfinished > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            cause = failure;
+            if (cause == null && unfinished == 0) {
+                return;
+            }
+        }
+        cancelAll();
+        if (cause != null) {
+            throw new ExecutionException(cause);
+        }
+        throw new TimeoutException("Task scope did not complete within " + timeout + " " + unit);
+    }
+
+    /**
+     * 取消尚未完成的子任务，并等待已经开始运行的子任务退出。
+     * <p>等待期间不响应中断，中断标志会在返回前恢复。
+     */
+    @Override
+    public void close() {
+        List<Subtask<?>> snapshot;
+        synchronized (lock) {
+            closed = true;
+            snapshot = new ArrayList<>(subtasks);
+        }
+        cancelAll();
+        boolean interrupted = false;
+        for (Subtask<?> subtask : snapshot) {
+            if (subtask.phase.compareAndSet(Subtask.QUEUED, Subtask.FINISHED)) {
+                continue;
+            }
+            synchronized (lock) {
+                while (subtask.phase.get() != Subtask.FINISHED) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cancelAll() {
+        List<Subtask<?>> snapshot;
+        synchronized (lock) {
+            snapshot = new ArrayList<>(subtasks);
+        }
+        for (Subtask<?> subtask : snapshot) {
+            subtask.cancel(true);
+        }
+    }
+
+    private void completed(Subtask<?> subtask) {
+        Throwable cause = null;
+        if (!subtask.isCancelled()) {
+            try {
+                subtask.get();
+            } catch (ExecutionException e) {
+                cause = e.getCause();
+            } catch (InterruptedException | CancellationException ignored) {
+                // 已完成的任务不会阻塞
+            }
+        }
+        boolean firstFailure;
+        synchronized (lock) {
+            unfinished--;
+            firstFailure = cause != null && failure == null;
+            if (firstFailure) {
+                failure = cause;
+            }
+            lock.notifyAll();
+        }
+        if (firstFailure) {
+            cancelAll();
+        }
+    }
+
+    private void exited() {
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 作用域内的子任务。
+     * @param <T> 返回值类型
+     */
+    public static final class Subtask<T> extends FutureTask<T> {
+        static final int QUEUED = 0;
+        static final int RUNNING = 1;
+        static final int FINISHED = 2;
+
+        private final TaskScope scope;
+        final AtomicInteger phase = new AtomicInteger(QUEUED);
+
+        Subtask(TaskScope scope, Callable<T> task) {
+            super(task);
+            this.scope = scope;
+        }
+
+        @Override
+        public void run() {
+            if (!phase.compareAndSet(QUEUED, RUNNING)) {
+                return;
+            }
+            try {
+                super.run();
+            } finally {
+                phase.set(FINISHED);
+                scope.exited();
+            }
+        }
+
+        @Override
+        protected void done() {
+            scope.completed(this);
+        }
+
+        /**
+         * 获取成功完成的子任务的结果。
+         * @return 结果
+         * @throws IllegalStateException 子任务尚未完成、已失败或已被取消
+         */
+        public T result() {
+            if (!isDone() || isCancelled()) {
+                throw new IllegalStateException("Subtask has not completed successfully");
+            }
+            try {
+                return get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Subtask has not completed successfully", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.phosa.thread;
+
+/**
+ * 通过 JMX 暴露的线程池指标，对象名为 {@code com.phosa:type=ThreadPool,name=线程池名称}，时间单位均为微秒。
+ */
+public interface ThreadPoolMXBean {
+
+    int getPoolSize();
+
+    int getCorePoolSize();
+
+    int getMaximumPoolSize();
+
+    long getActiveCount();
+
+    int getQueueDepth();
+
+    long getSubmittedCount();
+
+    long getCompletedCount();
+
+    long getFailedCount();
+
+    long getRejectedCount();
+
+    long getThreadsCreated();
+
+    double getQueueTimeMean();
+
+    long getQueueTimeP99();
+
+    long getQueueTimeMax();
+
+    double getRunTimeMean();
+
+    long getRunTimeP99();
+
+    long getRunTimeMax();
+}
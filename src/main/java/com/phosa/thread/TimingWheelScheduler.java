@@ -0,0 +1,324 @@
+package com.phosa.thread;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.ZoneId;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于哈希时间轮的定时调度器。
+ * <p>时间轮由固定数量的槽组成，每个槽是一个双向链表，一个专用线程每隔一个 tick 前进一格，触发当前槽中到期的任务。
+ * 新增和取消定时任务都只是放入无锁队列，由时间轮线程在下一个 tick 批量处理，复杂度为 O(1)，与已有定时任务的数量无关，
+ * 因此可以承载数百万个超时。代价是触发时间的精度为一个 tick。
+ * <p>到期的任务交给 executor 执行，时间轮线程本身不运行业务代码。
+ */
+@Slf4j
+public class TimingWheelScheduler implements AutoCloseable {
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+    private static final NamedThreadFactory TIMER_THREADS = new NamedThreadFactory("TimingWheelScheduler", true);
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+    private final ZoneId zone;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final long startTime = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * 创建调度器并启动时间轮线程。
+     * @param tickDuration 每个 tick 的时长，即触发精度
+     * @param unit 时间单位
+     * @param wheelSize 槽的数量，会向上取整为 2 的幂
+     * @param executor 执行到期任务的线程池
+     * @param zone cron 任务使用的时区
+     */
+    public TimingWheelScheduler(long tickDuration, TimeUnit unit, int wheelSize, Executor executor, ZoneId zone) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickDuration and wheelSize must be positive");
+        }
+        this.tickNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), unit.toNanos(tickDuration));
+        int size = Integer.highestOneBit(Math.min(wheelSize, 1 << 20) * 2 - 1);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+        this.zone = zone;
+        this.worker = TIMER_THREADS.newThread(this::run);
+        worker.start();
+    }
+
+    /**
+     * 延迟执行一次。
+     * @param command 任务
+     * @param delay 延迟
+     * @param unit 时间单位
+     * @return 任务句柄
+     */
+    public ScheduledTask schedule(Runnable command, long delay, TimeUnit unit) {
+        ensureRunning();
+        ScheduledTask task = new ScheduledTask(this, command, ScheduledTask.Kind.ONCE, 0, 0, null);
+        task.start(unit.toNanos(delay));
+        return task;
+    }
+
+    /**
+     * 以固定频率执行，下一次的计划时间由上一次的计划时间加上周期得到，不受执行耗时影响。
+     * 上一次执行尚未结束时跳过本次执行。任务抛出的异常只记录日志，不会终止后续执行。
+     * @param command 任务
+     * @param initialDelay 首次执行的延迟
+     * @param period 周期
+     * @param jitter 每次触发额外增加的随机延迟上限，为 0 时不抖动
+     * @param unit 时间单位
+     * @return 任务句柄
+     */
+    public ScheduledTask scheduleAtFixedRate(Runnable command, long initialDelay, long period, long jitter, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        ensureRunning();
+        ScheduledTask task = new ScheduledTask(this, command, ScheduledTask.Kind.FIXED_RATE, unit.toNanos(period),
+                unit.toNanos(jitter), null);
+        task.start(unit.toNanos(initialDelay));
+        return task;
+    }
+
+    /**
+     * 以固定延迟执行，每次执行结束后再等待 delay 开始下一次。任务抛出的异常只记录日志，不会终止后续执行。
+     * @param command 任务
+     * @param initialDelay 首次执行的延迟
+     * @param delay 两次执行之间的间隔
+     * @param jitter 每次触发额外增加的随机延迟上限，为 0 时不抖动
+     * @param unit 时间单位
+     * @return 任务句柄
+     */
+    public ScheduledTask scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, long jitter, TimeUnit unit) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("delay must not be negative");
+        }
+        ensureRunning();
+        ScheduledTask task = new ScheduledTask(this, command, ScheduledTask.Kind.FIXED_DELAY, unit.toNanos(delay),
+                unit.toNanos(jitter), null);
+        task.start(unit.toNanos(initialDelay));
+        return task;
+    }
+
+    /**
+     * 按 cron 表达式执行。任务抛出的异常只记录日志，不会终止后续执行。
+     * @param command 任务
+     * @param cron cron 表达式
+     * @param jitter 每次触发额外增加的随机延迟上限，为 0 时不抖动
+     * @param unit 时间单位
+     * @return 任务句柄
+     */
+    public ScheduledTask scheduleCron(Runnable command, CronExpression cron, long jitter, TimeUnit unit) {
+        ensureRunning();
+        ScheduledTask task = new ScheduledTask(this, command, ScheduledTask.Kind.CRON, 0, unit.toNanos(jitter), cron);
+        task.startCron();
+        return task;
+    }
+
+    /**
+     * 获取尚未转入时间轮的定时任务数（估计值）。
+     * @return 任务数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 停止时间轮线程，尚未到期的任务不会再执行。
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        if (Thread.currentThread() != worker) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void ensureRunning() {
+        if (!running) {
+            throw new RejectedExecutionException("Scheduler has been closed");
+        }
+    }
+
+    long now() {
+        return System.nanoTime() - startTime;
+    }
+
+    ZoneId zone() {
+        return zone;
+    }
+
+    void enqueue(ScheduledTask task, long delayNanos) {
+        if (!running) {
+            return;
+        }
+        long now = now();
+        long deadline = delayNanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + delayNanos;
+        Timeout timeout = new Timeout(task, deadline);
+        task.current = timeout;
+        if (task.isCancelled()) {
+            timeout.state.set(CANCELLED);
+            return;
+        }
+        pending.add(timeout);
+    }
+
+    void cancel(Timeout timeout) {
+        if (timeout.state.compareAndSet(INIT, CANCELLED)) {
+            cancelled.add(timeout);
+        }
+    }
+
+    /**
+     * 把到期的任务交给执行器。
+     * @return 执行器拒绝任务时返回 false
+     */
+    boolean dispatch(Runnable runnable) {
+        try {
+            executor.execute(runnable);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Scheduled task was rejected by the executor", e);
+            return false;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep = deadline - now();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            removeCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != INIT) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * 一个定时任务在时间轮中的一次到期记录。
+     */
+    static final class Timeout {
+        final ScheduledTask task;
+        final long deadline;
+        final AtomicInteger state = new AtomicInteger(INIT);
+        long remainingRounds;
+        Bucket bucket;
+        Timeout prev;
+        Timeout next;
+
+        Timeout(ScheduledTask task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * 时间轮中的一个槽，只由时间轮线程访问。
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.state.compareAndSet(INIT, EXPIRED)) {
+                        try {
+                            timeout.task.fire();
+                        } catch (RuntimeException e) {
+                            log.warn("Failed to fire scheduled task", e);
+                        }
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
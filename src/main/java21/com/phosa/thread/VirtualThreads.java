@@ -0,0 +1,41 @@
+package com.phosa.thread;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程的访问入口，Java 21 及以上版本的实现，直接调用虚拟线程 API。
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+
+    }
+
+    /**
+     * 判断当前 JDK 是否支持虚拟线程。
+     * @return 支持时返回 true
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * 创建虚拟线程工厂。
+     * @param prefix 线程名前缀，线程名为 {@code prefix-序号}
+     * @return 线程工厂
+     */
+    public static ThreadFactory factory(String prefix) {
+        return Thread.ofVirtual().name(prefix + "-", 1L).factory();
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池。
+     * @param prefix 线程名前缀
+     * @return 线程池
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        return Executors.newThreadPerTaskExecutor(factory(prefix));
+    }
+}
@@ -0,0 +1,95 @@
+package com.phosa.csv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 同一个 {@link CSVFormat} 下，{@link CsvScanner} 与 {@link CSVParser} 应当得到相同的单元格。
+ */
+class CsvScannerTest {
+    private static final CSVFormat ESCAPE = CSVFormat.DEFAULT.builder().setEscape('\\').build();
+    private static final CSVFormat ESCAPE_NO_QUOTE = CSVFormat.DEFAULT.builder().setQuote(null).setEscape('\\').build();
+
+    @Test
+    void escapesMatchCommonsCsv() throws IOException {
+        assertSameCells("a\\nb,p\\qz\n", ESCAPE);
+        assertSameCells("a\\rb\\tc\\bd\\fe,x\\,y,\\\\z\n", ESCAPE);
+        assertSameCells("\"a\\nb\",\"p\\qz\",\"x\"\"y\"\n", ESCAPE);
+        assertSameCells("x\\,y\\\\z\\r\\n\"q,1.5\n", ESCAPE_NO_QUOTE);
+    }
+
+    @Test
+    void whitespaceMatchesCommonsCsv() throws IOException {
+        CSVFormat trim = CSVFormat.DEFAULT.builder().setTrim(true).build();
+        CSVFormat surrounding = CSVFormat.DEFAULT.builder().setIgnoreSurroundingSpaces(true).build();
+        assertSameCells("\t a \t,b\n", trim);
+        assertSameCells("\t a \t,b\n", surrounding);
+        assertSameCells(" \t\"a \" \t,b\n", surrounding);
+        assertSameCells("a\\t,\\tb\n", ESCAPE.builder().setTrim(true).build());
+        assertSameCells("a\\t,\\tb\n", ESCAPE.builder().setIgnoreSurroundingSpaces(true).build());
+    }
+
+    @Test
+    void nullStringMatchesCommonsCsv() throws IOException {
+        assertSameCells("NULL,a,\"NULL\",\n", CSVFormat.DEFAULT.builder().setNullString("NULL").build());
+    }
+
+    @Test
+    void unsupportedOptionsAreRejected() {
+        CSVFormat trailing = CSVFormat.DEFAULT.builder().setTrailingDelimiter(true).build();
+        assertThrows(IllegalArgumentException.class, () -> CsvScanner.open(new StringReader("a,\n"), trailing));
+    }
+
+    @Test
+    void writerOutputReadsBack() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter<Item> writer = CsvWriter.newBuilder(Item.class).format(ESCAPE_NO_QUOTE).build(out)) {
+            writer.write(new Item("a,b\\c\r\nd\"e", 1));
+        }
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertSameCells(csv, ESCAPE_NO_QUOTE);
+        assertEquals(List.of(List.of("name", "count"), List.of("a,b\\c\r\nd\"e", "1")), scan(csv, ESCAPE_NO_QUOTE));
+    }
+
+    public record Item(String name, int count) {
+    }
+
+    private static void assertSameCells(String csv, CSVFormat format) throws IOException {
+        List<List<String>> expected = new ArrayList<>();
+        try (CSVParser parser = CSVParser.parse(new StringReader(csv), format)) {
+            for (CSVRecord record : parser) {
+                List<String> cells = new ArrayList<>();
+                record.forEach(cells::add);
+                expected.add(cells);
+            }
+        }
+        assertEquals(expected, scan(csv, format), csv);
+    }
+
+    private static List<List<String>> scan(String csv, CSVFormat format) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (CsvScanner scanner = CsvScanner.open(new StringReader(csv), format)) {
+            while (scanner.next()) {
+                CsvRow row = scanner.row();
+                List<String> cells = new ArrayList<>();
+                for (int i = 0; i < row.size(); i++) {
+                    cells.add(row.getString(i));
+                }
+                rows.add(cells);
+            }
+        }
+        return rows;
+    }
+}